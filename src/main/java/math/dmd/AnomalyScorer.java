@@ -0,0 +1,396 @@
+/*
+ * Copyright 2026 Stefan Zobel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package math.dmd;
+
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import net.jamu.matrix.Matrices;
+import net.jamu.matrix.MatrixD;
+
+/**
+ * Real-time anomaly scoring of incoming snapshots against the one-step
+ * forecast of a fitted DMD model.
+ * <p>
+ * The scorer works in the real modal coordinates of a {@link RealModalForm}
+ * ({@code x ~ Psi * z}, {@code z_(t+1) = D * z_t}). For each incoming snapshot
+ * {@code x} it computes {@code g = Psi^T * x} once ({@code O(n * p)}) and gets
+ * both the squared residual against the forecast {@code Psi * D * z_t}
+ *
+ * <pre>
+ * ||x - Psi * y||^2 = ||x||^2 - 2 * y^T * g + y^T * (Psi^T * Psi) * y
+ * </pre>
+ *
+ * and the new modal state {@code z = (Psi^T * Psi)^-1 * g} from it with
+ * {@code O(p^2)} additional work. Residual norms are converted into z-scores
+ * against an exponentially weighted running baseline. No allocations happen
+ * per snapshot.
+ * <p>
+ * If a refit function and an executor are configured (see
+ * {@link #enableRefit(Executor, Function, int, int)}) the last
+ * {@code window} snapshots are kept in a preallocated ring buffer and a
+ * background refit on that window is triggered after a number of consecutive
+ * anomalous snapshots. The new model is picked up by the next call of
+ * {@link #score(double[])} and the baseline is re-established from scratch
+ * (the next {@code warmup} residuals are scored as {@code NaN}), since the
+ * residuals of the old model say nothing about those of the new one.
+ * <p>
+ * Anomalous residuals are kept out of the baseline so that a burst of
+ * anomalies doesn't drag the baseline towards itself. The flip side is that
+ * a persistent regime shift is flagged as anomalous for as long as it lasts
+ * unless a refit is enabled or the baseline is reset explicitly with
+ * {@link #resetBaseline()}.
+ * <p>
+ * {@link #score(double[])} must be called from a single thread.
+ */
+public final class AnomalyScorer {
+
+    private static final double DEFAULT_ALPHA = 0.01;
+    private static final double DEFAULT_THRESHOLD = 4.0;
+    private static final int DEFAULT_WARMUP = 100;
+
+    // the precomputed quantities of a model
+    private static final class Model {
+        final int n;
+        final int p;
+        // Psi (column-major n x p)
+        final double[] psi;
+        // Psi^T * Psi, its inverse and the block-diagonal dynamics D (p x p)
+        final double[] G;
+        final double[] Ginv;
+        final double[] D;
+
+        Model(RealModalForm form) {
+            MatrixD Psi = form.getModes();
+            MatrixD gram = Psi.transposedTimes();
+            n = Psi.numRows();
+            p = Psi.numColumns();
+            psi = Psi.copy().getArrayUnsafe();
+            G = gram.getArrayUnsafe();
+            Ginv = gram.inverse().getArrayUnsafe();
+            D = form.getBlockDiagonal().getArrayUnsafe();
+        }
+    }
+
+    private Model model;
+    private final AtomicReference<Model> pending = new AtomicReference<>();
+
+    // per-snapshot work buffers
+    private double[] g;
+    private double[] z;
+    private double[] y;
+    private boolean hasState;
+
+    // running baseline of the residual norms
+    private double alpha = DEFAULT_ALPHA;
+    private double threshold = DEFAULT_THRESHOLD;
+    private int warmup = DEFAULT_WARMUP;
+    private long count;
+    private double mean;
+    private double var;
+    private double lastResidual = Double.NaN;
+    private double lastScore = Double.NaN;
+    private int consecutiveAnomalies;
+    private long anomalies;
+
+    // background refit
+    private Executor executor;
+    private Function<MatrixD, RealModalForm> refit;
+    private int driftCount;
+    private double[] ring;
+    private int ringSize;
+    private int ringPos;
+    private int ringFill;
+    private final AtomicBoolean refitInProgress = new AtomicBoolean();
+    private volatile Throwable lastRefitFailure;
+    private volatile long refits;
+
+    public AnomalyScorer(RealModalForm form) {
+        install(new Model(Objects.requireNonNull(form)));
+    }
+
+    /**
+     * Sets the smoothing factor of the exponentially weighted baseline
+     * ({@code 0 < alpha <= 1}).
+     */
+    public AnomalyScorer setAlpha(double alpha) {
+        if (!(alpha > 0.0 && alpha <= 1.0)) {
+            throw new IllegalArgumentException("alpha: " + alpha);
+        }
+        this.alpha = alpha;
+        return this;
+    }
+
+    /**
+     * Sets the z-score above which a snapshot is considered anomalous.
+     */
+    public AnomalyScorer setThreshold(double threshold) {
+        if (!(threshold > 0.0)) {
+            throw new IllegalArgumentException("threshold: " + threshold);
+        }
+        this.threshold = threshold;
+        return this;
+    }
+
+    /**
+     * Sets the number of residuals that are only used to establish the
+     * baseline before z-scores are reported.
+     */
+    public AnomalyScorer setWarmup(int warmup) {
+        if (warmup < 1) {
+            throw new IllegalArgumentException("warmup: " + warmup);
+        }
+        this.warmup = warmup;
+        return this;
+    }
+
+    /**
+     * Enables background refits.
+     *
+     * @param executor
+     *            the executor that runs the refits
+     * @param refit
+     *            creates a new model from an {@code n x window} snapshot
+     *            matrix, e.g.
+     *            {@code w -> new ExactDMDV2(w, dt).compute().getRealModalForm()}
+     * @param window
+     *            the number of most recent snapshots used for a refit
+     * @param driftCount
+     *            the number of consecutive anomalous snapshots that triggers a
+     *            refit
+     * @return this scorer
+     */
+    public AnomalyScorer enableRefit(Executor executor, Function<MatrixD, RealModalForm> refit, int window,
+            int driftCount) {
+        if (window < 2) {
+            throw new IllegalArgumentException("window: " + window);
+        }
+        if (driftCount < 1) {
+            throw new IllegalArgumentException("driftCount: " + driftCount);
+        }
+        this.executor = Objects.requireNonNull(executor);
+        this.refit = Objects.requireNonNull(refit);
+        this.driftCount = driftCount;
+        this.ringSize = window;
+        this.ring = new double[model.n * window];
+        this.ringPos = 0;
+        this.ringFill = 0;
+        return this;
+    }
+
+    /**
+     * Scores the next snapshot against the one-step forecast from the
+     * previous snapshot and advances the modal state.
+     *
+     * @param snapshot
+     *            the incoming snapshot (length {@code n})
+     * @return the z-score of the residual norm or {@code NaN} while there is
+     *         no forecast (first snapshot after start or after a model swap)
+     *         or the baseline is still warming up
+     */
+    public double score(double[] snapshot) {
+        Model swap = pending.getAndSet(null);
+        if (swap != null) {
+            install(swap);
+            resetBaseline();
+        }
+        Model m = model;
+        if (snapshot.length != m.n) {
+            throw new IllegalArgumentException("snapshot.length != n: " + snapshot.length + " != " + m.n);
+        }
+        remember(snapshot, m.n);
+        int n = m.n;
+        int p = m.p;
+        double[] psi = m.psi;
+        double[] g = this.g;
+        // g = Psi^T * x and ||x||^2
+        VectorOps ops = VectorOps.INSTANCE;
+        double xx = ops.dot(snapshot, 0, snapshot, 0, n);
+        ops.transposedTimes(psi, n, p, snapshot, g);
+        double result = Double.NaN;
+        if (hasState) {
+            // y = D * z (the one-step forecast in modal coordinates)
+            matVec(m.D, p, z, y);
+            // ||x||^2 - 2 * y^T * g + y^T * G * y
+            double yg = 0.0;
+            double yGy = 0.0;
+            double[] G = m.G;
+            for (int i = 0; i < p; ++i) {
+                yg += y[i] * g[i];
+                double Gy = 0.0;
+                for (int j = 0; j < p; ++j) {
+                    Gy += G[j * p + i] * y[j];
+                }
+                yGy += y[i] * Gy;
+            }
+            double residual = Math.sqrt(Math.max(xx - 2.0 * yg + yGy, 0.0));
+            result = updateBaseline(residual);
+        }
+        // z = (Psi^T * Psi)^-1 * g
+        matVec(m.Ginv, p, g, z);
+        hasState = true;
+        lastScore = result;
+        return result;
+    }
+
+    /**
+     * Discards the running baseline. The next {@code warmup} residuals are
+     * only used to establish a new baseline and are scored as {@code NaN}.
+     * The modal state is kept.
+     */
+    public void resetBaseline() {
+        count = 0L;
+        mean = 0.0;
+        var = 0.0;
+        consecutiveAnomalies = 0;
+        lastScore = Double.NaN;
+    }
+
+    public double getLastResidualNorm() {
+        return lastResidual;
+    }
+
+    public double getLastScore() {
+        return lastScore;
+    }
+
+    public boolean isLastAnomalous() {
+        return Math.abs(lastScore) > threshold;
+    }
+
+    public double getBaselineMean() {
+        return mean;
+    }
+
+    public double getBaselineStdDev() {
+        return Math.sqrt(var);
+    }
+
+    public long getAnomalyCount() {
+        return anomalies;
+    }
+
+    public long getRefitCount() {
+        return refits;
+    }
+
+    public boolean isRefitInProgress() {
+        return refitInProgress.get();
+    }
+
+    /**
+     * Returns the exception of the last failed refit (or {@code null}).
+     */
+    public Throwable getLastRefitFailure() {
+        return lastRefitFailure;
+    }
+
+    private double updateBaseline(double residual) {
+        lastResidual = residual;
+        ++count;
+        double score = Double.NaN;
+        if (count > warmup && var > 0.0) {
+            score = (residual - mean) / Math.sqrt(var);
+        }
+        boolean anomalous = Math.abs(score) > threshold;
+        if (anomalous) {
+            ++anomalies;
+            ++consecutiveAnomalies;
+            if (executor != null && consecutiveAnomalies >= driftCount) {
+                triggerRefit();
+            }
+        } else {
+            consecutiveAnomalies = 0;
+            // anomalous residuals are kept out of the baseline
+            double a = Math.max(alpha, 1.0 / count);
+            double delta = residual - mean;
+            mean += a * delta;
+            var = (1.0 - a) * (var + a * delta * delta);
+        }
+        return score;
+    }
+
+    private void remember(double[] snapshot, int n) {
+        if (ring != null && ring.length == n * ringSize) {
+            System.arraycopy(snapshot, 0, ring, ringPos * n, n);
+            ringPos = (ringPos + 1) % ringSize;
+            if (ringFill < ringSize) {
+                ++ringFill;
+            }
+        }
+    }
+
+    private void triggerRefit() {
+        if (ringFill < ringSize || !refitInProgress.compareAndSet(false, true)) {
+            return;
+        }
+        consecutiveAnomalies = 0;
+        // copy the window in chronological order (only on refit)
+        int n = model.n;
+        MatrixD window = Matrices.createD(n, ringSize);
+        double[] w = window.getArrayUnsafe();
+        int oldest = ringPos;
+        int firstPart = ringSize - oldest;
+        System.arraycopy(ring, oldest * n, w, 0, firstPart * n);
+        System.arraycopy(ring, 0, w, firstPart * n, oldest * n);
+        Function<MatrixD, RealModalForm> refit = this.refit;
+        try {
+            executor.execute(() -> {
+                try {
+                    RealModalForm form = refit.apply(window);
+                    Model m = new Model(form);
+                    if (m.n == n) {
+                        pending.set(m);
+                        ++refits;
+                    } else {
+                        lastRefitFailure = new IllegalStateException("refit changed n: " + n + " -> " + m.n);
+                    }
+                } catch (Throwable t) {
+                    lastRefitFailure = t;
+                } finally {
+                    refitInProgress.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            refitInProgress.set(false);
+            lastRefitFailure = e;
+        }
+    }
+
+    private void install(Model m) {
+        model = m;
+        if (g == null || g.length != m.p) {
+            g = new double[m.p];
+            z = new double[m.p];
+            y = new double[m.p];
+        }
+        hasState = false;
+    }
+
+    // y = A * x for a square column-major matrix A
+    private static void matVec(double[] A, int dim, double[] x, double[] y) {
+        for (int i = 0; i < dim; ++i) {
+            double sum = 0.0;
+            for (int j = 0; j < dim; ++j) {
+                sum += A[j * dim + i] * x[j];
+            }
+            y[i] = sum;
+        }
+    }
+}
@@ -0,0 +1,568 @@
+/*
+ * Copyright 2026 Stefan Zobel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package math.dmd;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import net.jamu.complex.Zd;
+import net.jamu.complex.ZdImpl;
+import net.jamu.matrix.ComplexMatrixD;
+import net.jamu.matrix.EvdComplexD;
+import net.jamu.matrix.Matrices;
+import net.jamu.matrix.MatrixD;
+import net.jamu.matrix.SvdD;
+import net.jamu.matrix.SvdEconD;
+
+/**
+ * Bagging (bootstrapped / BOP-) DMD for real-valued observations: an ensemble
+ * of DMD fits on random subsets of the snapshot pairs
+ * {@code (x_k, x_(k+1))} that yields uncertainty bands for the eigenvalues
+ * and for forecasts.
+ * <p>
+ * All ensemble members share the projection basis {@code Ur} of the truncated
+ * SVD of the first snapshot matrix {@code X1}. The snapshots are projected
+ * once ({@code Z = Ur^T * X}, {@code r x m}), afterwards each member only
+ * needs its subset of the reduced pairs to compute
+ * {@code A_s = (Z2_s * Z1_s^T) * (Z1_s * Z1_s^T)^-1}, i.e. {@code O(r^2 * m)}
+ * per member. The members are fitted in parallel on the given executor.
+ * <p>
+ * The eigenvalues of every member are matched to the eigenvalues of the
+ * reference fit on all pairs (greedily by distance), so that the statistics of
+ * "the same" eigenvalue across the ensemble can be reported. Forecasts are the
+ * projected-mode predictions {@code Ur * Re(W_s * diag(e^(omega_s * t)) *
+ * b_s)} of all members (with {@code b_s} from the first snapshot at time
+ * {@code tStart}) summarized by their element-wise mean and empirical
+ * quantiles.
+ */
+public class BaggingDMD {
+
+    private static final int DEFAULT_ENSEMBLE_SIZE = 100;
+    private static final double DEFAULT_SUBSET_FRACTION = 0.8;
+
+    private final MatrixD data;
+    private final double deltaT;
+    private final double tStart;
+    private final Executor executor;
+
+    private int ensembleSize = DEFAULT_ENSEMBLE_SIZE;
+    private double subsetFraction = DEFAULT_SUBSET_FRACTION;
+    private long seed = 0x5DEECE66DL;
+
+    // the rank can either be computed or set via the constructor
+    private int rank = 0;
+    // the shared projection basis (n x r)
+    private MatrixD Ur;
+    // the reference fit on all pairs
+    private Zd[] eigenValues;
+    private ComplexMatrixD omega;
+    // the ensemble members
+    private Member[] members;
+
+    // a member of the ensemble in the reduced space
+    private static final class Member {
+        // the eigenvalues (matched to the reference eigenvalues)
+        Zd[] eigs;
+        // the reduced modes W_s (r x r)
+        ComplexMatrixD W;
+        // omega_s (diagonal)
+        double[] omegaRe;
+        double[] omegaIm;
+        // the amplitudes b_s
+        ComplexMatrixD b;
+    }
+
+    /**
+     * Uncertainty bands of an ensemble forecast.
+     */
+    public static final class Bands {
+        private final MatrixD mean;
+        private final MatrixD lower;
+        private final MatrixD upper;
+        private final double lowerLevel;
+        private final double upperLevel;
+
+        private Bands(MatrixD mean, MatrixD lower, MatrixD upper, double lowerLevel, double upperLevel) {
+            this.mean = mean;
+            this.lower = lower;
+            this.upper = upper;
+            this.lowerLevel = lowerLevel;
+            this.upperLevel = upperLevel;
+        }
+
+        /**
+         * Returns the element-wise mean of the member forecasts.
+         */
+        public MatrixD getMean() {
+            return mean;
+        }
+
+        /**
+         * Returns the element-wise lower quantile of the member forecasts.
+         */
+        public MatrixD getLower() {
+            return lower;
+        }
+
+        /**
+         * Returns the element-wise upper quantile of the member forecasts.
+         */
+        public MatrixD getUpper() {
+            return upper;
+        }
+
+        public double getLowerLevel() {
+            return lowerLevel;
+        }
+
+        public double getUpperLevel() {
+            return upperLevel;
+        }
+    }
+
+    public BaggingDMD(MatrixD data, double deltaT, double tStart, Executor executor) {
+        if (deltaT <= 0.0) {
+            throw new IllegalArgumentException("deltaT: " + deltaT);
+        }
+        this.data = Objects.requireNonNull(data);
+        if (data.numColumns() < 3) {
+            throw new IllegalArgumentException("need at least 3 snapshots: " + data.numColumns());
+        }
+        this.deltaT = deltaT;
+        this.tStart = tStart;
+        this.executor = Objects.requireNonNull(executor);
+    }
+
+    public BaggingDMD(MatrixD data, double deltaT, int rank, double tStart, Executor executor) {
+        this(data, deltaT, tStart, executor);
+        if (rank < 1) {
+            throw new IllegalArgumentException("rank: " + rank);
+        }
+        this.rank = rank;
+    }
+
+    public BaggingDMD setEnsembleSize(int ensembleSize) {
+        if (ensembleSize < 2) {
+            throw new IllegalArgumentException("ensembleSize: " + ensembleSize);
+        }
+        this.ensembleSize = ensembleSize;
+        return this;
+    }
+
+    /**
+     * Sets the fraction of the snapshot pairs that each member gets (drawn
+     * without replacement).
+     */
+    public BaggingDMD setSubsetFraction(double subsetFraction) {
+        if (!(subsetFraction > 0.0 && subsetFraction <= 1.0)) {
+            throw new IllegalArgumentException("subsetFraction: " + subsetFraction);
+        }
+        this.subsetFraction = subsetFraction;
+        return this;
+    }
+
+    /**
+     * Sets the seed for the random subsets (the ensemble is reproducible for
+     * a given seed regardless of the executor).
+     */
+    public BaggingDMD setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public BaggingDMD compute() {
+        computeDMD();
+        return this;
+    }
+
+    public int getRank() {
+        return rank;
+    }
+
+    public int getEnsembleSize() {
+        return ensembleSize;
+    }
+
+    public double getSubsetFraction() {
+        return subsetFraction;
+    }
+
+    /**
+     * Returns the shared {@code n x r} projection basis.
+     */
+    public MatrixD getBasis() {
+        return Ur;
+    }
+
+    /**
+     * Returns the eigenvalues of the reference fit on all snapshot pairs.
+     */
+    public Zd[] getEigenValues() {
+        return eigenValues;
+    }
+
+    public ComplexMatrixD getOmega() {
+        return omega;
+    }
+
+    /**
+     * Returns the eigenvalues of the given member, ordered such that the
+     * {@code k}-th entry is matched to the {@code k}-th reference eigenvalue.
+     */
+    public Zd[] getMemberEigenValues(int member) {
+        return members[member].eigs;
+    }
+
+    /**
+     * Returns the ensemble mean of the matched eigenvalues.
+     */
+    public Zd[] getEigenValueMean() {
+        Zd[] mean = new Zd[rank];
+        for (int k = 0; k < rank; ++k) {
+            double re = 0.0;
+            double im = 0.0;
+            for (Member member : members) {
+                re += member.eigs[k].re();
+                im += member.eigs[k].im();
+            }
+            mean[k] = new ZdImpl(re / members.length, im / members.length);
+        }
+        return mean;
+    }
+
+    /**
+     * Returns the ensemble standard deviation of the real and imaginary parts
+     * of the matched eigenvalues as {@code (sd(re), sd(im))} pairs.
+     */
+    public Zd[] getEigenValueStdDev() {
+        Zd[] mean = getEigenValueMean();
+        Zd[] sd = new Zd[rank];
+        for (int k = 0; k < rank; ++k) {
+            double re = 0.0;
+            double im = 0.0;
+            for (Member member : members) {
+                double dRe = member.eigs[k].re() - mean[k].re();
+                double dIm = member.eigs[k].im() - mean[k].im();
+                re += dRe * dRe;
+                im += dIm * dIm;
+            }
+            sd[k] = new ZdImpl(Math.sqrt(re / (members.length - 1)), Math.sqrt(im / (members.length - 1)));
+        }
+        return sd;
+    }
+
+    public MatrixD getData() {
+        return data;
+    }
+
+    public double getDeltaT() {
+        return deltaT;
+    }
+
+    public double getTStart() {
+        return tStart;
+    }
+
+    /**
+     * Ensemble forecast with 90% bands (the 5% and 95% quantiles).
+     */
+    public Bands predict(double timeFrom, int numberOfPredictions) {
+        return predict(timeFrom, numberOfPredictions, 0.05, 0.95);
+    }
+
+    /**
+     * Ensemble forecast with the given quantile levels. The member forecasts
+     * are computed in the reduced space and lifted one time step at a time,
+     * so only {@code O(ensembleSize * n)} additional memory is needed.
+     *
+     * @param timeFrom
+     *            the time of the first prediction
+     * @param numberOfPredictions
+     *            the number of predicted snapshots
+     * @param lowerLevel
+     *            the level of the lower quantile
+     * @param upperLevel
+     *            the level of the upper quantile
+     * @return the mean and the quantile bands
+     */
+    public Bands predict(double timeFrom, int numberOfPredictions, double lowerLevel, double upperLevel) {
+        if (members == null) {
+            throw new IllegalStateException("compute() must be called first");
+        }
+        if (numberOfPredictions < 1) {
+            throw new IllegalArgumentException("numberOfPredictions < 1: " + numberOfPredictions);
+        }
+        if (!(0.0 <= lowerLevel && lowerLevel <= upperLevel && upperLevel <= 1.0)) {
+            throw new IllegalArgumentException("lowerLevel: " + lowerLevel + ", upperLevel: " + upperLevel);
+        }
+        int n = Ur.numRows();
+        int T = numberOfPredictions;
+        // the reduced forecasts of all members (r x T each)
+        List<CompletableFuture<MatrixD>> futures = new ArrayList<>(members.length);
+        for (Member member : members) {
+            futures.add(CompletableFuture.supplyAsync(() -> reducedForecast(member, timeFrom, T), executor));
+        }
+        MatrixD[] reduced = new MatrixD[members.length];
+        for (int s = 0; s < reduced.length; ++s) {
+            reduced[s] = futures.get(s).join();
+        }
+        MatrixD mean = Matrices.createD(n, T);
+        MatrixD lower = Matrices.createD(n, T);
+        MatrixD upper = Matrices.createD(n, T);
+        // lift and summarize in parallel chunks of time steps
+        double[] ur = Ur.copy().getArrayUnsafe();
+        int chunks = Math.min(T, 4 * Runtime.getRuntime().availableProcessors());
+        List<CompletableFuture<Void>> parts = new ArrayList<>(chunks);
+        for (int c = 0; c < chunks; ++c) {
+            int from = (int) ((long) T * c / chunks);
+            int to = (int) ((long) T * (c + 1) / chunks);
+            parts.add(CompletableFuture.runAsync(
+                    () -> summarize(ur, reduced, from, to, lowerLevel, upperLevel, mean, lower, upper), executor));
+        }
+        for (CompletableFuture<Void> part : parts) {
+            part.join();
+        }
+        return new Bands(mean, lower, upper, lowerLevel, upperLevel);
+    }
+
+    private void computeDMD() {
+        int m = data.numColumns();
+        // the shared basis from the SVD of X1
+        MatrixD X1 = data.selectConsecutiveColumns(data.startCol(), data.endCol() - 1);
+        SvdEconD svd = X1.svdEcon();
+        if (rank == 0) {
+            rank = Math.max(SvdD.optimalHardThreshold(X1.numRows(), X1.numColumns(), svd), 1);
+        }
+        rank = Math.min(rank, svd.getS().length);
+        MatrixD U = svd.getU();
+        Ur = U.selectConsecutiveColumns(U.startCol(), rank - 1);
+        // all snapshots in the reduced space (r x m)
+        MatrixD Z = Ur.transposedTimes(data);
+
+        // the reference fit on all pairs
+        int[] all = new int[m - 1];
+        for (int k = 0; k < all.length; ++k) {
+            all[k] = k;
+        }
+        Member reference = fit(Z, all, null);
+        eigenValues = reference.eigs;
+        omega = Matrices.createComplexD(rank, rank);
+        for (int k = 0; k < rank; ++k) {
+            omega.set(k, k, reference.omegaRe[k], reference.omegaIm[k]);
+        }
+
+        // the ensemble (each member gets its own random stream)
+        int subsetSize = Math.max((int) Math.round(subsetFraction * (m - 1)), Math.min(rank, m - 1));
+        SplittableRandom random = new SplittableRandom(seed);
+        List<CompletableFuture<Member>> futures = new ArrayList<>(ensembleSize);
+        for (int s = 0; s < ensembleSize; ++s) {
+            SplittableRandom memberRandom = random.split();
+            futures.add(CompletableFuture.supplyAsync(
+                    () -> fit(Z, subset(memberRandom, m - 1, subsetSize), eigenValues), executor));
+        }
+        members = new Member[ensembleSize];
+        for (int s = 0; s < ensembleSize; ++s) {
+            members[s] = futures.get(s).join();
+        }
+    }
+
+    // the DMD of the reduced pairs (Z(:, k), Z(:, k + 1)) for k in pairs
+    private Member fit(MatrixD Z, int[] pairs, Zd[] match) {
+        int r = Z.numRows();
+        // G = Z1_s * Z1_s^T and C = Z2_s * Z1_s^T
+        MatrixD G = Matrices.createD(r, r);
+        MatrixD C = Matrices.createD(r, r);
+        double[] g = G.getArrayUnsafe();
+        double[] c = C.getArrayUnsafe();
+        double[] z1 = new double[r];
+        double[] z2 = new double[r];
+        for (int k : pairs) {
+            for (int i = 0; i < r; ++i) {
+                z1[i] = Z.getUnsafe(i, k);
+                z2[i] = Z.getUnsafe(i, k + 1);
+            }
+            for (int j = 0; j < r; ++j) {
+                double z1j = z1[j];
+                int offset = j * r;
+                for (int i = 0; i < r; ++i) {
+                    g[offset + i] += z1[i] * z1j;
+                    c[offset + i] += z2[i] * z1j;
+                }
+            }
+        }
+        // A = C * G^-1, i.e. A^T = G^-1 * C^T (G is symmetric)
+        MatrixD A = G.solve(C.transpose(), Matrices.createD(r, r)).transpose();
+        EvdComplexD evd = A.toComplexMatrix().evd(true);
+        Zd[] eigs = evd.getEigenvalues();
+        ComplexMatrixD W = evd.getEigenvectors();
+        if (match != null) {
+            int[] order = matchEigenvalues(match, eigs);
+            Zd[] sorted = new Zd[r];
+            ComplexMatrixD Ws = Matrices.createComplexD(r, r);
+            for (int k = 0; k < r; ++k) {
+                sorted[k] = eigs[order[k]];
+                Ws.setSubmatrixInplace(0, k, W, 0, order[k], r - 1, order[k]);
+            }
+            eigs = sorted;
+            W = Ws;
+        }
+        Member member = new Member();
+        member.eigs = eigs;
+        member.W = W;
+        member.omegaRe = new double[r];
+        member.omegaIm = new double[r];
+        ComplexMatrixD scaled = W.copy();
+        for (int k = 0; k < r; ++k) {
+            Zd z = eigs[k].copy();
+            z.ln().scale(1.0 / deltaT);
+            member.omegaRe[k] = z.re();
+            member.omegaIm[k] = z.im();
+            // W * e^(Omega * tStart)
+            double expRe = Math.exp(z.re() * tStart);
+            double eRe = expRe * Math.cos(z.im() * tStart);
+            double eIm = expRe * Math.sin(z.im() * tStart);
+            for (int i = 0; i < r; ++i) {
+                Zd w = W.get(i, k);
+                scaled.set(i, k, w.re() * eRe - w.im() * eIm, w.re() * eIm + w.im() * eRe);
+            }
+        }
+        // b_s via the first (reduced) snapshot at time tStart
+        ComplexMatrixD z0 = Z.selectConsecutiveColumns(0, 0).toComplexMatrix();
+        member.b = scaled.solve(z0, Matrices.createComplexD(r, 1));
+        return member;
+    }
+
+    // Re(W_s * diag(e^(omega_s * t)) * b_s) for T time steps (r x T)
+    private MatrixD reducedForecast(Member member, double timeFrom, int T) {
+        int r = member.b.numRows();
+        ComplexMatrixD coeffs = Matrices.createComplexD(r, T);
+        double t = timeFrom;
+        for (int j = 0; j < T; ++j) {
+            for (int k = 0; k < r; ++k) {
+                Zd b = member.b.get(k, 0);
+                double expRe = Math.exp(member.omegaRe[k] * t);
+                double eRe = expRe * Math.cos(member.omegaIm[k] * t);
+                double eIm = expRe * Math.sin(member.omegaIm[k] * t);
+                coeffs.set(k, j, b.re() * eRe - b.im() * eIm, b.re() * eIm + b.im() * eRe);
+            }
+            t += deltaT;
+        }
+        return member.W.times(coeffs).toRealMatrix();
+    }
+
+    // lifts the member forecasts of the time steps [from, to) with Ur and
+    // computes the element-wise mean and quantiles
+    private void summarize(double[] ur, MatrixD[] reduced, int from, int to, double lowerLevel,
+            double upperLevel, MatrixD mean, MatrixD lower, MatrixD upper) {
+        int n = Ur.numRows();
+        int r = rank;
+        int count = reduced.length;
+        double[][] lifted = new double[count][n];
+        double[] values = new double[count];
+        for (int j = from; j < to; ++j) {
+            for (int s = 0; s < count; ++s) {
+                double[] x = lifted[s];
+                Arrays.fill(x, 0.0);
+                for (int k = 0; k < r; ++k) {
+                    double zk = reduced[s].getUnsafe(k, j);
+                    int offset = k * n;
+                    for (int i = 0; i < n; ++i) {
+                        x[i] += ur[offset + i] * zk;
+                    }
+                }
+            }
+            for (int i = 0; i < n; ++i) {
+                double sum = 0.0;
+                for (int s = 0; s < count; ++s) {
+                    values[s] = lifted[s][i];
+                    sum += values[s];
+                }
+                Arrays.sort(values);
+                mean.setUnsafe(i, j, sum / count);
+                lower.setUnsafe(i, j, quantile(values, lowerLevel));
+                upper.setUnsafe(i, j, quantile(values, upperLevel));
+            }
+        }
+    }
+
+    // the empirical quantile (linear interpolation) of sorted values
+    private static double quantile(double[] sorted, double level) {
+        double pos = level * (sorted.length - 1);
+        int lo = (int) Math.floor(pos);
+        int hi = Math.min(lo + 1, sorted.length - 1);
+        double frac = pos - lo;
+        return sorted[lo] + frac * (sorted[hi] - sorted[lo]);
+    }
+
+    // a random subset of size k of {0, ..., n - 1} in ascending order
+    private static int[] subset(SplittableRandom random, int n, int k) {
+        int[] indices = new int[n];
+        for (int i = 0; i < n; ++i) {
+            indices[i] = i;
+        }
+        // partial Fisher-Yates shuffle
+        for (int i = 0; i < k; ++i) {
+            int j = i + random.nextInt(n - i);
+            int tmp = indices[i];
+            indices[i] = indices[j];
+            indices[j] = tmp;
+        }
+        int[] subset = Arrays.copyOf(indices, k);
+        Arrays.sort(subset);
+        return subset;
+    }
+
+    // order[k] is the index of the eigenvalue in eigs that gets matched to
+    // reference[k] (greedily, closest pairs first)
+    private static int[] matchEigenvalues(Zd[] reference, Zd[] eigs) {
+        int r = reference.length;
+        int[] order = new int[r];
+        boolean[] usedRef = new boolean[r];
+        boolean[] used = new boolean[r];
+        for (int step = 0; step < r; ++step) {
+            double best = Double.POSITIVE_INFINITY;
+            int bestRef = -1;
+            int bestIdx = -1;
+            for (int i = 0; i < r; ++i) {
+                if (usedRef[i]) {
+                    continue;
+                }
+                for (int j = 0; j < r; ++j) {
+                    if (used[j]) {
+                        continue;
+                    }
+                    double dRe = reference[i].re() - eigs[j].re();
+                    double dIm = reference[i].im() - eigs[j].im();
+                    double dist = dRe * dRe + dIm * dIm;
+                    if (dist < best || bestRef < 0) {
+                        best = dist;
+                        bestRef = i;
+                        bestIdx = j;
+                    }
+                }
+            }
+            usedRef[bestRef] = true;
+            used[bestIdx] = true;
+            order[bestRef] = bestIdx;
+        }
+        return order;
+    }
+}
@@ -0,0 +1,975 @@
+/*
+ * Copyright 2026 Stefan Zobel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package math.dmd;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import net.jamu.complex.Zd;
+import net.jamu.complex.ZdImpl;
+import net.jamu.matrix.ComplexMatrixD;
+import net.jamu.matrix.Matrices;
+import net.jamu.matrix.MatrixD;
+
+/**
+ * Exact DMD of many small channels ({@code d x m} snapshot matrices with a
+ * small {@code d}, e.g. 3-axis sensors) that share the same time grid,
+ * fitted together in one pass.
+ * <p>
+ * The snapshots of all channels are stored in a structure-of-arrays layout
+ * (element {@code (i, j)} of all channels is contiguous) and every step of
+ * the algorithm runs with the channel index in the innermost loop:
+ * <ol>
+ * <li>the {@code d x d} Gram matrices {@code X1 * X1^T} and
+ * {@code X2 * X1^T}</li>
+ * <li>cyclic Jacobi on the Gram matrices ({@code U} and
+ * {@code Sigma^2} of the SVD of {@code X1}), with convergence tracked per
+ * channel</li>
+ * <li>{@code ATilde = Ur^T * X2 * X1^T * Ur * Sigma^-2}</li>
+ * </ol>
+ * Only the eigenvalues (Hessenberg reduction and Francis double shift QR),
+ * the eigenvectors (inverse iteration) and the amplitudes, all
+ * {@code O(r^3)}, are computed channel by channel. There is no per-channel
+ * object, native call or allocation on this path.
+ * <p>
+ * The modes are the projected modes {@code Ur * W} and the amplitudes
+ * {@code b} solve {@code W * b = Ur^T * x_0}.
+ * <p>
+ * <b>Accuracy:</b> the QR iteration computes the eigenvalues of
+ * {@code ATilde} to about {@code 1e-15} for every admissible dimension. The
+ * accuracy of the fit itself is limited by the Gram matrix, which squares the
+ * condition number of {@code X1}: the eigenvalue error is roughly
+ * {@code eps * cond(X1)^2} (measured on noise-free channels with
+ * eigenvalues close to the unit circle: {@code 5e-10} for
+ * {@code cond(X1) = 4e3}, {@code 4e-5} for {@code cond(X1) = 7e5}).
+ * Directions with a singular value below {@code 1e-6 * sigma_max} are dropped
+ * per channel: a channel whose data doesn't fill all {@code d} dimensions
+ * (e.g., a 3-axis sensor moving in a plane) gets a smaller effective rank
+ * ({@link #getRank(int)}) and no eigenvalue, mode or amplitude for these
+ * directions. The dimension is limited to {@value #MAX_DIMENSION}, beyond that
+ * ill-conditioned channels become frequent. Use {@link ExactDMD} for
+ * channels with a larger condition number.
+ */
+public final class BatchedDMD {
+
+    /**
+     * The maximum dimension {@code d} of a channel.
+     */
+    public static final int MAX_DIMENSION = 8;
+
+    // channels per block (the unit of work for parallel fits)
+    private static final int BLOCK = 512;
+    private static final int MAX_SWEEPS = 50;
+    private static final int MAX_QR_ITERATIONS = 60;
+    // relative threshold for negligible singular values
+    private static final double RANK_TOL = 1.0e-12;
+
+    private final int channels;
+    private final int dimension;
+    private final int snapshots;
+    private final double deltaT;
+    // x[(j * d + i) * channels + c] = X_c(i, j)
+    private final double[] x;
+
+    private int rank;
+    private boolean computed;
+    // the effective rank of each channel (<= rank)
+    private int[] ranks;
+    // per-channel results (structure-of-arrays, index k * channels + c)
+    private double[] eigRe;
+    private double[] eigIm;
+    private double[] bRe;
+    private double[] bIm;
+    // modes (i, k) at (k * d + i) * channels + c
+    private double[] modesRe;
+    private double[] modesIm;
+
+    public BatchedDMD(int channels, int dimension, int snapshots, double deltaT) {
+        if (channels < 1) {
+            throw new IllegalArgumentException("channels: " + channels);
+        }
+        if (dimension < 1 || dimension > MAX_DIMENSION) {
+            throw new IllegalArgumentException("dimension: " + dimension);
+        }
+        if (snapshots < 2) {
+            throw new IllegalArgumentException("snapshots: " + snapshots);
+        }
+        if (deltaT <= 0.0) {
+            throw new IllegalArgumentException("deltaT: " + deltaT);
+        }
+        if ((long) channels * dimension * snapshots > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("channels * dimension * snapshots too large");
+        }
+        this.channels = channels;
+        this.dimension = dimension;
+        this.snapshots = snapshots;
+        this.deltaT = deltaT;
+        this.x = new double[channels * dimension * snapshots];
+        this.rank = Math.min(dimension, snapshots - 1);
+    }
+
+    /**
+     * Creates the batch from equally sized {@code d x m} snapshot matrices.
+     */
+    public static BatchedDMD of(List<MatrixD> channels, double deltaT) {
+        if (channels.isEmpty()) {
+            throw new IllegalArgumentException("channels is empty");
+        }
+        MatrixD first = channels.get(0);
+        BatchedDMD batch = new BatchedDMD(channels.size(), first.numRows(), first.numColumns(), deltaT);
+        for (int c = 0; c < channels.size(); ++c) {
+            batch.setChannel(c, channels.get(c));
+        }
+        return batch;
+    }
+
+    /**
+     * Sets the rank ({@code 1 <= rank <= min(d, m - 1)}, the default is the
+     * maximum) that is used for all channels (an upper bound for the
+     * effective rank of each channel).
+     */
+    public BatchedDMD setRank(int rank) {
+        if (rank < 1 || rank > Math.min(dimension, snapshots - 1)) {
+            throw new IllegalArgumentException("rank: " + rank);
+        }
+        this.rank = rank;
+        return this;
+    }
+
+    /**
+     * Copies the {@code d x m} snapshot matrix of a channel into the batch.
+     */
+    public BatchedDMD setChannel(int channel, MatrixD data) {
+        checkChannel(channel);
+        if (data.numRows() != dimension || data.numColumns() != snapshots) {
+            throw new IllegalArgumentException("data: " + data.numRows() + " x " + data.numColumns());
+        }
+        for (int j = 0; j < snapshots; ++j) {
+            for (int i = 0; i < dimension; ++i) {
+                x[(j * dimension + i) * channels + channel] = data.getUnsafe(i, j);
+            }
+        }
+        computed = false;
+        return this;
+    }
+
+    /**
+     * Copies the column-major {@code d x m} snapshots of a channel into the
+     * batch.
+     */
+    public BatchedDMD setChannel(int channel, double[] columnMajor) {
+        checkChannel(channel);
+        if (columnMajor.length != dimension * snapshots) {
+            throw new IllegalArgumentException("columnMajor.length: " + columnMajor.length);
+        }
+        for (int idx = 0; idx < columnMajor.length; ++idx) {
+            x[idx * channels + channel] = columnMajor[idx];
+        }
+        computed = false;
+        return this;
+    }
+
+    public BatchedDMD compute() {
+        allocateResults();
+        for (int c0 = 0; c0 < channels; c0 += BLOCK) {
+            computeBlock(c0, Math.min(c0 + BLOCK, channels));
+        }
+        computed = true;
+        return this;
+    }
+
+    /**
+     * Like {@link #compute()} with the blocks of channels fitted in parallel
+     * on the given executor.
+     */
+    public BatchedDMD compute(Executor executor) {
+        Objects.requireNonNull(executor);
+        allocateResults();
+        List<CompletableFuture<Void>> blocks = new ArrayList<>();
+        for (int c0 = 0; c0 < channels; c0 += BLOCK) {
+            int from = c0;
+            int to = Math.min(c0 + BLOCK, channels);
+            blocks.add(CompletableFuture.runAsync(() -> computeBlock(from, to), executor));
+        }
+        for (CompletableFuture<Void> block : blocks) {
+            block.join();
+        }
+        computed = true;
+        return this;
+    }
+
+    /**
+     * Returns the effective rank of a channel, i.e., the requested rank minus
+     * the directions with a negligible singular value. All per-channel results
+     * have this size.
+     */
+    public int getRank(int channel) {
+        checkComputed(channel);
+        return ranks[channel];
+    }
+
+    public Zd[] getEigenValues(int channel) {
+        checkComputed(channel);
+        int r = ranks[channel];
+        Zd[] eigs = new Zd[r];
+        for (int k = 0; k < r; ++k) {
+            eigs[k] = new ZdImpl(eigRe[k * channels + channel], eigIm[k * channels + channel]);
+        }
+        return eigs;
+    }
+
+    public ComplexMatrixD getOmega(int channel) {
+        Zd[] eigs = getEigenValues(channel);
+        int r = eigs.length;
+        ComplexMatrixD omega = Matrices.createComplexD(r, r);
+        for (int k = 0; k < r; ++k) {
+            Zd z = eigs[k].copy();
+            z.ln().scale(1.0 / deltaT);
+            omega.set(k, k, z.re(), z.im());
+        }
+        return omega;
+    }
+
+    public ComplexMatrixD getConstantVector(int channel) {
+        checkComputed(channel);
+        int r = ranks[channel];
+        ComplexMatrixD b = Matrices.createComplexD(r, 1);
+        for (int k = 0; k < r; ++k) {
+            b.set(k, 0, bRe[k * channels + channel], bIm[k * channels + channel]);
+        }
+        return b;
+    }
+
+    /**
+     * Returns the {@code d x r} (projected) modes of a channel
+     * ({@code r = getRank(channel)}).
+     */
+    public ComplexMatrixD getPhi(int channel) {
+        checkComputed(channel);
+        int d = dimension;
+        int r = ranks[channel];
+        ComplexMatrixD phi = Matrices.createComplexD(d, r);
+        for (int k = 0; k < r; ++k) {
+            for (int i = 0; i < d; ++i) {
+                int idx = (k * d + i) * channels + channel;
+                phi.set(i, k, modesRe[idx], modesIm[idx]);
+            }
+        }
+        return phi;
+    }
+
+    public MatrixD predict(int channel, double timeFrom, int numberOfPredictions) {
+        if (numberOfPredictions < 1) {
+            throw new IllegalArgumentException("numberOfPredictions < 1: " + numberOfPredictions);
+        }
+        if (getRank(channel) == 0) {
+            // an all-zero channel
+            return Matrices.createD(dimension, numberOfPredictions);
+        }
+        RealModalForm form = RealModalForm.create(getPhi(channel), getEigenValues(channel), getOmega(channel),
+                deltaT);
+        return form.predict(getConstantVector(channel), timeFrom, numberOfPredictions);
+    }
+
+    public int getChannels() {
+        return channels;
+    }
+
+    public int getDimension() {
+        return dimension;
+    }
+
+    public int getSnapshots() {
+        return snapshots;
+    }
+
+    /**
+     * Returns the requested rank (see {@link #getRank(int)} for the effective
+     * rank of a channel).
+     */
+    public int getRank() {
+        return rank;
+    }
+
+    public double getDeltaT() {
+        return deltaT;
+    }
+
+    private void allocateResults() {
+        int r = rank;
+        ranks = new int[channels];
+        eigRe = new double[r * channels];
+        eigIm = new double[r * channels];
+        bRe = new double[r * channels];
+        bIm = new double[r * channels];
+        modesRe = new double[dimension * r * channels];
+        modesIm = new double[dimension * r * channels];
+    }
+
+    private void computeBlock(int c0, int c1) {
+        int B = c1 - c0;
+        int d = dimension;
+        int r = rank;
+        int C = channels;
+        double[] x = this.x;
+
+        // step 1: G = X1 * X1^T and K = X2 * X1^T (d x d per channel)
+        double[] g = new double[d * d * B];
+        double[] k2 = new double[d * d * B];
+        for (int j = 0; j < snapshots - 1; ++j) {
+            for (int l = 0; l < d; ++l) {
+                int xl = (j * d + l) * C + c0;
+                for (int i = 0; i < d; ++i) {
+                    int xi = (j * d + i) * C + c0;
+                    int yi = ((j + 1) * d + i) * C + c0;
+                    int gi = (l * d + i) * B;
+                    for (int b = 0; b < B; ++b) {
+                        double v = x[xl + b];
+                        g[gi + b] += x[xi + b] * v;
+                        k2[gi + b] += x[yi + b] * v;
+                    }
+                }
+            }
+        }
+
+        // step 2: cyclic Jacobi G = V * diag(s^2) * V^T
+        double[] v = new double[d * d * B];
+        for (int i = 0; i < d; ++i) {
+            Arrays.fill(v, (i * d + i) * B, (i * d + i + 1) * B, 1.0);
+        }
+        jacobi(g, v, d, B, MAX_SWEEPS);
+
+        // step 3: Ur (the r leading eigenvectors) and Sigma^-2
+        double[] u = new double[d * r * B];
+        double[] inv2 = new double[r * B];
+        int[] order = new int[d];
+        double[] ev = new double[d];
+        for (int b = 0; b < B; ++b) {
+            for (int i = 0; i < d; ++i) {
+                ev[i] = g[(i * d + i) * B + b];
+                order[i] = i;
+            }
+            sortDescending(ev, order);
+            double tol = RANK_TOL * Math.max(ev[order[0]], 0.0);
+            int effective = 0;
+            for (int a = 0; a < r; ++a) {
+                int col = order[a];
+                double s2 = ev[col];
+                // the negligible directions are trailing and get dropped
+                if (s2 > tol && s2 > 0.0) {
+                    inv2[a * B + b] = 1.0 / s2;
+                    ++effective;
+                }
+                for (int i = 0; i < d; ++i) {
+                    u[(a * d + i) * B + b] = v[(col * d + i) * B + b];
+                }
+            }
+            ranks[c0 + b] = effective;
+        }
+
+        // step 4: ATilde = Ur^T * K * Ur * Sigma^-2 (r x r)
+        double[] ku = new double[d * r * B];
+        for (int e = 0; e < r; ++e) {
+            for (int l = 0; l < d; ++l) {
+                int ul = (e * d + l) * B;
+                for (int i = 0; i < d; ++i) {
+                    int ki = (l * d + i) * B;
+                    int out = (e * d + i) * B;
+                    for (int b = 0; b < B; ++b) {
+                        ku[out + b] += k2[ki + b] * u[ul + b];
+                    }
+                }
+            }
+        }
+        double[] at = new double[r * r * B];
+        for (int e = 0; e < r; ++e) {
+            for (int a = 0; a < r; ++a) {
+                int out = (e * r + a) * B;
+                for (int i = 0; i < d; ++i) {
+                    int ui = (a * d + i) * B;
+                    int kui = (e * d + i) * B;
+                    for (int b = 0; b < B; ++b) {
+                        at[out + b] += u[ui + b] * ku[kui + b];
+                    }
+                }
+                int s = e * B;
+                for (int b = 0; b < B; ++b) {
+                    at[out + b] *= inv2[s + b];
+                }
+            }
+        }
+
+        // step 5: eigenvalues (Hessenberg reduction and Francis QR) of the
+        // leading rc x rc block of ATilde (the other columns are zero)
+        double[] zRe = new double[r * B];
+        double[] zIm = new double[r * B];
+        double[] h = new double[r * r];
+        double[] ort = new double[r];
+        double[] wr = new double[r];
+        double[] wi = new double[r];
+        for (int b = 0; b < B; ++b) {
+            int rc = ranks[c0 + b];
+            for (int col = 0; col < rc; ++col) {
+                for (int i = 0; i < rc; ++i) {
+                    h[col * rc + i] = at[(col * r + i) * B + b];
+                }
+            }
+            hessenberg(h, rc, ort);
+            eigenvalues(h, rc, wr, wi);
+            for (int k = 0; k < rc; ++k) {
+                zRe[k * B + b] = wr[k];
+                zIm[k * B + b] = wi[k];
+            }
+        }
+
+        // step 6: eigenvectors, modes and amplitudes channel by channel
+        double[] aRe = new double[r * r];
+        double[] aIm = new double[r * r];
+        double[] wRe = new double[r * r];
+        double[] wIm = new double[r * r];
+        double[] rhsRe = new double[r];
+        double[] rhsIm = new double[r];
+        int[] partner = new int[r];
+        for (int b = 0; b < B; ++b) {
+            int c = c0 + b;
+            int rc = ranks[c];
+            // the real roots and the roots with positive imaginary part first
+            for (int k = 0; k < rc; ++k) {
+                double lRe = zRe[k * B + b];
+                double lIm = zIm[k * B + b];
+                partner[k] = (lIm < 0.0) ? conjugatePartner(zRe, zIm, rc, B, b, k) : -1;
+                if (partner[k] < 0) {
+                    eigenvector(at, r, rc, B, b, lRe, lIm, aRe, aIm, rhsRe, rhsIm);
+                    for (int i = 0; i < rc; ++i) {
+                        wRe[k * rc + i] = rhsRe[i];
+                        wIm[k * rc + i] = rhsIm[i];
+                    }
+                    eigRe[k * C + c] = lRe;
+                    eigIm[k * C + c] = lIm;
+                }
+            }
+            // then the exactly conjugate eigenpairs for the real modal form
+            for (int k = 0; k < rc; ++k) {
+                int j = partner[k];
+                if (j >= 0) {
+                    for (int i = 0; i < rc; ++i) {
+                        wRe[k * rc + i] = wRe[j * rc + i];
+                        wIm[k * rc + i] = -wIm[j * rc + i];
+                    }
+                    eigRe[k * C + c] = zRe[j * B + b];
+                    eigIm[k * C + c] = -zIm[j * B + b];
+                }
+            }
+            // Phi = Ur * W
+            for (int k = 0; k < rc; ++k) {
+                for (int i = 0; i < d; ++i) {
+                    double sRe = 0.0;
+                    double sIm = 0.0;
+                    for (int a = 0; a < rc; ++a) {
+                        double ua = u[(a * d + i) * B + b];
+                        sRe += ua * wRe[k * rc + a];
+                        sIm += ua * wIm[k * rc + a];
+                    }
+                    modesRe[(k * d + i) * C + c] = sRe;
+                    modesIm[(k * d + i) * C + c] = sIm;
+                }
+            }
+            // W * b = Ur^T * x_0
+            for (int a = 0; a < rc; ++a) {
+                double sum = 0.0;
+                for (int i = 0; i < d; ++i) {
+                    sum += u[(a * d + i) * B + b] * x[i * C + c];
+                }
+                rhsRe[a] = sum;
+                rhsIm[a] = 0.0;
+            }
+            System.arraycopy(wRe, 0, aRe, 0, rc * rc);
+            System.arraycopy(wIm, 0, aIm, 0, rc * rc);
+            solveComplex(aRe, aIm, rc, rhsRe, rhsIm);
+            for (int k = 0; k < rc; ++k) {
+                bRe[k * C + c] = rhsRe[k];
+                bIm[k * C + c] = rhsIm[k];
+            }
+        }
+    }
+
+    // cyclic Jacobi sweeps on the symmetric matrices g (the eigenvalues end
+    // up on the diagonal), the rotations are accumulated in v. Convergence is
+    // tracked per channel: once no more than half of the channels are still
+    // active they are gathered into a smaller block, so that a single slowly
+    // converging (or NaN) channel doesn't keep the whole block sweeping
+    private static void jacobi(double[] g, double[] v, int d, int B, int sweeps) {
+        double[] cs = new double[B];
+        double[] sn = new double[B];
+        double[] off = new double[B];
+        for (int sweep = 0; sweep < sweeps; ++sweep) {
+            Arrays.fill(off, 0.0);
+            for (int p = 0; p < d; ++p) {
+                for (int q = p + 1; q < d; ++q) {
+                    int pp = (p * d + p) * B;
+                    int qq = (q * d + q) * B;
+                    int pq = (q * d + p) * B;
+                    for (int b = 0; b < B; ++b) {
+                        double apq = g[pq + b];
+                        double app = g[pp + b];
+                        double aqq = g[qq + b];
+                        double scale = Math.max(Math.sqrt(Math.abs(app * aqq)), Double.MIN_NORMAL);
+                        off[b] = Math.max(off[b], Math.abs(apq) / scale);
+                        double t = 0.0;
+                        if (apq != 0.0) {
+                            double theta = (aqq - app) / (2.0 * apq);
+                            double abs = Math.abs(theta);
+                            t = (abs > 1.0e150) ? 0.5 / theta
+                                    : Math.copySign(1.0, theta) / (abs + Math.sqrt(theta * theta + 1.0));
+                        }
+                        double c = 1.0 / Math.sqrt(t * t + 1.0);
+                        cs[b] = c;
+                        sn[b] = t * c;
+                    }
+                    // G * P and V * P (columns p and q)
+                    for (int k = 0; k < d; ++k) {
+                        rotate(g, (p * d + k) * B, (q * d + k) * B, cs, sn, B);
+                        rotate(v, (p * d + k) * B, (q * d + k) * B, cs, sn, B);
+                    }
+                    // P^T * (G * P) (rows p and q)
+                    for (int k = 0; k < d; ++k) {
+                        rotate(g, (k * d + p) * B, (k * d + q) * B, cs, sn, B);
+                    }
+                }
+            }
+            int active = 0;
+            for (int b = 0; b < B; ++b) {
+                // NaN counts as not converged
+                if (!(off[b] <= 1.0e-15)) {
+                    ++active;
+                }
+            }
+            if (active == 0) {
+                return;
+            }
+            if (2 * active <= B && sweep + 1 < sweeps) {
+                int[] idx = new int[active];
+                for (int b = 0, n = 0; b < B; ++b) {
+                    if (!(off[b] <= 1.0e-15)) {
+                        idx[n++] = b;
+                    }
+                }
+                double[] gs = new double[d * d * active];
+                double[] vs = new double[d * d * active];
+                for (int e = 0; e < d * d; ++e) {
+                    for (int n = 0; n < active; ++n) {
+                        gs[e * active + n] = g[e * B + idx[n]];
+                        vs[e * active + n] = v[e * B + idx[n]];
+                    }
+                }
+                jacobi(gs, vs, d, active, sweeps - sweep - 1);
+                for (int e = 0; e < d * d; ++e) {
+                    for (int n = 0; n < active; ++n) {
+                        g[e * B + idx[n]] = gs[e * active + n];
+                        v[e * B + idx[n]] = vs[e * active + n];
+                    }
+                }
+                return;
+            }
+        }
+    }
+
+    // (a_p, a_q) <- (c * a_p - s * a_q, s * a_p + c * a_q)
+    private static void rotate(double[] a, int ip, int iq, double[] cs, double[] sn, int B) {
+        for (int b = 0; b < B; ++b) {
+            double ap = a[ip + b];
+            double aq = a[iq + b];
+            a[ip + b] = cs[b] * ap - sn[b] * aq;
+            a[iq + b] = sn[b] * ap + cs[b] * aq;
+        }
+    }
+
+    // reduces the column-major n x n matrix h to upper Hessenberg form by
+    // Householder similarity transformations (EISPACK orthes)
+    private static void hessenberg(double[] h, int n, double[] ort) {
+        for (int m = 1; m < n - 1; ++m) {
+            double scale = 0.0;
+            for (int i = m; i < n; ++i) {
+                scale += Math.abs(h[(m - 1) * n + i]);
+            }
+            if (scale == 0.0) {
+                continue;
+            }
+            double sum = 0.0;
+            for (int i = n - 1; i >= m; --i) {
+                ort[i] = h[(m - 1) * n + i] / scale;
+                sum += ort[i] * ort[i];
+            }
+            double g = Math.sqrt(sum);
+            if (ort[m] > 0.0) {
+                g = -g;
+            }
+            sum -= ort[m] * g;
+            ort[m] -= g;
+            // H = (I - u * u^T / sum) * H * (I - u * u^T / sum)
+            for (int j = m; j < n; ++j) {
+                double f = 0.0;
+                for (int i = n - 1; i >= m; --i) {
+                    f += ort[i] * h[j * n + i];
+                }
+                f /= sum;
+                for (int i = m; i < n; ++i) {
+                    h[j * n + i] -= f * ort[i];
+                }
+            }
+            for (int i = 0; i < n; ++i) {
+                double f = 0.0;
+                for (int j = n - 1; j >= m; --j) {
+                    f += ort[j] * h[j * n + i];
+                }
+                f /= sum;
+                for (int j = m; j < n; ++j) {
+                    h[j * n + i] -= f * ort[j];
+                }
+            }
+            h[(m - 1) * n + m] = scale * g;
+            for (int i = m + 1; i < n; ++i) {
+                h[(m - 1) * n + i] = 0.0;
+            }
+        }
+    }
+
+    // eigenvalues of the column-major n x n upper Hessenberg matrix h by the
+    // Francis double shift QR algorithm (EISPACK hqr), complex conjugate
+    // pairs are returned as (re, im), (re, -im) with im > 0
+    private static void eigenvalues(double[] h, int n, double[] wr, double[] wi) {
+        final double eps = Math.ulp(1.0);
+        double norm = 0.0;
+        for (int i = 0; i < n; ++i) {
+            for (int j = Math.max(i - 1, 0); j < n; ++j) {
+                norm += Math.abs(h[j * n + i]);
+            }
+        }
+        double exshift = 0.0;
+        double p = 0.0;
+        double q = 0.0;
+        double r = 0.0;
+        double s;
+        double w;
+        double x;
+        double y;
+        double z;
+        int iter = 0;
+        int hi = n - 1;
+        while (hi >= 0) {
+            // look for a single small subdiagonal element
+            int l = hi;
+            while (l > 0) {
+                s = Math.abs(h[(l - 1) * n + l - 1]) + Math.abs(h[l * n + l]);
+                if (s == 0.0) {
+                    s = norm;
+                }
+                if (Math.abs(h[(l - 1) * n + l]) < eps * s) {
+                    break;
+                }
+                --l;
+            }
+            if (l == hi || iter > MAX_QR_ITERATIONS) {
+                // one root found (or given up: accept the diagonal)
+                wr[hi] = h[hi * n + hi] + exshift;
+                wi[hi] = 0.0;
+                --hi;
+                iter = 0;
+            } else if (l == hi - 1) {
+                // two roots found
+                w = h[hi * n + hi - 1] * h[(hi - 1) * n + hi];
+                p = (h[(hi - 1) * n + hi - 1] - h[hi * n + hi]) / 2.0;
+                q = p * p + w;
+                z = Math.sqrt(Math.abs(q));
+                x = h[hi * n + hi] + exshift;
+                if (q >= 0.0) {
+                    z = (p >= 0.0) ? p + z : p - z;
+                    wr[hi - 1] = x + z;
+                    wr[hi] = (z != 0.0) ? x - w / z : x + z;
+                    wi[hi - 1] = 0.0;
+                    wi[hi] = 0.0;
+                } else {
+                    wr[hi - 1] = x + p;
+                    wr[hi] = x + p;
+                    wi[hi - 1] = z;
+                    wi[hi] = -z;
+                }
+                hi -= 2;
+                iter = 0;
+            } else {
+                x = h[hi * n + hi];
+                y = h[(hi - 1) * n + hi - 1];
+                w = h[hi * n + hi - 1] * h[(hi - 1) * n + hi];
+                // exceptional shifts
+                if (iter == 10) {
+                    exshift += x;
+                    for (int i = 0; i <= hi; ++i) {
+                        h[i * n + i] -= x;
+                    }
+                    s = Math.abs(h[(hi - 1) * n + hi]) + Math.abs(h[(hi - 2) * n + hi - 1]);
+                    x = y = 0.75 * s;
+                    w = -0.4375 * s * s;
+                }
+                if (iter == 30) {
+                    s = (y - x) / 2.0;
+                    s = s * s + w;
+                    if (s > 0.0) {
+                        s = Math.sqrt(s);
+                        if (y < x) {
+                            s = -s;
+                        }
+                        s = x - w / ((y - x) / 2.0 + s);
+                        for (int i = 0; i <= hi; ++i) {
+                            h[i * n + i] -= s;
+                        }
+                        exshift += s;
+                        x = y = w = 0.964;
+                    }
+                }
+                ++iter;
+                // look for two consecutive small subdiagonal elements
+                int m = hi - 2;
+                while (m >= l) {
+                    z = h[m * n + m];
+                    r = x - z;
+                    s = y - z;
+                    p = (r * s - w) / h[m * n + m + 1] + h[(m + 1) * n + m];
+                    q = h[(m + 1) * n + m + 1] - z - r - s;
+                    r = h[(m + 1) * n + m + 2];
+                    s = Math.abs(p) + Math.abs(q) + Math.abs(r);
+                    p /= s;
+                    q /= s;
+                    r /= s;
+                    if (m == l) {
+                        break;
+                    }
+                    if (Math.abs(h[(m - 1) * n + m]) * (Math.abs(q) + Math.abs(r)) < eps * (Math.abs(p)
+                            * (Math.abs(h[(m - 1) * n + m - 1]) + Math.abs(z) + Math.abs(h[(m + 1) * n + m + 1])))) {
+                        break;
+                    }
+                    --m;
+                }
+                for (int i = m + 2; i <= hi; ++i) {
+                    h[(i - 2) * n + i] = 0.0;
+                    if (i > m + 2) {
+                        h[(i - 3) * n + i] = 0.0;
+                    }
+                }
+                // double QR step on rows l .. hi and columns m .. hi
+                for (int k = m; k <= hi - 1; ++k) {
+                    boolean notlast = (k != hi - 1);
+                    if (k != m) {
+                        p = h[(k - 1) * n + k];
+                        q = h[(k - 1) * n + k + 1];
+                        r = notlast ? h[(k - 1) * n + k + 2] : 0.0;
+                        x = Math.abs(p) + Math.abs(q) + Math.abs(r);
+                        if (x == 0.0) {
+                            continue;
+                        }
+                        p /= x;
+                        q /= x;
+                        r /= x;
+                    }
+                    s = Math.sqrt(p * p + q * q + r * r);
+                    if (p < 0.0) {
+                        s = -s;
+                    }
+                    if (s != 0.0) {
+                        if (k != m) {
+                            h[(k - 1) * n + k] = -s * x;
+                        } else if (l != m) {
+                            h[(k - 1) * n + k] = -h[(k - 1) * n + k];
+                        }
+                        p += s;
+                        x = p / s;
+                        y = q / s;
+                        z = r / s;
+                        q /= p;
+                        r /= p;
+                        // row modification
+                        for (int j = k; j < n; ++j) {
+                            p = h[j * n + k] + q * h[j * n + k + 1];
+                            if (notlast) {
+                                p += r * h[j * n + k + 2];
+                                h[j * n + k + 2] -= p * z;
+                            }
+                            h[j * n + k] -= p * x;
+                            h[j * n + k + 1] -= p * y;
+                        }
+                        // column modification
+                        for (int i = 0; i <= Math.min(hi, k + 3); ++i) {
+                            p = x * h[k * n + i] + y * h[(k + 1) * n + i];
+                            if (notlast) {
+                                p += z * h[(k + 2) * n + i];
+                                h[(k + 2) * n + i] -= p * r;
+                            }
+                            h[k * n + i] -= p;
+                            h[(k + 1) * n + i] -= p * q;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // the root with positive imaginary part that is the complex conjugate of
+    // root k (-1 if there is none)
+    private static int conjugatePartner(double[] zRe, double[] zIm, int r, int B, int b, int k) {
+        double re = zRe[k * B + b];
+        double im = zIm[k * B + b];
+        double tol = 1.0e-8 * (1.0 + Math.hypot(re, im));
+        int best = -1;
+        double min = tol;
+        for (int j = 0; j < r; ++j) {
+            double dist = Math.hypot(zRe[j * B + b] - re, zIm[j * B + b] + im);
+            if (j != k && zIm[j * B + b] > 0.0 && dist <= min) {
+                best = j;
+                min = dist;
+            }
+        }
+        return best;
+    }
+
+    // eigenvector of the leading n x n block of the r x r matrix of channel b
+    // for the eigenvalue (lRe, lIm) by two steps of inverse iteration,
+    // returned in (wRe, wIm)
+    private static void eigenvector(double[] at, int r, int n, int B, int b, double lRe, double lIm,
+            double[] aRe, double[] aIm, double[] wRe, double[] wIm) {
+        double shift = 1.0e-10 * (1.0 + Math.hypot(lRe, lIm));
+        Arrays.fill(wRe, 0, n, 1.0);
+        Arrays.fill(wIm, 0, n, 0.0);
+        for (int step = 0; step < 2; ++step) {
+            for (int col = 0; col < n; ++col) {
+                for (int i = 0; i < n; ++i) {
+                    aRe[col * n + i] = at[(col * r + i) * B + b];
+                    aIm[col * n + i] = 0.0;
+                }
+                aRe[col * n + col] -= lRe + shift;
+                aIm[col * n + col] -= lIm;
+            }
+            solveComplex(aRe, aIm, n, wRe, wIm);
+            double norm = 0.0;
+            for (int i = 0; i < n; ++i) {
+                norm += wRe[i] * wRe[i] + wIm[i] * wIm[i];
+            }
+            double scale = 1.0 / Math.max(Math.sqrt(norm), Double.MIN_NORMAL);
+            for (int i = 0; i < n; ++i) {
+                wRe[i] *= scale;
+                wIm[i] *= scale;
+            }
+        }
+    }
+
+    // solves the column-major complex system A * x = y in place (Gaussian
+    // elimination with partial pivoting, A is overwritten, x returned in y)
+    private static void solveComplex(double[] aRe, double[] aIm, int n, double[] yRe, double[] yIm) {
+        for (int col = 0; col < n; ++col) {
+            int pivot = col;
+            double max = -1.0;
+            for (int i = col; i < n; ++i) {
+                // |re| + |im| (as in LAPACK's izamax) is good enough for pivoting
+                double abs = Math.abs(aRe[col * n + i]) + Math.abs(aIm[col * n + i]);
+                if (abs > max) {
+                    max = abs;
+                    pivot = i;
+                }
+            }
+            if (pivot != col) {
+                for (int k = col; k < n; ++k) {
+                    swap(aRe, k * n + col, k * n + pivot);
+                    swap(aIm, k * n + col, k * n + pivot);
+                }
+                swap(yRe, col, pivot);
+                swap(yIm, col, pivot);
+            }
+            double pRe = aRe[col * n + col];
+            double pIm = aIm[col * n + col];
+            if (pRe == 0.0 && pIm == 0.0) {
+                pRe = Double.MIN_NORMAL;
+                aRe[col * n + col] = pRe;
+            }
+            double den = pRe * pRe + pIm * pIm;
+            for (int i = col + 1; i < n; ++i) {
+                double eRe = aRe[col * n + i];
+                double eIm = aIm[col * n + i];
+                // f = a(i, col) / a(col, col)
+                double fRe = (eRe * pRe + eIm * pIm) / den;
+                double fIm = (eIm * pRe - eRe * pIm) / den;
+                for (int k = col; k < n; ++k) {
+                    double cRe = aRe[k * n + col];
+                    double cIm = aIm[k * n + col];
+                    aRe[k * n + i] -= fRe * cRe - fIm * cIm;
+                    aIm[k * n + i] -= fRe * cIm + fIm * cRe;
+                }
+                double tRe = yRe[col];
+                double tIm = yIm[col];
+                yRe[i] -= fRe * tRe - fIm * tIm;
+                yIm[i] -= fRe * tIm + fIm * tRe;
+            }
+        }
+        for (int i = n - 1; i >= 0; --i) {
+            double sRe = yRe[i];
+            double sIm = yIm[i];
+            for (int k = i + 1; k < n; ++k) {
+                double cRe = aRe[k * n + i];
+                double cIm = aIm[k * n + i];
+                sRe -= cRe * yRe[k] - cIm * yIm[k];
+                sIm -= cRe * yIm[k] + cIm * yRe[k];
+            }
+            double pRe = aRe[i * n + i];
+            double pIm = aIm[i * n + i];
+            double den = pRe * pRe + pIm * pIm;
+            yRe[i] = (sRe * pRe + sIm * pIm) / den;
+            yIm[i] = (sIm * pRe - sRe * pIm) / den;
+        }
+    }
+
+    private static void swap(double[] a, int i, int j) {
+        double t = a[i];
+        a[i] = a[j];
+        a[j] = t;
+    }
+
+    // insertion sort of the indices by descending value
+    private static void sortDescending(double[] values, int[] order) {
+        for (int i = 1; i < order.length; ++i) {
+            int idx = order[i];
+            int j = i - 1;
+            while (j >= 0 && values[order[j]] < values[idx]) {
+                order[j + 1] = order[j];
+                --j;
+            }
+            order[j + 1] = idx;
+        }
+    }
+
+    private void checkChannel(int channel) {
+        if (channel < 0 || channel >= channels) {
+            throw new IllegalArgumentException("channel: " + channel);
+        }
+    }
+
+    private void checkComputed(int channel) {
+        checkChannel(channel);
+        if (!computed) {
+            throw new IllegalStateException("compute() must be called first");
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2026 Stefan Zobel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package math.dmd;
+
+import net.jamu.complex.Zd;
+import net.jamu.matrix.EvdComplexD;
+import net.jamu.matrix.MatrixD;
+import net.jamu.matrix.SvdD;
+
+/**
+ * Enforces an {@link EigenvalueConstraint} on the reduced operator
+ * {@code ATilde} (all computations are {@code r x r}).
+ */
+/* package */ final class Constraints {
+
+    static void decompose(EigenvalueConstraint constraint, MatrixD ATilde, double[] S, EvdTruncated summary) {
+        switch (constraint) {
+        case STABLE:
+            decomposeStable(ATilde, summary);
+            break;
+        case UNIT_CIRCLE:
+            decomposeUnitCircle(ATilde, S, summary);
+            break;
+        default:
+            decomposeUnconstrained(ATilde, summary);
+            break;
+        }
+    }
+
+    private static void decomposeUnconstrained(MatrixD ATilde, EvdTruncated summary) {
+        EvdComplexD evd = ATilde.toComplexMatrix().evd(true);
+        summary.eigenvecs = evd.getEigenvectors();
+        summary.eigs = evd.getEigenvalues();
+    }
+
+    private static void decomposeStable(MatrixD ATilde, EvdTruncated summary) {
+        decomposeUnconstrained(ATilde, summary);
+        // project the eigenvalues outside of the unit circle onto the unit
+        // circle (this keeps complex-conjugate pairs intact)
+        for (Zd z : summary.eigs) {
+            double abs = z.abs();
+            if (abs > 1.0) {
+                z.set(z.re() / abs, z.im() / abs);
+            }
+        }
+    }
+
+    private static void decomposeUnitCircle(MatrixD ATilde, double[] S, EvdTruncated summary) {
+        // with X1 = U * S * V^T the projected snapshots are Y1 = Sr * Vr^T and
+        // Y2 = Ur^T * X2. The orthogonal Procrustes solution of min ||Y2 - A *
+        // Y1|| is A = P * Q^T where P * S' * Q^T is the SVD of Y2 * Y1^T =
+        // Ur^T * X2 * Vr * Sr = ATilde * Sr^2
+        MatrixD M = ATilde.copy();
+        for (int col = 0; col < M.numColumns(); ++col) {
+            double s2 = S[col] * S[col];
+            for (int row = 0; row < M.numRows(); ++row) {
+                M.set(row, col, s2 * M.get(row, col));
+            }
+        }
+        SvdD svd = M.svd(true);
+        MatrixD A = svd.getU().times(svd.getVt());
+        decomposeUnconstrained(A, summary);
+        // remove rounding errors
+        for (Zd z : summary.eigs) {
+            double abs = z.abs();
+            z.set(z.re() / abs, z.im() / abs);
+        }
+        // the constrained operator isn't the exact DMD operator anymore, so
+        // the projected modes have to be used
+        summary.projectedModes = true;
+    }
+
+    private Constraints() {
+        throw new AssertionError();
+    }
+}
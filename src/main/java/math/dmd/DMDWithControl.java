@@ -0,0 +1,286 @@
+/*
+ * Copyright 2026 Stefan Zobel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package math.dmd;
+
+import java.util.Objects;
+
+import net.jamu.complex.Zd;
+import net.jamu.matrix.ComplexMatrixD;
+import net.jamu.matrix.EvdComplexD;
+import net.jamu.matrix.Matrices;
+import net.jamu.matrix.MatrixD;
+import net.jamu.matrix.SvdD;
+import net.jamu.matrix.SvdEconD;
+
+/**
+ * DMD with control (DMDc) for real-valued observations of systems with known
+ * exogenous inputs as defined in Proctor, Brunton, Kutz. Dynamic mode
+ * decomposition with control, SIAM J. Applied Dynamical Systems 15 [2016].
+ * <p>
+ * The state snapshots {@code X} ({@code n x m}) and the inputs {@code U}
+ * ({@code l x (m - 1)} or {@code l x m}, only the first {@code m - 1} columns
+ * are used) are related by {@code x_(k+1) = A * x_k + B * u_k}. The reduced
+ * operators {@code ATilde} ({@code r x r}) and {@code BTilde} ({@code r x l})
+ * are computed from one truncated SVD of the stacked matrix
+ * {@code [X1; U]} (truncation rank {@code p}) and a second truncated SVD of
+ * {@code X2} (truncation rank {@code r}). Both ranks are estimated with the
+ * optimal hard threshold if they are not given.
+ */
+public class DMDWithControl {
+
+    private final MatrixD data;
+    private final MatrixD inputs;
+    private final double deltaT;
+
+    // the truncation rank of [X1; U] (either computed or set via constructor)
+    private int inputSpaceRank = 0;
+    // the truncation rank of X2 (either computed or set via constructor)
+    private int rank = 0;
+    // basis of the r-dimensional subspace (n x r)
+    private MatrixD basis;
+    // reduced state transition operator (r x r)
+    private MatrixD ATilde;
+    // reduced input operator (r x l)
+    private MatrixD BTilde;
+    // eigenvalues in the subspace
+    private Zd[] eigenValues;
+    // modes of the fitted linear system in the high-dimensional space
+    private ComplexMatrixD phi;
+    // omega contains the eigenvalues of the fitted linear system
+    private ComplexMatrixD omega;
+
+    public DMDWithControl(MatrixD data, MatrixD inputs, double deltaT) {
+        if (deltaT <= 0.0) {
+            throw new IllegalArgumentException("deltaT: " + deltaT);
+        }
+        this.data = Objects.requireNonNull(data);
+        this.inputs = Objects.requireNonNull(inputs);
+        if (data.numColumns() < 2) {
+            throw new IllegalArgumentException("data.numColumns() < 2: " + data.numColumns());
+        }
+        if (inputs.numColumns() != data.numColumns() && inputs.numColumns() != data.numColumns() - 1) {
+            throw new IllegalArgumentException("inputs.numColumns(): " + inputs.numColumns()
+                    + " (expected: " + (data.numColumns() - 1) + " or " + data.numColumns() + ")");
+        }
+        this.deltaT = deltaT;
+    }
+
+    public DMDWithControl(MatrixD data, MatrixD inputs, double deltaT, int inputSpaceRank, int rank) {
+        this(data, inputs, deltaT);
+        if (inputSpaceRank < 1) {
+            throw new IllegalArgumentException("inputSpaceRank: " + inputSpaceRank);
+        }
+        if (rank < 1 || rank > inputSpaceRank) {
+            throw new IllegalArgumentException("rank: " + rank);
+        }
+        this.inputSpaceRank = inputSpaceRank;
+        this.rank = rank;
+    }
+
+    public DMDWithControl compute() {
+        computeDMDc();
+        return this;
+    }
+
+    public int getRank() {
+        return rank;
+    }
+
+    public int getInputSpaceRank() {
+        return inputSpaceRank;
+    }
+
+    public MatrixD getBasis() {
+        return basis;
+    }
+
+    public MatrixD getATilde() {
+        return ATilde;
+    }
+
+    public MatrixD getBTilde() {
+        return BTilde;
+    }
+
+    public Zd[] getEigenValues() {
+        return eigenValues;
+    }
+
+    public ComplexMatrixD getPhi() {
+        return phi;
+    }
+
+    public ComplexMatrixD getOmega() {
+        return omega;
+    }
+
+    public MatrixD getData() {
+        return data;
+    }
+
+    public MatrixD getInputs() {
+        return inputs;
+    }
+
+    public double getDeltaT() {
+        return deltaT;
+    }
+
+    private void computeDMDc() {
+        int n = data.numRows();
+        int l = inputs.numRows();
+        MatrixD X1 = data.viewColumns(data.startCol(), data.endCol() - 1);
+        MatrixD X2 = data.viewColumns(data.startCol() + 1, data.endCol());
+        MatrixD Ups = inputs.viewColumns(inputs.startCol(), inputs.startCol() + X1.numColumns() - 1);
+
+        // step 1: SVD of the stacked matrix Omega = [X1; U]
+        MatrixD Omega = Matrices.createD(n + l, X1.numColumns());
+        Omega.setSubmatrixInplace(0, 0, X1, 0, 0, n - 1, X1.numColumns() - 1);
+        Omega.setSubmatrixInplace(n, 0, Ups, 0, 0, l - 1, X1.numColumns() - 1);
+        SvdEconD svdOmega = Omega.svdEcon();
+        Omega = null;
+
+        // step 2: SVD of the second time-shifted snapshot X2
+        SvdEconD svdX2 = X2.svdEcon();
+
+        // estimate the rank truncations from the SVDs
+        if (inputSpaceRank == 0) {
+            inputSpaceRank = estimateRank(n + l, X1.numColumns(), svdOmega);
+            rank = Math.min(estimateRank(n, X2.numColumns(), svdX2), inputSpaceRank);
+        }
+
+        // truncated SVD of Omega: Omega ~ UTilde * STilde * VTilde^T with
+        // UTilde = [U1; U2]
+        MatrixD UTilde = svdOmega.getU();
+        MatrixD U1 = UTilde.selectSubmatrix(0, 0, n - 1, inputSpaceRank - 1);
+        MatrixD U2 = UTilde.selectSubmatrix(n, 0, n + l - 1, inputSpaceRank - 1);
+        MatrixD VtTilde = svdOmega.getVt();
+        MatrixD VTilde = VtTilde.selectSubmatrix(0, 0, inputSpaceRank - 1, VtTilde.endCol()).transpose();
+        MatrixD STildeInv = getSigmaTruncatedInverse(svdOmega, inputSpaceRank);
+
+        // truncated left singular vectors of X2
+        MatrixD UHat = svdX2.getU();
+        basis = UHat.selectConsecutiveColumns(UHat.startCol(), rank - 1);
+
+        // X2 * VTilde * STilde^-1 (n x p) is shared by ATilde, BTilde and Phi
+        MatrixD X2VSinv = X2.times(VTilde).times(STildeInv);
+        MatrixD U1tUHat = U1.transposedTimes(basis);
+        // ATilde = UHat^T * X2 * VTilde * STilde^-1 * U1^T * UHat
+        ATilde = basis.transposedTimes(X2VSinv).times(U1tUHat);
+        // BTilde = UHat^T * X2 * VTilde * STilde^-1 * U2^T
+        BTilde = basis.transposedTimes(X2VSinv).timesTransposed(U2);
+
+        // step 3: eigenvalues / eigenvectors in the subspace
+        EvdComplexD evd = ATilde.toComplexMatrix().evd(true);
+        eigenValues = evd.getEigenvalues();
+        // step 4: Phi = X2 * VTilde * STilde^-1 * U1^T * UHat * W
+        phi = X2VSinv.times(U1tUHat).times(evd.getEigenvectors());
+        omega = computeOmega(eigenValues, deltaT);
+    }
+
+    /**
+     * Predicts the state for a future input trajectory starting from the last
+     * snapshot in the data.
+     *
+     * @param futureInputs
+     *            the {@code l x T} input trajectory {@code u_m, ..., u_(m+T-1)}
+     * @return the {@code n x T} predicted states {@code x_(m+1), ...,
+     *         x_(m+T)}
+     */
+    public MatrixD predict(MatrixD futureInputs) {
+        MatrixD x0 = data.selectConsecutiveColumns(data.endCol(), data.endCol());
+        return predict(x0, futureInputs);
+    }
+
+    /**
+     * Predicts the state for an input trajectory starting from an arbitrary
+     * initial state. The time stepping is done in the {@code r}-dimensional
+     * subspace ({@code O(r^2 + r * l)} per step) and the result is lifted back
+     * into the high-dimensional space with a single matrix product.
+     *
+     * @param x0
+     *            the {@code n x 1} initial state
+     * @param futureInputs
+     *            the {@code l x T} input trajectory {@code u_0, ..., u_(T-1)}
+     * @return the {@code n x T} predicted states {@code x_1, ..., x_T}
+     */
+    public MatrixD predict(MatrixD x0, MatrixD futureInputs) {
+        if (basis == null) {
+            throw new IllegalStateException("compute() must be called first");
+        }
+        if (x0.numRows() != data.numRows() || x0.numColumns() != 1) {
+            throw new IllegalArgumentException("x0 must be a " + data.numRows() + " x 1 column vector");
+        }
+        if (futureInputs.numRows() != inputs.numRows()) {
+            throw new IllegalArgumentException("futureInputs.numRows() != inputs.numRows(): "
+                    + futureInputs.numRows() + " != " + inputs.numRows());
+        }
+        int steps = futureInputs.numColumns();
+        // B * U for all steps at once (r x T)
+        MatrixD BU = BTilde.times(futureInputs);
+        // reduced states (r x T)
+        MatrixD Z = Matrices.createD(rank, steps);
+        double[] z = basis.transposedTimes(x0).getArrayUnsafe().clone();
+        double[] zNext = new double[rank];
+        double[] a = ATilde.getArrayUnsafe();
+        for (int step = 0; step < steps; ++step) {
+            for (int i = 0; i < rank; ++i) {
+                double sum = BU.getUnsafe(i, step);
+                for (int j = 0; j < rank; ++j) {
+                    sum += a[j * rank + i] * z[j];
+                }
+                zNext[i] = sum;
+            }
+            double[] tmp = z;
+            z = zNext;
+            zNext = tmp;
+            for (int i = 0; i < rank; ++i) {
+                Z.setUnsafe(i, step, z[i]);
+            }
+        }
+        // get back into high-dimensional space
+        return basis.times(Z);
+    }
+
+    private static int estimateRank(int rows, int cols, SvdEconD svd) {
+        int rank = SvdD.optimalHardThreshold(rows, cols, svd);
+        if (rank == 0) {
+            rank = 1;
+        }
+        return rank;
+    }
+
+    private static MatrixD getSigmaTruncatedInverse(SvdEconD svd, int rank) {
+        double[] S = svd.getS();
+        // pull out low-dimensional subspace (the inverse of a diagonal matrix)
+        MatrixD SrInv = Matrices.createD(rank, rank);
+        for (int i = SrInv.startRow(); i <= SrInv.endRow(); ++i) {
+            SrInv.set(i, i, 1.0 / S[i]);
+        }
+        return SrInv;
+    }
+
+    private static ComplexMatrixD computeOmega(Zd[] eigs, double dt) {
+        // omega contains the eigenvalues of the fitted linear system
+        ComplexMatrixD omega = Matrices.createComplexD(eigs.length, eigs.length);
+        for (int i = 0; i < eigs.length; ++i) {
+            Zd z = eigs[i].copy();
+            z.ln().scale(1.0 / dt);
+            omega.set(i, i, z.re(), z.im());
+        }
+        return omega;
+    }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2026 Stefan Zobel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package math.dmd;
+
+import net.jamu.matrix.ComplexMatrixD;
+import net.jamu.matrix.Matrices;
+import net.jamu.matrix.MatrixD;
+import net.jamu.matrix.SvdEconD;
+
+/**
+ * Reusable buffers for repeated fits with the same shape (see
+ * {@link ExactDMD#setWorkspace(DMDWorkspace)} and
+ * {@link ExactDMDV2#setWorkspace(DMDWorkspace)}).
+ * <p>
+ * Without a workspace each {@code compute()} allocates copies of both
+ * snapshot matrices, {@code Vt^T}, {@code Ur^T}, {@code Sr} and its inverse,
+ * a complex copy of {@code X2} and several {@code n x r} product temporaries.
+ * With a workspace the snapshots are only viewed, {@code Sr^-1} is applied as
+ * a column scaling and all {@code n x r} and {@code r x m} intermediates
+ * (including the modes {@code Phi}) are written into buffers that are kept
+ * for the next fit. A buffer is only reallocated if its shape changes (e.g.,
+ * if the estimated rank differs from the previous fit), so refits with a
+ * fixed data shape and a fixed rank don't allocate anything larger than
+ * {@code O(r^2)} apart from the internal requirements of the SVD, the EVD
+ * and the least-squares solve. {@link #getBufferBytes()} can be used to
+ * verify that the workspace buffers have reached their steady state; the
+ * allocations inside the SVD, the EVD and the solve are not included and
+ * still happen on every fit.
+ * <p>
+ * <b>Note:</b> the modes {@code Phi} of a DMD that has been computed with a
+ * workspace live in that workspace and get overwritten by the next
+ * {@code compute()} that uses the same workspace. A workspace must not be
+ * used by concurrent computations.
+ */
+public final class DMDWorkspace {
+
+    // the first r rows of Vt (r x (m - 1))
+    private MatrixD Vtr;
+    // the first r columns of U (n x r)
+    private MatrixD Ur;
+    // X2 * Vr * Sr^-1 (n x r)
+    private MatrixD Y;
+    // Ur^T * X2 * Vr * Sr^-1 (r x r)
+    private MatrixD ATilde;
+    // real and imaginary part of the eigenvectors W (r x r)
+    private MatrixD WRe;
+    private MatrixD WIm;
+    // real and imaginary part of the modes (n x r)
+    private MatrixD phiRe;
+    private MatrixD phiIm;
+    // the modes (n x r)
+    private ComplexMatrixD phi;
+    // Phi * e^(Omega * tStart) (n x r)
+    private ComplexMatrixD scaledPhi;
+    // the first snapshot (n x 1)
+    private ComplexMatrixD x1;
+
+    private long allocations;
+    private long bufferBytes;
+
+    public DMDWorkspace() {
+    }
+
+    /**
+     * Returns the number of workspace buffers that have been allocated so
+     * far (allocations inside the solvers are not counted).
+     */
+    public long getAllocationCount() {
+        return allocations;
+    }
+
+    /**
+     * Returns the total number of bytes of the workspace buffers that have
+     * been allocated so far (doesn't change anymore once the buffers have
+     * reached their steady state). The temporary memory of the SVD, the EVD
+     * and the least-squares solve is not included.
+     */
+    public long getBufferBytes() {
+        return bufferBytes;
+    }
+
+    /**
+     * Drops all buffers (the next fit allocates them anew).
+     */
+    public void release() {
+        Vtr = null;
+        Ur = null;
+        Y = null;
+        ATilde = null;
+        WRe = null;
+        WIm = null;
+        phiRe = null;
+        phiIm = null;
+        phi = null;
+        scaledPhi = null;
+        x1 = null;
+    }
+
+    /* package */ Modes computeModes(MatrixD data, SvdEconD svd, int rank, EigenvalueConstraint constraint) {
+        int n = data.numRows();
+        double[] S = svd.getS();
+        MatrixD U = svd.getU();
+        MatrixD Vt = svd.getVt();
+        // pull out U / Vt for low-dimensional subspace
+        Vtr = real(Vtr, rank, Vt.numColumns());
+        Vt.submatrix(Vt.startRow(), Vt.startCol(), rank - 1, Vt.endCol(), Vtr, 0, 0);
+        Ur = real(Ur, n, rank);
+        U.submatrix(U.startRow(), U.startCol(), U.endRow(), rank - 1, Ur, 0, 0);
+        // Y = X2 * Vr * Sr^-1 (the second snapshot is only viewed)
+        MatrixD X2 = data.viewColumns(data.startCol() + 1, data.endCol());
+        Y = real(Y, n, rank);
+        X2.transBmult(Vtr, Y);
+        double[] y = Y.getArrayUnsafe();
+        for (int col = 0; col < rank; ++col) {
+            double sInv = 1.0 / S[col];
+            for (int i = col * n; i < (col + 1) * n; ++i) {
+                y[i] *= sInv;
+            }
+        }
+        // step 2: ATilde = Ur^T * X2 * Vr * Sr^-1
+        ATilde = real(ATilde, rank, rank);
+        Ur.transAmult(Y, ATilde);
+        // step 3: compute the 'rank' eigenvalues / eigenvectors in the subspace
+        // (subject to the constraint on the fitted linear operator)
+        EvdTruncated summary = new EvdTruncated();
+        summary.Ur = Ur;
+        Constraints.decompose(constraint, ATilde, S, summary);
+        // step 4: Phi = X2 * Vr * Sr^-1 * W (or Ur * W for the projected
+        // modes) as two real products
+        WRe = real(WRe, rank, rank);
+        WIm = real(WIm, rank, rank);
+        split(summary.eigenvecs, WRe, WIm);
+        MatrixD B = summary.projectedModes ? Ur : Y;
+        phiRe = real(phiRe, n, rank);
+        phiIm = real(phiIm, n, rank);
+        B.mult(WRe, phiRe);
+        B.mult(WIm, phiIm);
+        phi = complex(phi, n, rank);
+        combine(phiRe, phiIm, phi);
+        Modes modes = new Modes();
+        modes.eigs = summary.eigs;
+        modes.Phi = phi;
+        return modes;
+    }
+
+    /* package */ ComplexMatrixD computeInitialCondition(MatrixD data, int rank, ComplexMatrixD modes,
+            ComplexMatrixD omega, double tStart) {
+        int n = data.numRows();
+        // copy the first snapshot into the complex buffer
+        x1 = complex(x1, n, 1);
+        double[] x = x1.getArrayUnsafe();
+        int firstCol = data.startCol();
+        for (int i = 0; i < n; ++i) {
+            x[2 * i] = data.get(i, firstCol);
+            x[2 * i + 1] = 0.0;
+        }
+        // Phi * e^(Omega * tStart) as a column scaling
+        scaledPhi = complex(scaledPhi, n, rank);
+        double[] src = modes.getArrayUnsafe();
+        double[] dst = scaledPhi.getArrayUnsafe();
+        for (int k = 0; k < rank; ++k) {
+            double expRe = Math.exp(omega.get(k, k).re() * tStart);
+            double eRe = expRe * Math.cos(omega.get(k, k).im() * tStart);
+            double eIm = expRe * Math.sin(omega.get(k, k).im() * tStart);
+            for (int i = 2 * k * n; i < 2 * (k + 1) * n; i += 2) {
+                double re = src[i];
+                double im = src[i + 1];
+                dst[i] = re * eRe - im * eIm;
+                dst[i + 1] = re * eIm + im * eRe;
+            }
+        }
+        return scaledPhi.solve(x1, Matrices.createComplexD(rank, 1));
+    }
+
+    private MatrixD real(MatrixD buffer, int rows, int cols) {
+        if (buffer != null && buffer.numRows() == rows && buffer.numColumns() == cols) {
+            return buffer;
+        }
+        ++allocations;
+        bufferBytes += 8L * rows * cols;
+        return Matrices.createD(rows, cols);
+    }
+
+    private ComplexMatrixD complex(ComplexMatrixD buffer, int rows, int cols) {
+        if (buffer != null && buffer.numRows() == rows && buffer.numColumns() == cols) {
+            return buffer;
+        }
+        ++allocations;
+        bufferBytes += 16L * rows * cols;
+        return Matrices.createComplexD(rows, cols);
+    }
+
+    private static void split(ComplexMatrixD A, MatrixD re, MatrixD im) {
+        double[] a = A.getArrayUnsafe();
+        double[] r = re.getArrayUnsafe();
+        double[] i = im.getArrayUnsafe();
+        for (int k = 0; k < r.length; ++k) {
+            r[k] = a[2 * k];
+            i[k] = a[2 * k + 1];
+        }
+    }
+
+    private static void combine(MatrixD re, MatrixD im, ComplexMatrixD A) {
+        double[] a = A.getArrayUnsafe();
+        double[] r = re.getArrayUnsafe();
+        double[] i = im.getArrayUnsafe();
+        for (int k = 0; k < r.length; ++k) {
+            a[2 * k] = r[k];
+            a[2 * k + 1] = i[k];
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2026 Stefan Zobel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package math.dmd;
+
+/**
+ * Constraints on the fitted linear operator that are enforced in the
+ * {@code r}-dimensional subspace after the SVD, i.e., at an additional cost
+ * of only {@code O(r^3)}.
+ */
+public enum EigenvalueConstraint {
+
+    /**
+     * Unconstrained exact DMD.
+     */
+    NONE,
+
+    /**
+     * Stable operator: eigenvalues of {@code ATilde} that lie outside of the
+     * unit circle are projected radially onto the unit circle
+     * ({@code |lambda| <= 1}), the eigenvectors are left unchanged. This
+     * prevents long-horizon predictions from blowing up.
+     */
+    STABLE,
+
+    /**
+     * Measure-preserving operator: {@code ATilde} is replaced by the
+     * orthogonal matrix that is closest to mapping the projected first
+     * snapshots onto the projected second snapshots (orthogonal Procrustes
+     * problem as in physics-informed DMD), so that all eigenvalues lie on the
+     * unit circle ({@code |lambda| = 1}). The modes are the projected DMD
+     * modes {@code Ur * W} in this case.
+     */
+    UNIT_CIRCLE
+}
@@ -21,6 +21,9 @@ import net.jamu.matrix.MatrixD;
 
 /* package */ class EvdTruncated {
 
+    // truncated singular vectors U
+    MatrixD Ur;
+
     // truncated singular vectors V
     MatrixD Vr;
 
@@ -29,4 +32,8 @@ import net.jamu.matrix.MatrixD;
 
     // truncated eigenvalues
     Zd[] eigs;
+
+    // whether the projected modes Ur * W must be used instead of the exact
+    // DMD modes (if the reduced operator has been constrained)
+    boolean projectedModes;
 }
@@ -16,11 +16,11 @@
 package math.dmd;
 
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 import net.jamu.complex.Zd;
-import net.jamu.complex.ZdImpl;
 import net.jamu.matrix.ComplexMatrixD;
-import net.jamu.matrix.EvdComplexD;
 import net.jamu.matrix.Matrices;
 import net.jamu.matrix.MatrixD;
 import net.jamu.matrix.SvdD;
@@ -44,6 +44,14 @@ public class ExactDMD {
     private ComplexMatrixD omega;
     // constant vector evaluated via the initial condition at time 0
     private ComplexMatrixD b;
+    // lazily created real-valued representation used for prediction
+    private RealModalForm realForm;
+    // constraint on the fitted linear operator
+    private EigenvalueConstraint constraint = EigenvalueConstraint.NONE;
+    // lazily created cache for refitting the amplitudes against all snapshots
+    private OptimalAmplitudes amplitudes;
+    // optional buffers that are reused across fits
+    private DMDWorkspace workspace;
 
     public ExactDMD(MatrixD data, double deltaT) {
         if (deltaT <= 0.0) {
@@ -62,10 +70,65 @@ public class ExactDMD {
     }
 
     public ExactDMD compute() {
-        computeDMD();
+        computeDMD(FitProgress.NONE);
         return this;
     }
 
+    /**
+     * Runs {@link #compute()} on the given executor. Cancelling the returned
+     * future abandons the fit at the next stage boundary; the state of this
+     * DMD is undefined after a cancelled or failed fit until the next
+     * successful {@link #compute()}.
+     *
+     * @param executor
+     *            the executor that runs the fit
+     * @param listener
+     *            receives the stage progress (may be {@code null})
+     * @return the future of this DMD after the fit
+     */
+    public CompletableFuture<ExactDMD> computeAsync(Executor executor, ProgressListener listener) {
+        return FitProgress.run(executor, listener, progress -> {
+            computeDMD(progress);
+            return this;
+        });
+    }
+
+    /**
+     * Sets the constraint that gets enforced on the fitted linear operator in
+     * the low-rank subspace. Must be called before {@link #compute()}.
+     *
+     * @param constraint
+     *            the constraint on the eigenvalues of the fitted operator
+     * @return this DMD
+     */
+    public ExactDMD setConstraint(EigenvalueConstraint constraint) {
+        this.constraint = Objects.requireNonNull(constraint);
+        return this;
+    }
+
+    public EigenvalueConstraint getConstraint() {
+        return constraint;
+    }
+
+    /**
+     * Sets the workspace whose buffers are reused by {@link #compute()}
+     * (or {@code null} to allocate all intermediates per fit). Note that the
+     * modes {@code Phi} are then owned by the workspace and get overwritten
+     * by the next fit that uses the same workspace.
+     *
+     * @param workspace
+     *            the workspace or {@code null}
+     * @return this DMD
+     */
+    public ExactDMD setWorkspace(DMDWorkspace workspace) {
+        this.workspace = workspace;
+        return this;
+    }
+
+    public DMDWorkspace getWorkspace() {
+        return workspace;
+    }
+
     public int getRank() {
         return rank;
     }
@@ -86,6 +149,66 @@ public class ExactDMD {
         return b;
     }
 
+    /**
+     * Replaces the constant vector {@code b} (which {@link #compute()}
+     * evaluates from the first snapshot only) by the least-squares fit of the
+     * amplitudes against all snapshots. Must be called after
+     * {@link #compute()}.
+     *
+     * @return this DMD with refitted amplitudes
+     */
+    public ExactDMD fitAmplitudesToAllSnapshots() {
+        b = getOptimalAmplitudes().fit(0.0);
+        return this;
+    }
+
+    /**
+     * Returns the (lazily created) cached factors for refitting the amplitudes
+     * against all snapshots or against a new data segment. Must be called
+     * after {@link #compute()}.
+     *
+     * @return the cached optimal amplitudes fit
+     */
+    public OptimalAmplitudes getOptimalAmplitudes() {
+        if (phi == null) {
+            throw new IllegalStateException("compute() must be called first");
+        }
+        if (amplitudes == null) {
+            amplitudes = new OptimalAmplitudes(phi, omega, data, deltaT);
+        }
+        return amplitudes;
+    }
+
+    /**
+     * Returns the reconstruction error {@code ||X - Phi * diag(b) * V||_F}
+     * of the fit against its snapshots, computed from the cached factors of
+     * {@link #getOptimalAmplitudes()} without materializing a prediction.
+     * Errors below about {@code 1e-8 * ||X||_F} are not resolved (see
+     * {@link OptimalAmplitudes#residualNorm(ComplexMatrixD, double)}). Must
+     * be called after {@link #compute()}.
+     *
+     * @return the Frobenius norm of the residual
+     */
+    public double getReconstructionError() {
+        return getOptimalAmplitudes().residualNorm(b, 0.0);
+    }
+
+    /**
+     * Computes the total, per-snapshot and per-row reconstruction errors of
+     * the fit against its snapshots in a single parallel pass over the data.
+     * Must be called after {@link #compute()}.
+     *
+     * @param executor
+     *            the executor that runs the parallel row blocks
+     * @return the reconstruction errors
+     */
+    public ReconstructionError computeReconstructionErrors(Executor executor) {
+        if (phi == null) {
+            throw new IllegalStateException("compute() must be called first");
+        }
+        return ReconstructionError.compute(phi, omega, b, data, deltaT, 0.0, executor);
+    }
+
     public MatrixD getData() {
         return data;
     }
@@ -94,37 +217,78 @@ public class ExactDMD {
         return deltaT;
     }
 
-    private void computeDMD() {
+    private void computeDMD(FitProgress progress) {
+        progress.checkCancelled();
         // step 1 of exact DMD algorithm
-        SvdEconD svd = computeSvd(data);
+        SvdEconD svd = (workspace == null) ? computeSvd(data) : computeSvdOfView(data);
 
         // estimate rank truncation from SVD
         if (rank == 0) {
             rank = estimateRank(svd);
         }
+        progress.completed(FitStage.SVD);
 
         // step 4: get back into high-dimensional space
         // Modes.Phi contains the modes of the fitted linear system and
         // Modes.eigs contains the eigenvalues in the subspace
-        Modes modes = computeModesAndEigenvalues(data, svd, rank);
+        Modes modes = (workspace == null) ? computeModesAndEigenvalues(data, svd, rank, constraint)
+                : workspace.computeModes(data, svd, rank, constraint);
         eigenValues = modes.eigs;
         phi = modes.Phi;
+        realForm = null;
+        amplitudes = null;
+        progress.completed(FitStage.MODES);
 
         // omega contains the eigenvalues of the fitted linear system
         omega = computeOmega(eigenValues, deltaT);
 
         // vector b via initial condition at time 0
-        b = computeInitialCondition(data, rank, phi);
+        b = (workspace == null) ? computeInitialCondition(data, rank, phi)
+                : workspace.computeInitialCondition(data, rank, phi, omega, 0.0);
+        progress.completed(FitStage.AMPLITUDES);
     }
 
     public MatrixD predict(double timeFrom, int numberOfPredictions) {
         if (numberOfPredictions < 1) {
             throw new IllegalArgumentException("numberOfPredictions < 1: " + numberOfPredictions);
         }
-        // create time dynamics matrix (b * e^omega*t)
-        ComplexMatrixD timeDynamics = createTimeDynamicsMatrix(omega, rank, b, timeFrom, numberOfPredictions, deltaT);
-        // spatio-temporal prediction
-        return phi.times(timeDynamics).toRealMatrix();
+        // spatio-temporal prediction in real arithmetic (complex-conjugate
+        // eigenvalue pairs are combined into 2 x 2 rotation-scaling blocks)
+        return getRealModalForm().predict(b, timeFrom, numberOfPredictions);
+    }
+
+    /**
+     * Returns a lazy forecast that emits one predicted column per step
+     * starting at {@code timeFrom} with a memory footprint that is
+     * independent of the forecast horizon. Must be called after
+     * {@link #compute()}.
+     *
+     * @param timeFrom
+     *            the time of the first prediction
+     * @return the lazy forecast
+     */
+    public ForecastStream forecastStream(double timeFrom) {
+        if (phi == null) {
+            throw new IllegalStateException("compute() must be called first");
+        }
+        return new ForecastStream(phi, omega, b, deltaT, timeFrom);
+    }
+
+    /**
+     * Returns the (lazily created) real-valued representation of the modes
+     * and their dynamics that is used for prediction. Must be called after
+     * {@link #compute()}.
+     *
+     * @return the real modal form
+     */
+    public RealModalForm getRealModalForm() {
+        if (phi == null) {
+            throw new IllegalStateException("compute() must be called first");
+        }
+        if (realForm == null) {
+            realForm = RealModalForm.create(phi, eigenValues, omega, deltaT);
+        }
+        return realForm;
     }
 
     private int estimateRank(SvdEconD svd) {
@@ -138,15 +302,28 @@ public class ExactDMD {
         return X1_.svdEcon();
     }
 
-    private static Modes computeModesAndEigenvalues(MatrixD data, SvdEconD svd, int rank) {
+    private static SvdEconD computeSvdOfView(MatrixD data) {
+        // the first snapshot is only viewed (no copy)
+        MatrixD X1_ = data.viewColumns(data.startCol(), data.endCol() - 1);
+        // step 1 of exact DMD algorithm
+        return X1_.svdEcon();
+    }
+
+    private static Modes computeModesAndEigenvalues(MatrixD data, SvdEconD svd, int rank,
+            EigenvalueConstraint constraint) {
         // create the second time-shifted snapshot
         MatrixD snapshot = getSecondSnapshot(data);
         // pull out Sigma inverse for low-dimensional subspace
         MatrixD sigmaTruncInverse = getSigmaTruncatedInverse(svd, rank);
-        EvdTruncated decomposed = decompose(snapshot, svd, rank, sigmaTruncInverse);
+        EvdTruncated decomposed = decompose(snapshot, svd, rank, sigmaTruncInverse, constraint);
         // create Modes
         Modes modes = new Modes();
         modes.eigs = decomposed.eigs;
+        if (decomposed.projectedModes) {
+            // the constrained operator requires the projected modes
+            modes.Phi = decomposed.Ur.times(decomposed.eigenvecs);
+            return modes;
+        }
         // copy the second snapshot into complex matrix
         ComplexMatrixD X2 = Matrices.convertToComplex(snapshot);
         // step 4: get back into high-dimensional space
@@ -155,22 +332,23 @@ public class ExactDMD {
         return modes;
     }
 
-    private static EvdTruncated decompose(MatrixD snapshot, SvdEconD svd, int rank, MatrixD sigmaTruncInverse) {
+    private static EvdTruncated decompose(MatrixD snapshot, SvdEconD svd, int rank, MatrixD sigmaTruncInverse,
+            EigenvalueConstraint constraint) {
         MatrixD U = svd.getU();
         MatrixD Vt = svd.getVt();
         // pull out U / V for low-dimensional subspace
         MatrixD Ur = U.selectConsecutiveColumns(U.startCol(), rank - 1);
         MatrixD Vr = Vt.transpose().selectConsecutiveColumns(Vt.startCol(), rank - 1);
         EvdTruncated summary = new EvdTruncated();
+        summary.Ur = Ur;
         summary.Vr = Vr;
         // step 2: similarity-transform in the low-rank subspace
         // ATilde takes us from one snapshot to the next in the low-rank
         // subspace (from here on everything is done in the complex domain)
-        ComplexMatrixD ATilde = Ur.transpose().times(snapshot).times(Vr).times(sigmaTruncInverse).toComplexMatrix();
+        MatrixD ATilde = Ur.transpose().times(snapshot).times(Vr).times(sigmaTruncInverse);
         // step 3: compute the 'rank' eigenvalues / eigenvectors in the subspace
-        EvdComplexD evd = ATilde.evd(true);
-        summary.eigenvecs = evd.getEigenvectors();
-        summary.eigs = evd.getEigenvalues();
+        // (subject to the constraint on the fitted linear operator)
+        Constraints.decompose(constraint, ATilde, svd.getS(), summary);
         return summary;
     }
 
@@ -206,42 +384,4 @@ public class ExactDMD {
         }
         return Sr.inverse();
     }
-
-    private static ComplexMatrixD createTimeDynamicsMatrix(ComplexMatrixD omega, int rank, ComplexMatrixD b,
-            double tStart, int tNum, double dt) {
-        // time dynamics matrix (b * e^omega*t)
-        ComplexMatrixD timeDynamics = Matrices.createComplexD(rank, tNum);
-        ZdImpl omg = new ZdImpl(0.0);
-        ZdImpl expOmg_k = new ZdImpl(0.0);
-        ZdImpl b_k = new ZdImpl(0.0);
-        double t = tStart;
-        for (int i = 1; i <= tNum; ++i) {
-            int colIdx = i - 1;
-            for (int k = 0; k < rank; ++k) {
-                omega.get(k, k, omg);
-                expOmegaT(omg.re(), omg.im(), t, expOmg_k);
-                b.get(k, 0, b_k);
-                double b_k_re = b_k.re();
-                double b_k_im = b_k.im();
-                double expOmg_k_re = expOmg_k.re();
-                double expOmg_k_im = expOmg_k.im();
-                double re = b_k_re * expOmg_k_re - b_k_im * expOmg_k_im;
-                double im = b_k_im * expOmg_k_re + b_k_re * expOmg_k_im;
-                timeDynamics.set(k, colIdx, re, im);
-            }
-            t += dt;
-        }
-        return timeDynamics;
-    }
-
-    private static void expOmegaT(double omegaR, double omegaI, double t, ZdImpl out) {
-        // e^omega*t
-        omegaR = t * omegaR;
-        omegaI = t * omegaI;
-        double expRe = Math.exp(omegaR);
-        omegaR = expRe * Math.cos(omegaI);
-        omegaI = expRe * Math.sin(omegaI);
-        out.setRe(omegaR);
-        out.setIm(omegaI);
-    }
 }
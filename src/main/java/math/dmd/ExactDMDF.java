@@ -0,0 +1,296 @@
+/*
+ * Copyright 2026 Stefan Zobel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package math.dmd;
+
+import java.util.Objects;
+
+import net.jamu.complex.Zd;
+import net.jamu.matrix.ComplexMatrixD;
+import net.jamu.matrix.EvdComplexD;
+import net.jamu.matrix.Matrices;
+import net.jamu.matrix.MatrixD;
+import net.jamu.matrix.MatrixF;
+import net.jamu.matrix.SvdEconF;
+import net.jamu.matrix.SvdF;
+
+/**
+ * Mixed-precision exact DMD for large real-valued observations with
+ * {@code tStart != 0.0}.
+ * <p>
+ * The snapshot data is held in single precision and the SVD of the first
+ * snapshot matrix as well as the projections onto the {@code r}-dimensional
+ * subspace are computed in single precision. Everything from the reduced
+ * operator {@code ATilde} onwards (the {@code r x r} EVD, {@code omega}, the
+ * modes {@code Phi} and the amplitudes {@code b}) is done in double precision,
+ * so the memory for the data and the SVD workspace is halved while the
+ * (exponentially sensitive) continuous-time eigenvalues are not degraded any
+ * further than by the rounding of the data itself.
+ * <p>
+ * Accuracy: the singular vectors of a single precision SVD are accurate to
+ * roughly {@code 6e-8 * sigma_1 / gap}, so for data with about 4 significant
+ * digits the additional error compared to {@link ExactDMDV2} is dominated by
+ * the data itself as long as the retained singular values are well above
+ * {@code 1e-6 * sigma_1}. Eigenvalues that are close to each other or modes
+ * with very small singular values lose accuracy much faster than in double
+ * precision, so the rank should be chosen (or estimated) somewhat more
+ * conservatively.
+ * <p>
+ * Measured with the {@code FloatVsDoubleExample} in the test sources (the
+ * {@code 400 x 600} data of {@code RealValuedDataExample}, rank 4, exact
+ * continuous-time eigenvalues {@code +-2.2i} and {@code +-0.15i}):
+ *
+ * <pre>
+ *                                      ExactDMDV2   ExactDMDF
+ * max. eigenvalue error                2.4e-14      3.1e-5
+ * rel. reconstruction error (600 cols) 1.7e-13      2.2e-4
+ * rel. forecast error (next 100 cols)  3.5e-13      5.0e-4
+ * </pre>
+ *
+ * (relative errors in the Frobenius norm). The float errors are 3 to 4
+ * orders of magnitude above the single precision rounding of the data and
+ * grow slowly with the forecast horizon through the eigenvalue error.
+ */
+public class ExactDMDF {
+
+    private final MatrixF data;
+    private final double deltaT;
+    private final double tStart;
+
+    // the rank can either be computed or set via the constructor
+    private int rank = 0;
+    // eigenvalues in the subspace
+    private Zd[] eigenValues;
+    // modes of the fitted linear system in the high-dimensional space
+    private ComplexMatrixD phi;
+    // omega contains the eigenvalues of the fitted linear system
+    private ComplexMatrixD omega;
+    // constant vector evaluated via the initial condition at time tStart
+    private ComplexMatrixD b;
+    // lazily created real-valued representation used for prediction
+    private RealModalForm realForm;
+
+    public ExactDMDF(MatrixF data, double deltaT) {
+        this(data, deltaT, 0.0);
+    }
+
+    public ExactDMDF(MatrixF data, double deltaT, double tStart) {
+        if (deltaT <= 0.0) {
+            throw new IllegalArgumentException("deltaT: " + deltaT);
+        }
+        this.data = Objects.requireNonNull(data);
+        this.deltaT = deltaT;
+        this.tStart = tStart;
+    }
+
+    public ExactDMDF(MatrixF data, double deltaT, int rank) {
+        this(data, deltaT, rank, 0.0);
+    }
+
+    public ExactDMDF(MatrixF data, double deltaT, int rank, double tStart) {
+        this(data, deltaT, tStart);
+        if (rank < 1) {
+            throw new IllegalArgumentException("rank: " + rank);
+        }
+        this.rank = rank;
+    }
+
+    public ExactDMDF compute() {
+        computeDMD();
+        return this;
+    }
+
+    public int getRank() {
+        return rank;
+    }
+
+    public Zd[] getEigenValues() {
+        return eigenValues;
+    }
+
+    public ComplexMatrixD getPhi() {
+        return phi;
+    }
+
+    public ComplexMatrixD getOmega() {
+        return omega;
+    }
+
+    public ComplexMatrixD getConstantVector() {
+        return b;
+    }
+
+    public MatrixF getData() {
+        return data;
+    }
+
+    public double getDeltaT() {
+        return deltaT;
+    }
+
+    public double getTStart() {
+        return tStart;
+    }
+
+    private void computeDMD() {
+        // step 1 of exact DMD algorithm (single precision)
+        SvdEconF svd = computeSvd(data);
+
+        // estimate rank truncation from SVD
+        if (rank == 0) {
+            rank = estimateRank(svd);
+        }
+
+        // steps 2 - 4: the projections are done in single precision, the
+        // EVD and everything after it in double precision
+        Modes modes = computeModesAndEigenvalues(data, svd, rank);
+        eigenValues = modes.eigs;
+        phi = modes.Phi;
+        realForm = null;
+
+        // omega contains the eigenvalues of the fitted linear system
+        omega = computeOmega(eigenValues, deltaT);
+
+        // vector b via initial condition at time tStart
+        b = computeInitialCondition(data, rank, phi, tStart, omega);
+    }
+
+    /**
+     * Spatio-temporal prediction in single precision. The time dynamics and
+     * the product with the modes are evaluated in double precision.
+     *
+     * @param timeFrom
+     *            the time of the first prediction
+     * @param numberOfPredictions
+     *            the number of predicted snapshots
+     * @return the {@code n x numberOfPredictions} prediction
+     */
+    public MatrixF predict(double timeFrom, int numberOfPredictions) {
+        if (numberOfPredictions < 1) {
+            throw new IllegalArgumentException("numberOfPredictions < 1: " + numberOfPredictions);
+        }
+        // spatio-temporal prediction in real arithmetic (complex-conjugate
+        // eigenvalue pairs are combined into 2 x 2 rotation-scaling blocks)
+        return Matrices.convert(getRealModalForm().predict(b, timeFrom, numberOfPredictions));
+    }
+
+    /**
+     * Returns a lazy forecast that emits one predicted column per step
+     * starting at {@code timeFrom} with a memory footprint that is
+     * independent of the forecast horizon. Must be called after
+     * {@link #compute()}.
+     *
+     * @param timeFrom
+     *            the time of the first prediction
+     * @return the lazy forecast
+     */
+    public ForecastStream forecastStream(double timeFrom) {
+        if (phi == null) {
+            throw new IllegalStateException("compute() must be called first");
+        }
+        return new ForecastStream(phi, omega, b, deltaT, timeFrom);
+    }
+
+    /**
+     * Returns the (lazily created) real-valued representation of the modes
+     * and their dynamics that is used for prediction. Must be called after
+     * {@link #compute()}.
+     *
+     * @return the real modal form
+     */
+    public RealModalForm getRealModalForm() {
+        if (phi == null) {
+            throw new IllegalStateException("compute() must be called first");
+        }
+        if (realForm == null) {
+            realForm = RealModalForm.create(phi, eigenValues, omega, deltaT);
+        }
+        return realForm;
+    }
+
+    private int estimateRank(SvdEconF svd) {
+        int rank = SvdF.optimalHardThreshold(data.numRows(), data.numColumns(), svd);
+        if (rank == 0) {
+            rank = 1;
+        }
+        return rank;
+    }
+
+    private static SvdEconF computeSvd(MatrixF data) {
+        // view on the first snapshot (no copy of the measurements matrix)
+        MatrixF X1_ = data.viewColumns(data.startCol(), data.endCol() - 1);
+        // step 1 of exact DMD algorithm
+        return X1_.svdEcon();
+    }
+
+    private static Modes computeModesAndEigenvalues(MatrixF data, SvdEconF svd, int rank) {
+        // view on the second time-shifted snapshot
+        MatrixF X2 = data.viewColumns(data.startCol() + 1, data.endCol());
+        MatrixF U = svd.getU();
+        MatrixF Vt = svd.getVt();
+        // pull out U / V for low-dimensional subspace
+        MatrixF Ur = U.selectConsecutiveColumns(U.startCol(), rank - 1);
+        MatrixF Vr = Vt.selectSubmatrix(Vt.startRow(), Vt.startCol(), rank - 1, Vt.endCol()).transpose();
+        // pull out Sigma inverse for low-dimensional subspace
+        MatrixF sigmaTruncInverse = getSigmaTruncatedInverse(svd, rank);
+        // X2 * Vr * Sigma^-1 (n x r) is needed for both ATilde and Phi
+        MatrixF X2VrSinv = X2.times(Vr).times(sigmaTruncInverse);
+        // step 2: similarity-transform in the low-rank subspace (the r x r
+        // matrix ATilde is promoted to double precision from here on)
+        MatrixD ATilde = Matrices.convert(Ur.transposedTimes(X2VrSinv));
+        // step 3: compute the 'rank' eigenvalues / eigenvectors in the subspace
+        EvdComplexD evd = ATilde.toComplexMatrix().evd(true);
+        Modes modes = new Modes();
+        modes.eigs = evd.getEigenvalues();
+        // step 4: get back into high-dimensional space
+        // Phi contains the modes of the fitted linear system
+        modes.Phi = Matrices.convert(X2VrSinv).times(evd.getEigenvectors());
+        return modes;
+    }
+
+    private static ComplexMatrixD computeOmega(Zd[] eigs, double dt) {
+        // omega contains the eigenvalues of the fitted linear system
+        ComplexMatrixD omega = Matrices.createComplexD(eigs.length, eigs.length);
+        for (int i = 0; i < eigs.length; ++i) {
+            Zd z = eigs[i].copy();
+            z.ln().scale(1.0 / dt);
+            omega.set(i, i, z.re(), z.im());
+        }
+        return omega;
+    }
+
+    private static ComplexMatrixD computeInitialCondition(MatrixF data, int rank, ComplexMatrixD modes,
+            double tStart, ComplexMatrixD omega) {
+        // compute initial condition at time tStart
+        MatrixF firstCol = data.selectConsecutiveColumns(data.startCol(), data.startCol());
+        ComplexMatrixD x1 = Matrices.convert(firstCol).toComplexMatrix();
+        // Omega * t
+        ComplexMatrixD omegaTimesT = omega.copy();
+        omegaTimesT = omegaTimesT.scaleInplace(tStart, 0.0);
+        // e ^ (Omega * t)
+        ComplexMatrixD expOmegaTimesT = omegaTimesT.expm();
+        return (modes.times(expOmegaTimesT)).solve(x1, Matrices.createComplexD(rank, x1.numColumns()));
+    }
+
+    private static MatrixF getSigmaTruncatedInverse(SvdEconF svd, int rank) {
+        float[] S = svd.getS();
+        // pull out low-dimensional subspace (the inverse of a diagonal matrix)
+        MatrixF SrInv = Matrices.createF(rank, rank);
+        for (int i = SrInv.startRow(); i <= SrInv.endRow(); ++i) {
+            SrInv.set(i, i, 1.0f / S[i]);
+        }
+        return SrInv;
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2026 Stefan Zobel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package math.dmd;
+
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Cancellation checks and progress reports of a (possibly asynchronous)
+ * fit. The checks throw a {@code CancellationException} once the future of
+ * the fit has been cancelled, so that a stale fit is abandoned at the next
+ * stage boundary (or the next iteration of an iterative SVD).
+ */
+/* package */ final class FitProgress {
+
+    // for the synchronous compute() methods
+    static final FitProgress NONE = new FitProgress(null, null);
+
+    private static final int STAGES = FitStage.values().length;
+
+    private final CompletableFuture<?> future;
+    private final ProgressListener listener;
+
+    private FitProgress(CompletableFuture<?> future, ProgressListener listener) {
+        this.future = future;
+        this.listener = listener;
+    }
+
+    // runs the fit on the executor; cancelling the returned future stops
+    // the fit at its next check
+    static <T> CompletableFuture<T> run(Executor executor, ProgressListener listener, Function<FitProgress, T> fit) {
+        Objects.requireNonNull(executor);
+        CompletableFuture<T> future = new CompletableFuture<>();
+        FitProgress progress = new FitProgress(future, listener);
+        try {
+            executor.execute(() -> {
+                if (future.isDone()) {
+                    // cancelled before it started
+                    return;
+                }
+                try {
+                    future.complete(fit.apply(progress));
+                } catch (CancellationException e) {
+                    future.cancel(false);
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+        } catch (RuntimeException e) {
+            // e.g. a RejectedExecutionException of a saturated or shut down
+            // executor is reported through the future like any other failure
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    void checkCancelled() {
+        if (future != null && future.isCancelled()) {
+            throw new CancellationException();
+        }
+    }
+
+    // the stage has been completed
+    void completed(FitStage stage) {
+        within(stage, 1.0);
+    }
+
+    // 'fraction' of the stage has been completed
+    void within(FitStage stage, double fraction) {
+        checkCancelled();
+        if (listener != null) {
+            listener.progress(stage, (stage.ordinal() + Math.min(fraction, 1.0)) / STAGES);
+        }
+    }
+}
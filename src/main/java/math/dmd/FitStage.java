@@ -0,0 +1,38 @@
+/*
+ * Copyright 2026 Stefan Zobel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package math.dmd;
+
+/**
+ * The stages of a DMD fit as reported to a {@link ProgressListener}.
+ */
+public enum FitStage {
+
+    /**
+     * The SVD of the first snapshot matrix.
+     */
+    SVD,
+
+    /**
+     * The eigendecomposition in the low-rank subspace and the reconstruction
+     * of the modes {@code Phi} in the high-dimensional space.
+     */
+    MODES,
+
+    /**
+     * The constant vector {@code b} of the initial condition.
+     */
+    AMPLITUDES
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2026 Stefan Zobel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package math.dmd;
+
+import java.util.Objects;
+
+import net.jamu.complex.Zd;
+import net.jamu.matrix.ComplexMatrixD;
+import net.jamu.matrix.Matrices;
+import net.jamu.matrix.MatrixD;
+
+/**
+ * Repeated forecasts on a fixed {@code deltaT} grid with a fixed horizon
+ * for a fitted model (e.g., a scheduler that forecasts every minute with a
+ * shifting start time).
+ * <p>
+ * The plan caches the table of eigenvalue powers
+ * {@code lambda_k^j = e^(omega_k * j * deltaT)} for {@code j < horizon}
+ * (one entry per mode group of the {@link RealModalForm}, i.e., about
+ * {@code r / 2} rows for a fully paired spectrum). Because
+ * {@code b_k * e^(omega_k * (timeFrom + j * deltaT)) = z_k * lambda_k^j} with
+ * {@code z_k = b_k * e^(omega_k * timeFrom)}, a forecast from any
+ * {@code timeFrom} is one complex diagonal scaling of {@code b} and a
+ * multiplication with the cached table. No {@code exp}, {@code sin} or
+ * {@code cos} is evaluated per step. The memory of the table is reported by
+ * {@link #getTableSize()} and {@link #getTableBytes()}.
+ * <p>
+ * A plan is immutable and can be shared between threads.
+ */
+public final class ForecastPlan {
+
+    private final RealModalForm form;
+    private final int horizon;
+    private final int groups;
+    // lambda_g^j (groups x horizon, column-major)
+    private final double[] powersRe;
+    private final double[] powersIm;
+
+    /**
+     * Creates the plan and computes the eigenvalue power table.
+     *
+     * @param form
+     *            the real modal form of the fitted model
+     * @param horizon
+     *            the maximum number of predicted snapshots
+     */
+    public ForecastPlan(RealModalForm form, int horizon) {
+        this.form = Objects.requireNonNull(form);
+        if (horizon < 1) {
+            throw new IllegalArgumentException("horizon: " + horizon);
+        }
+        this.horizon = horizon;
+        this.groups = form.groupCount();
+        this.powersRe = new double[groups * horizon];
+        this.powersIm = new double[groups * horizon];
+        double dt = form.getDeltaT();
+        for (int g = 0; g < groups; ++g) {
+            int k = form.groupMode(g);
+            double a = form.omegaRe(k);
+            double w = form.omegaIm(k);
+            for (int j = 0; j < horizon; ++j) {
+                // e^(omega_k * j * dt) directly (no error accumulation)
+                double t = j * dt;
+                double expRe = Math.exp(a * t);
+                powersRe[j * groups + g] = expRe * Math.cos(w * t);
+                powersIm[j * groups + g] = expRe * Math.sin(w * t);
+            }
+        }
+    }
+
+    /**
+     * Predicts the full horizon starting at {@code timeFrom}.
+     *
+     * @param b
+     *            the {@code r x 1} amplitude vector
+     * @param timeFrom
+     *            the time of the first prediction
+     * @return the {@code n x horizon} prediction
+     */
+    public MatrixD predict(ComplexMatrixD b, double timeFrom) {
+        return predict(b, timeFrom, horizon);
+    }
+
+    /**
+     * Predicts {@code numberOfPredictions <= horizon} snapshots starting at
+     * {@code timeFrom}.
+     *
+     * @param b
+     *            the {@code r x 1} amplitude vector
+     * @param timeFrom
+     *            the time of the first prediction
+     * @param numberOfPredictions
+     *            the number of predicted snapshots
+     * @return the {@code n x numberOfPredictions} prediction
+     */
+    public MatrixD predict(ComplexMatrixD b, double timeFrom, int numberOfPredictions) {
+        return form.getModes().times(coefficients(b, timeFrom, numberOfPredictions));
+    }
+
+    /**
+     * Returns the real {@code p x numberOfPredictions} coefficient matrix
+     * such that the prediction is {@code form.getModes() * coefficients}
+     * (the same as {@link RealModalForm#coefficients(ComplexMatrixD, double, int)}).
+     */
+    public MatrixD coefficients(ComplexMatrixD b, double timeFrom, int numberOfPredictions) {
+        if (numberOfPredictions < 1 || numberOfPredictions > horizon) {
+            throw new IllegalArgumentException("numberOfPredictions: " + numberOfPredictions);
+        }
+        // step 1: z = b .* e^(omega * timeFrom)
+        double[] zRe = new double[groups];
+        double[] zIm = new double[groups];
+        for (int g = 0; g < groups; ++g) {
+            int k = form.groupMode(g);
+            Zd b_k = b.get(k, 0);
+            double expRe = Math.exp(form.omegaRe(k) * timeFrom);
+            double eRe = expRe * Math.cos(form.omegaIm(k) * timeFrom);
+            double eIm = expRe * Math.sin(form.omegaIm(k) * timeFrom);
+            zRe[g] = b_k.re() * eRe - b_k.im() * eIm;
+            zIm[g] = b_k.im() * eRe + b_k.re() * eIm;
+        }
+        // step 2: diag(z) * powers
+        int p = form.getModes().numColumns();
+        MatrixD C = Matrices.createD(p, numberOfPredictions);
+        double[] c = C.getArrayUnsafe();
+        boolean[] real = new boolean[groups];
+        for (int g = 0; g < groups; ++g) {
+            real[g] = form.isRealGroup(g);
+        }
+        int row = 0;
+        for (int j = 0; j < numberOfPredictions; ++j) {
+            int offset = j * groups;
+            for (int g = 0; g < groups; ++g) {
+                double lRe = powersRe[offset + g];
+                double lIm = powersIm[offset + g];
+                c[row++] = zRe[g] * lRe - zIm[g] * lIm;
+                if (!real[g]) {
+                    c[row++] = zIm[g] * lRe + zRe[g] * lIm;
+                }
+            }
+        }
+        return C;
+    }
+
+    public int getHorizon() {
+        return horizon;
+    }
+
+    /**
+     * Returns the number of complex entries of the cached power table
+     * ({@code groups * horizon}).
+     */
+    public long getTableSize() {
+        return (long) groups * horizon;
+    }
+
+    /**
+     * Returns the memory of the cached power table in bytes.
+     */
+    public long getTableBytes() {
+        return 16L * getTableSize();
+    }
+
+    public RealModalForm getRealModalForm() {
+        return form;
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2026 Stefan Zobel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package math.dmd;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.function.ObjDoubleConsumer;
+
+import net.jamu.matrix.ComplexMatrixD;
+
+/**
+ * A lazy, pull-based forecast that emits one predicted column at a time. The
+ * modal state {@code b * e^(omega * t)} is advanced by one multiplication with
+ * the discrete-time eigenvalues {@code e^(omega * deltaT)} per step and the
+ * real part of {@code Phi * state} is written into a single reusable output
+ * buffer, so each step costs {@code O(n * r)} and the memory is independent
+ * of the forecast horizon.
+ * <p>
+ * <b>Note:</b> {@link #next()} always returns the same {@code double[]}
+ * buffer which gets overwritten by the next call. Consumers that need to
+ * retain a column must copy it. Instances are not thread-safe.
+ */
+public final class ForecastStream implements Iterator<double[]> {
+
+    // the modal state is re-anchored to e^(omega * t) after that many steps
+    // to keep the rounding errors of the repeated multiplication bounded
+    private static final int REANCHOR_INTERVAL = 1024;
+
+    private final int n;
+    private final int rank;
+    private final double deltaT;
+    private final double timeFrom;
+    // real and imaginary part of Phi (column-major n x r)
+    private final double[] phiRe;
+    private final double[] phiIm;
+    // omega, b and the discrete-time eigenvalues e^(omega * deltaT)
+    private final double[] omegaRe;
+    private final double[] omegaIm;
+    private final double[] bRe;
+    private final double[] bIm;
+    private final double[] lambdaRe;
+    private final double[] lambdaIm;
+    // the current modal state
+    private final double[] stateRe;
+    private final double[] stateIm;
+    // the reusable output buffer
+    private final double[] column;
+    private long step;
+
+    public ForecastStream(ComplexMatrixD phi, ComplexMatrixD omega, ComplexMatrixD b, double deltaT,
+            double timeFrom) {
+        if (deltaT <= 0.0) {
+            throw new IllegalArgumentException("deltaT: " + deltaT);
+        }
+        Objects.requireNonNull(phi);
+        Objects.requireNonNull(omega);
+        Objects.requireNonNull(b);
+        this.n = phi.numRows();
+        this.rank = phi.numColumns();
+        this.deltaT = deltaT;
+        this.timeFrom = timeFrom;
+        this.phiRe = phi.toRealMatrix().getArrayUnsafe();
+        this.phiIm = ModeOps.imagPart(phi).getArrayUnsafe();
+        this.omegaRe = new double[rank];
+        this.omegaIm = new double[rank];
+        this.bRe = new double[rank];
+        this.bIm = new double[rank];
+        this.lambdaRe = new double[rank];
+        this.lambdaIm = new double[rank];
+        this.stateRe = new double[rank];
+        this.stateIm = new double[rank];
+        for (int k = 0; k < rank; ++k) {
+            omegaRe[k] = omega.get(k, k).re();
+            omegaIm[k] = omega.get(k, k).im();
+            bRe[k] = b.get(k, 0).re();
+            bIm[k] = b.get(k, 0).im();
+            double expRe = Math.exp(omegaRe[k] * deltaT);
+            lambdaRe[k] = expRe * Math.cos(omegaIm[k] * deltaT);
+            lambdaIm[k] = expRe * Math.sin(omegaIm[k] * deltaT);
+        }
+        this.column = new double[n];
+        reanchor(timeFrom);
+    }
+
+    /**
+     * Always {@code true}, the forecast is unbounded.
+     */
+    @Override
+    public boolean hasNext() {
+        return true;
+    }
+
+    /**
+     * Returns the prediction for the current time and advances the modal
+     * state by one step. The returned buffer is reused by subsequent calls.
+     *
+     * @return the predicted column (length {@code n})
+     */
+    @Override
+    public double[] next() {
+        double[] phiRe = this.phiRe;
+        double[] phiIm = this.phiIm;
+        double[] column = this.column;
+        int n = this.n;
+        VectorOps ops = VectorOps.INSTANCE;
+        Arrays.fill(column, 0.0);
+        for (int k = 0; k < rank; ++k) {
+            // Re(Phi(:, k) * state(k))
+            ops.addRealPartOfProduct(phiRe, phiIm, k * n, n, stateRe[k], stateIm[k], column);
+        }
+        advance();
+        return column;
+    }
+
+    /**
+     * Emits the next {@code steps} predicted columns to {@code sink} together
+     * with their time. The column buffer passed to the sink is reused.
+     *
+     * @param steps
+     *            the number of columns to emit
+     * @param sink
+     *            the consumer of the (column, time) pairs
+     */
+    public void forEach(int steps, ObjDoubleConsumer<double[]> sink) {
+        if (steps < 0) {
+            throw new IllegalArgumentException("steps < 0: " + steps);
+        }
+        for (int i = 0; i < steps; ++i) {
+            double t = currentTime();
+            sink.accept(next(), t);
+        }
+    }
+
+    /**
+     * Skips the next {@code steps} predictions without computing them
+     * ({@code O(r)}).
+     */
+    public void skip(long steps) {
+        if (steps < 0L) {
+            throw new IllegalArgumentException("steps < 0: " + steps);
+        }
+        step += steps;
+        reanchor(currentTime());
+    }
+
+    /**
+     * Returns the time of the column that the next call of {@link #next()}
+     * will emit.
+     */
+    public double currentTime() {
+        return timeFrom + step * deltaT;
+    }
+
+    public int getDimension() {
+        return n;
+    }
+
+    public int getRank() {
+        return rank;
+    }
+
+    private void advance() {
+        ++step;
+        if (step % REANCHOR_INTERVAL == 0L) {
+            reanchor(currentTime());
+            return;
+        }
+        for (int k = 0; k < rank; ++k) {
+            double sRe = stateRe[k];
+            double sIm = stateIm[k];
+            double lRe = lambdaRe[k];
+            double lIm = lambdaIm[k];
+            stateRe[k] = sRe * lRe - sIm * lIm;
+            stateIm[k] = sRe * lIm + sIm * lRe;
+        }
+    }
+
+    // state = b * e^(omega * t)
+    private void reanchor(double t) {
+        for (int k = 0; k < rank; ++k) {
+            double expRe = Math.exp(omegaRe[k] * t);
+            double eRe = expRe * Math.cos(omegaIm[k] * t);
+            double eIm = expRe * Math.sin(omegaIm[k] * t);
+            stateRe[k] = bRe[k] * eRe - bIm[k] * eIm;
+            stateIm[k] = bIm[k] * eRe + bRe[k] * eIm;
+        }
+    }
+}
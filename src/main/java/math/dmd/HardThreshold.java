@@ -0,0 +1,69 @@
+/*
+ * Copyright 2026 Stefan Zobel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package math.dmd;
+
+import java.util.Arrays;
+
+/**
+ * Optimal hard threshold for singular values (Gavish, Donoho. The Optimal Hard
+ * Threshold for Singular Values is 4/sqrt(3), IEEE Transactions on Information
+ * Theory 60 [2014]) for the cases where the singular values don't come from a
+ * {@code SvdD} (e.g., when they have been derived from the eigenvalues of an
+ * accumulated Gram matrix). Uses the usual polynomial approximation of
+ * {@code omega(beta)} for unknown noise level.
+ */
+/* package */ final class HardThreshold {
+
+    /**
+     * Returns the number of singular values above the optimal hard threshold
+     * (at least 1 if {@code s[0] > 0.0}).
+     *
+     * @param rows
+     *            the number of rows of the decomposed matrix
+     * @param cols
+     *            the number of columns of the decomposed matrix
+     * @param s
+     *            the singular values in descending order
+     * @return the estimated rank
+     */
+    static int rank(int rows, int cols, double[] s) {
+        if (s.length == 0 || !(s[0] > 0.0)) {
+            return 0;
+        }
+        double beta = (double) Math.min(rows, cols) / Math.max(rows, cols);
+        double omega = 0.56 * beta * beta * beta - 0.95 * beta * beta + 1.82 * beta + 1.43;
+        double tau = omega * median(s);
+        int rank = 0;
+        while (rank < s.length && s[rank] > tau) {
+            ++rank;
+        }
+        return Math.max(rank, 1);
+    }
+
+    private static double median(double[] s) {
+        double[] sorted = s.clone();
+        Arrays.sort(sorted);
+        int mid = sorted.length / 2;
+        if (sorted.length % 2 == 0) {
+            return 0.5 * (sorted[mid - 1] + sorted[mid]);
+        }
+        return sorted[mid];
+    }
+
+    private HardThreshold() {
+        throw new AssertionError();
+    }
+}
@@ -0,0 +1,317 @@
+/*
+ * Copyright 2026 Stefan Zobel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package math.dmd;
+
+import java.util.Objects;
+
+import net.jamu.complex.Zd;
+import net.jamu.matrix.ComplexMatrixD;
+import net.jamu.matrix.EvdComplexD;
+import net.jamu.matrix.Matrices;
+import net.jamu.matrix.MatrixD;
+import net.jamu.matrix.SvdD;
+import net.jamu.matrix.SvdEconD;
+
+/**
+ * Higher-order DMD (Le Clainche, Vega. Higher Order Dynamic Mode
+ * Decomposition, SIAM Journal on Applied Dynamical Systems 16 [2017]) for
+ * real-valued observations.
+ * <p>
+ * Instead of time-delay embedding the {@code n x m} snapshot matrix itself
+ * (which produces a {@code (n * d) x (m - d + 1)} matrix) the spatial
+ * dimension is first compressed by a truncated SVD {@code X ~ U1 * S1 * V1^T}
+ * of rank {@code r1}. The reduced snapshots {@code S1 * V1^T} ({@code r1 x m})
+ * are then delay-embedded with depth {@code d} and an exact DMD is computed on
+ * the {@code (r1 * d) x (m - d + 1)} delayed matrix with a second truncated
+ * SVD. The first {@code r1} rows of the delayed modes are mapped back to the
+ * original space with {@code U1}. Apart from the first SVD the cost depends on
+ * {@code r1 * d} instead of {@code n * d}.
+ * <p>
+ * The amplitudes are fitted against all snapshots in the reduced coordinates
+ * (which gives the same result as the fit in the original space since
+ * {@code U1} has orthonormal columns).
+ */
+public class HigherOrderDMD {
+
+    private final MatrixD data;
+    private final double deltaT;
+    private final double tStart;
+    // the delay depth
+    private final int delays;
+
+    // relative truncation tolerances of the two SVDs (0.0 means optimal
+    // hard threshold)
+    private double spatialTolerance = 0.0;
+    private double delayTolerance = 0.0;
+
+    // the rank of the spatial compression
+    private int spatialRank;
+    // the number of modes
+    private int rank;
+    // eigenvalues in the subspace
+    private Zd[] eigenValues;
+    // modes of the fitted linear system in the high-dimensional space
+    private ComplexMatrixD phi;
+    // the modes in the coordinates of the spatial compression
+    private ComplexMatrixD reducedPhi;
+    // omega contains the eigenvalues of the fitted linear system
+    private ComplexMatrixD omega;
+    // the amplitudes fitted against all snapshots
+    private ComplexMatrixD b;
+    // lazily created real-valued representation used for prediction
+    private RealModalForm realForm;
+
+    public HigherOrderDMD(MatrixD data, double deltaT, int delays) {
+        this(data, deltaT, delays, 0.0);
+    }
+
+    public HigherOrderDMD(MatrixD data, double deltaT, int delays, double tStart) {
+        if (deltaT <= 0.0) {
+            throw new IllegalArgumentException("deltaT: " + deltaT);
+        }
+        this.data = Objects.requireNonNull(data);
+        if (delays < 1 || delays > data.numColumns() - 2) {
+            throw new IllegalArgumentException("delays: " + delays);
+        }
+        this.deltaT = deltaT;
+        this.delays = delays;
+        this.tStart = tStart;
+    }
+
+    /**
+     * Sets the relative tolerance {@code eps1} of the spatial SVD: singular
+     * values {@code sigma_k <= eps1 * sigma_1} are truncated. The default
+     * {@code 0.0} uses the optimal hard threshold instead.
+     */
+    public HigherOrderDMD setSpatialTolerance(double tolerance) {
+        if (!(tolerance >= 0.0 && tolerance < 1.0)) {
+            throw new IllegalArgumentException("tolerance: " + tolerance);
+        }
+        this.spatialTolerance = tolerance;
+        return this;
+    }
+
+    /**
+     * Sets the relative tolerance {@code eps2} of the SVD of the delayed
+     * reduced snapshots: singular values {@code sigma_k <= eps2 * sigma_1} are
+     * truncated. The default {@code 0.0} uses the optimal hard threshold
+     * instead.
+     */
+    public HigherOrderDMD setDelayTolerance(double tolerance) {
+        if (!(tolerance >= 0.0 && tolerance < 1.0)) {
+            throw new IllegalArgumentException("tolerance: " + tolerance);
+        }
+        this.delayTolerance = tolerance;
+        return this;
+    }
+
+    public HigherOrderDMD compute() {
+        computeDMD();
+        return this;
+    }
+
+    public int getRank() {
+        return rank;
+    }
+
+    public int getSpatialRank() {
+        return spatialRank;
+    }
+
+    public int getDelays() {
+        return delays;
+    }
+
+    public double getSpatialTolerance() {
+        return spatialTolerance;
+    }
+
+    public double getDelayTolerance() {
+        return delayTolerance;
+    }
+
+    public Zd[] getEigenValues() {
+        return eigenValues;
+    }
+
+    public ComplexMatrixD getPhi() {
+        return phi;
+    }
+
+    /**
+     * Returns the {@code r1 x r} modes in the coordinates of the spatial
+     * compression.
+     */
+    public ComplexMatrixD getReducedPhi() {
+        return reducedPhi;
+    }
+
+    public ComplexMatrixD getOmega() {
+        return omega;
+    }
+
+    public ComplexMatrixD getConstantVector() {
+        return b;
+    }
+
+    public MatrixD getData() {
+        return data;
+    }
+
+    public double getDeltaT() {
+        return deltaT;
+    }
+
+    public double getTStart() {
+        return tStart;
+    }
+
+    public MatrixD predict(double timeFrom, int numberOfPredictions) {
+        if (numberOfPredictions < 1) {
+            throw new IllegalArgumentException("numberOfPredictions < 1: " + numberOfPredictions);
+        }
+        return getRealModalForm().predict(b, timeFrom, numberOfPredictions);
+    }
+
+    /**
+     * Returns a lazy forecast that emits one predicted column per step
+     * starting at {@code timeFrom}. Must be called after {@link #compute()}.
+     */
+    public ForecastStream forecastStream(double timeFrom) {
+        if (phi == null) {
+            throw new IllegalStateException("compute() must be called first");
+        }
+        return new ForecastStream(phi, omega, b, deltaT, timeFrom);
+    }
+
+    /**
+     * Returns the (lazily created) real-valued representation of the modes
+     * and their dynamics that is used for prediction. Must be called after
+     * {@link #compute()}.
+     */
+    public RealModalForm getRealModalForm() {
+        if (phi == null) {
+            throw new IllegalStateException("compute() must be called first");
+        }
+        if (realForm == null) {
+            realForm = RealModalForm.create(phi, eigenValues, omega, deltaT);
+        }
+        return realForm;
+    }
+
+    private void computeDMD() {
+        int m = data.numColumns();
+        // step 1: compress the spatial dimension
+        SvdEconD svd1 = data.svdEcon();
+        spatialRank = truncate(svd1, data.numRows(), m, spatialTolerance);
+        int r1 = spatialRank;
+        MatrixD U1 = svd1.getU();
+        MatrixD U1r = U1.selectConsecutiveColumns(U1.startCol(), r1 - 1);
+        // the reduced snapshots S1 * V1^T (r1 x m)
+        MatrixD reduced = scaleRows(svd1.getVt().selectSubmatrix(0, 0, r1 - 1, m - 1), svd1.getS());
+
+        // step 2: delay-embed the reduced snapshots ((r1 * d) x (m - d + 1))
+        MatrixD delayed = delayEmbed(reduced, delays);
+        int cols = delayed.numColumns();
+        MatrixD X1 = delayed.selectConsecutiveColumns(0, cols - 2);
+        MatrixD X2 = delayed.selectConsecutiveColumns(1, cols - 1);
+
+        // step 3: exact DMD on the delayed reduced snapshots
+        SvdEconD svd2 = X1.svdEcon();
+        rank = truncate(svd2, X1.numRows(), X1.numColumns(), delayTolerance);
+        MatrixD U2 = svd2.getU();
+        MatrixD U2r = U2.selectConsecutiveColumns(U2.startCol(), rank - 1);
+        MatrixD V2r = svd2.getVt().selectSubmatrix(0, 0, rank - 1, X1.numColumns() - 1).transpose();
+        MatrixD Y = scaleColumnsInverse(X2.times(V2r), svd2.getS());
+        MatrixD ATilde = U2r.transposedTimes(Y);
+        EvdComplexD evd = ATilde.toComplexMatrix().evd(true);
+        eigenValues = evd.getEigenvalues();
+        ComplexMatrixD W = evd.getEigenvectors();
+
+        // step 4: the first r1 rows of the delayed modes X2 * V2r * S2r^-1 * W
+        MatrixD Yr = Y.selectSubmatrix(0, 0, r1 - 1, rank - 1);
+        MatrixD WRe = W.toRealMatrix();
+        MatrixD WIm = ModeOps.imagPart(W);
+        MatrixD reducedRe = Yr.times(WRe);
+        MatrixD reducedIm = Yr.times(WIm);
+        reducedPhi = ModeOps.combine(reducedRe, reducedIm);
+        // back into the original space
+        phi = ModeOps.combine(U1r.times(reducedRe), U1r.times(reducedIm));
+        realForm = null;
+
+        omega = computeOmega(eigenValues, deltaT);
+
+        // step 5: amplitudes against all (reduced) snapshots
+        b = new OptimalAmplitudes(reducedPhi, omega, reduced, deltaT).fit(tStart);
+    }
+
+    private static int truncate(SvdEconD svd, int rows, int cols, double tolerance) {
+        double[] S = svd.getS();
+        int rank = 0;
+        if (tolerance == 0.0) {
+            rank = SvdD.optimalHardThreshold(rows, cols, svd);
+        } else {
+            double threshold = tolerance * S[0];
+            while (rank < S.length && S[rank] > threshold) {
+                ++rank;
+            }
+        }
+        return Math.max(rank, 1);
+    }
+
+    // the Hankel-type embedding of the columns of X with d delays
+    private static MatrixD delayEmbed(MatrixD X, int d) {
+        int r = X.numRows();
+        int cols = X.numColumns() - d + 1;
+        MatrixD H = Matrices.createD(r * d, cols);
+        for (int block = 0; block < d; ++block) {
+            H.setSubmatrixInplace(block * r, 0, X, 0, block, r - 1, block + cols - 1);
+        }
+        return H;
+    }
+
+    // diag(S) * A
+    private static MatrixD scaleRows(MatrixD A, double[] S) {
+        for (int col = 0; col < A.numColumns(); ++col) {
+            for (int row = 0; row < A.numRows(); ++row) {
+                A.setUnsafe(row, col, S[row] * A.getUnsafe(row, col));
+            }
+        }
+        return A;
+    }
+
+    // A * diag(S)^-1
+    private static MatrixD scaleColumnsInverse(MatrixD A, double[] S) {
+        for (int col = 0; col < A.numColumns(); ++col) {
+            double sInv = 1.0 / S[col];
+            for (int row = 0; row < A.numRows(); ++row) {
+                A.setUnsafe(row, col, sInv * A.getUnsafe(row, col));
+            }
+        }
+        return A;
+    }
+
+    private static ComplexMatrixD computeOmega(Zd[] eigs, double dt) {
+        // omega contains the eigenvalues of the fitted linear system
+        ComplexMatrixD omega = Matrices.createComplexD(eigs.length, eigs.length);
+        for (int i = 0; i < eigs.length; ++i) {
+            Zd z = eigs[i].copy();
+            z.ln().scale(1.0 / dt);
+            omega.set(i, i, z.re(), z.im());
+        }
+        return omega;
+    }
+}
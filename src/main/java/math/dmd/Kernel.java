@@ -0,0 +1,71 @@
+/*
+ * Copyright 2026 Stefan Zobel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package math.dmd;
+
+/**
+ * A kernel function {@code k(x, y)} for {@link KernelDMD} that can be
+ * evaluated from the inner product {@code x^T * y} and the squared norms of
+ * {@code x} and {@code y} (so that the Gram matrices can be computed from
+ * blocked matrix products of the snapshots).
+ */
+@FunctionalInterface
+public interface Kernel {
+
+    /**
+     * Evaluates the kernel.
+     *
+     * @param innerProduct
+     *            {@code x^T * y}
+     * @param normSquaredX
+     *            {@code x^T * x}
+     * @param normSquaredY
+     *            {@code y^T * y}
+     * @return {@code k(x, y)}
+     */
+    double value(double innerProduct, double normSquaredX, double normSquaredY);
+
+    /**
+     * The polynomial kernel {@code k(x, y) = (c + x^T * y)^degree}.
+     */
+    static Kernel polynomial(double c, int degree) {
+        if (degree < 1) {
+            throw new IllegalArgumentException("degree: " + degree);
+        }
+        if (c < 0.0) {
+            throw new IllegalArgumentException("c: " + c);
+        }
+        return (xy, xx, yy) -> {
+            double base = c + xy;
+            double result = base;
+            for (int i = 1; i < degree; ++i) {
+                result *= base;
+            }
+            return result;
+        };
+    }
+
+    /**
+     * The Gaussian RBF kernel
+     * {@code k(x, y) = exp(-||x - y||^2 / (2 * sigma^2))}.
+     */
+    static Kernel rbf(double sigma) {
+        if (!(sigma > 0.0)) {
+            throw new IllegalArgumentException("sigma: " + sigma);
+        }
+        double gamma = 1.0 / (2.0 * sigma * sigma);
+        return (xy, xx, yy) -> Math.exp(-gamma * Math.max(xx + yy - 2.0 * xy, 0.0));
+    }
+}
@@ -0,0 +1,355 @@
+/*
+ * Copyright 2026 Stefan Zobel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package math.dmd;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import net.jamu.complex.Zd;
+import net.jamu.matrix.ComplexMatrixD;
+import net.jamu.matrix.EvdComplexD;
+import net.jamu.matrix.Matrices;
+import net.jamu.matrix.MatrixD;
+import net.jamu.matrix.SvdD;
+
+/**
+ * Kernel DMD (Williams, Rowley, Kevrekidis. A kernel-based method for
+ * data-driven Koopman spectral analysis, Journal of Computational Dynamics 2
+ * [2015]) for real-valued observations: an extended DMD with the (implicit,
+ * possibly infinite-dimensional) feature map of a {@link Kernel} that only
+ * needs the kernel Gram matrices of the snapshots.
+ * <p>
+ * The {@code m x m} kernel matrix {@code K(X, X)} is computed once in
+ * cache-blocked tiles (a BLAS product {@code X_i^T * X_j} per tile followed
+ * by the element-wise kernel) in parallel on the given executor, which is
+ * {@code O(m^2 * n)}. {@code G = K(X1, X1)} and {@code A = K(X2, X1)} are
+ * submatrices of it. With the eigendecomposition {@code G = Q * S^2 * Q^T}
+ * (truncated to rank {@code r}) the Koopman matrix is
+ *
+ * <pre>
+ * KHat = S^-1 * Q^T * A * Q * S^-1
+ * </pre>
+ *
+ * ({@code r x r}, {@code O(m^3)} overall). With {@code KHat * V = V * Lambda}
+ * the Koopman eigenfunctions at the snapshots are {@code Q * S * V} and the
+ * Koopman modes are {@code Xi = X1 * Q * S^-1 * V^-T}. The cost doesn't
+ * depend on the dimension of the lifted feature space.
+ */
+public class KernelDMD {
+
+    // the number of columns of a tile of the kernel matrix
+    private static final int TILE = 256;
+    private static final double DEFAULT_TOLERANCE = 1.0e-10;
+
+    private final MatrixD data;
+    private final double deltaT;
+    private final double tStart;
+    private final Kernel kernel;
+    private final Executor executor;
+
+    // relative truncation tolerance for the singular values of G
+    private double tolerance = DEFAULT_TOLERANCE;
+    // the rank can either be computed or set via the constructor
+    private int rank = 0;
+    // eigenvalues of the Koopman matrix
+    private Zd[] eigenValues;
+    // the Koopman modes (n x r)
+    private ComplexMatrixD phi;
+    // omega contains the eigenvalues of the fitted linear system
+    private ComplexMatrixD omega;
+    // constant vector evaluated via the eigenfunctions at the first snapshot
+    private ComplexMatrixD b;
+    // Q * S^-1 * V (M x r): eigenfunctions are k(x, X1) * weights
+    private ComplexMatrixD eigenfunctionWeights;
+    // the squared norms of the snapshots in X1
+    private double[] normsX1;
+    // lazily created real-valued representation used for prediction
+    private RealModalForm realForm;
+
+    public KernelDMD(MatrixD data, double deltaT, Kernel kernel, double tStart, Executor executor) {
+        if (deltaT <= 0.0) {
+            throw new IllegalArgumentException("deltaT: " + deltaT);
+        }
+        this.data = Objects.requireNonNull(data);
+        if (data.numColumns() < 3) {
+            throw new IllegalArgumentException("need at least 3 snapshots: " + data.numColumns());
+        }
+        this.deltaT = deltaT;
+        this.tStart = tStart;
+        this.kernel = Objects.requireNonNull(kernel);
+        this.executor = Objects.requireNonNull(executor);
+    }
+
+    public KernelDMD(MatrixD data, double deltaT, Kernel kernel, int rank, double tStart, Executor executor) {
+        this(data, deltaT, kernel, tStart, executor);
+        if (rank < 1) {
+            throw new IllegalArgumentException("rank: " + rank);
+        }
+        this.rank = rank;
+    }
+
+    /**
+     * Sets the relative tolerance: singular values of the Gram matrix
+     * {@code S_k^2 <= tolerance * S_1^2} are truncated (only used if the rank
+     * hasn't been set via the constructor).
+     */
+    public KernelDMD setTolerance(double tolerance) {
+        if (!(tolerance > 0.0 && tolerance < 1.0)) {
+            throw new IllegalArgumentException("tolerance: " + tolerance);
+        }
+        this.tolerance = tolerance;
+        return this;
+    }
+
+    public KernelDMD compute() {
+        computeDMD();
+        return this;
+    }
+
+    public int getRank() {
+        return rank;
+    }
+
+    public Zd[] getEigenValues() {
+        return eigenValues;
+    }
+
+    /**
+     * Returns the {@code n x r} Koopman modes.
+     */
+    public ComplexMatrixD getPhi() {
+        return phi;
+    }
+
+    public ComplexMatrixD getOmega() {
+        return omega;
+    }
+
+    public ComplexMatrixD getConstantVector() {
+        return b;
+    }
+
+    public Kernel getKernel() {
+        return kernel;
+    }
+
+    public MatrixD getData() {
+        return data;
+    }
+
+    public double getDeltaT() {
+        return deltaT;
+    }
+
+    public double getTStart() {
+        return tStart;
+    }
+
+    /**
+     * Evaluates the {@code r} Koopman eigenfunctions at the state {@code x}
+     * ({@code O(m * n)}).
+     *
+     * @param x
+     *            the {@code n x 1} state
+     * @return the {@code r x 1} eigenfunction values
+     */
+    public ComplexMatrixD eigenfunctions(MatrixD x) {
+        if (eigenfunctionWeights == null) {
+            throw new IllegalStateException("compute() must be called first");
+        }
+        if (x.numRows() != data.numRows() || x.numColumns() != 1) {
+            throw new IllegalArgumentException("x must be " + data.numRows() + " x 1");
+        }
+        int M = normsX1.length;
+        MatrixD X1 = data.viewColumns(data.startCol(), data.endCol() - 1);
+        MatrixD xX1 = x.transposedTimes(X1);
+        double xx = x.normF() * x.normF();
+        MatrixD kx = Matrices.createD(1, M);
+        for (int j = 0; j < M; ++j) {
+            kx.setUnsafe(0, j, kernel.value(xX1.getUnsafe(0, j), xx, normsX1[j]));
+        }
+        return kx.toComplexMatrix().times(eigenfunctionWeights).transpose();
+    }
+
+    /**
+     * Computes the constant vector for the state {@code x0} observed at time
+     * {@code t0} from the eigenfunctions (e.g., to predict from a state that
+     * isn't part of the data).
+     */
+    public ComplexMatrixD computeConstantVector(MatrixD x0, double t0) {
+        return shift(eigenfunctions(x0), omega, t0);
+    }
+
+    public MatrixD predict(double timeFrom, int numberOfPredictions) {
+        return predict(b, timeFrom, numberOfPredictions);
+    }
+
+    public MatrixD predict(ComplexMatrixD b, double timeFrom, int numberOfPredictions) {
+        if (numberOfPredictions < 1) {
+            throw new IllegalArgumentException("numberOfPredictions < 1: " + numberOfPredictions);
+        }
+        return getRealModalForm().predict(b, timeFrom, numberOfPredictions);
+    }
+
+    /**
+     * Returns the (lazily created) real-valued representation of the modes
+     * and their dynamics that is used for prediction. Must be called after
+     * {@link #compute()}.
+     */
+    public RealModalForm getRealModalForm() {
+        if (phi == null) {
+            throw new IllegalStateException("compute() must be called first");
+        }
+        if (realForm == null) {
+            realForm = RealModalForm.create(phi, eigenValues, omega, deltaT);
+        }
+        return realForm;
+    }
+
+    private void computeDMD() {
+        int m = data.numColumns();
+        int M = m - 1;
+        // step 1: the kernel matrix of all snapshots
+        double[] norms = new double[m];
+        for (int j = 0; j < m; ++j) {
+            double sum = 0.0;
+            for (int i = 0; i < data.numRows(); ++i) {
+                double v = data.getUnsafe(i, data.startCol() + j);
+                sum += v * v;
+            }
+            norms[j] = sum;
+        }
+        normsX1 = Arrays.copyOf(norms, M);
+        MatrixD K = kernelMatrix(data, norms);
+        MatrixD G = K.selectSubmatrix(0, 0, M - 1, M - 1);
+        MatrixD A = K.selectSubmatrix(1, 0, M, M - 1);
+
+        // step 2: G = Q * S^2 * Q^T
+        SvdD svd = G.svd(true);
+        double[] S2 = svd.getS();
+        if (rank == 0) {
+            int r = 0;
+            while (r < S2.length && S2[r] > tolerance * S2[0]) {
+                ++r;
+            }
+            rank = Math.max(r, 1);
+        }
+        rank = Math.min(rank, S2.length);
+        int r = rank;
+        MatrixD U = svd.getU();
+        MatrixD Q = U.selectConsecutiveColumns(U.startCol(), r - 1);
+        double[] s = new double[r];
+        for (int k = 0; k < r; ++k) {
+            s[k] = Math.sqrt(S2[k]);
+        }
+        // Q * S^-1
+        MatrixD QSinv = Q.copy();
+        for (int k = 0; k < r; ++k) {
+            for (int i = 0; i < M; ++i) {
+                QSinv.setUnsafe(i, k, QSinv.getUnsafe(i, k) / s[k]);
+            }
+        }
+
+        // step 3: KHat = S^-1 * Q^T * A * Q * S^-1 and its eigendecomposition
+        MatrixD KHat = QSinv.transposedTimes(A.times(QSinv));
+        EvdComplexD evd = KHat.toComplexMatrix().evd(true);
+        eigenValues = evd.getEigenvalues();
+        ComplexMatrixD V = evd.getEigenvectors();
+
+        // step 4: Koopman modes Xi = X1 * Q * S^-1 * V^-T
+        MatrixD X1 = data.viewColumns(data.startCol(), data.endCol() - 1);
+        MatrixD X1QSinv = X1.times(QSinv);
+        ComplexMatrixD VinvT = V.inverse().transpose();
+        phi = ModeOps.combine(X1QSinv.times(VinvT.toRealMatrix()), X1QSinv.times(ModeOps.imagPart(VinvT)));
+        eigenfunctionWeights = ModeOps.combine(QSinv.times(V.toRealMatrix()), QSinv.times(ModeOps.imagPart(V)));
+        realForm = null;
+
+        omega = computeOmega(eigenValues, deltaT);
+
+        // step 5: eigenfunctions at the first snapshot (Q * S * V)(0, :)
+        MatrixD q0S = Matrices.createD(1, r);
+        for (int k = 0; k < r; ++k) {
+            q0S.setUnsafe(0, k, Q.getUnsafe(0, k) * s[k]);
+        }
+        ComplexMatrixD phiX0 = q0S.toComplexMatrix().times(V).transpose();
+        b = shift(phiX0, omega, tStart);
+    }
+
+    // the symmetric kernel matrix K(X, X) in parallel tiles (upper tiles only)
+    private MatrixD kernelMatrix(MatrixD X, double[] norms) {
+        int m = X.numColumns();
+        int c0 = X.startCol();
+        MatrixD K = Matrices.createD(m, m);
+        List<CompletableFuture<Void>> tiles = new ArrayList<>();
+        for (int i = 0; i < m; i += TILE) {
+            for (int j = i; j < m; j += TILE) {
+                final int iFrom = i;
+                final int jFrom = j;
+                final int iTo = Math.min(i + TILE, m) - 1;
+                final int jTo = Math.min(j + TILE, m) - 1;
+                tiles.add(CompletableFuture.runAsync(() -> {
+                    MatrixD Xi = X.viewColumns(c0 + iFrom, c0 + iTo);
+                    MatrixD Xj = X.viewColumns(c0 + jFrom, c0 + jTo);
+                    MatrixD T = Xi.transposedTimes(Xj);
+                    // the tiles write to disjoint elements of K
+                    for (int col = 0; col < T.numColumns(); ++col) {
+                        for (int row = 0; row < T.numRows(); ++row) {
+                            int gi = iFrom + row;
+                            int gj = jFrom + col;
+                            double k = kernel.value(T.getUnsafe(row, col), norms[gi], norms[gj]);
+                            K.setUnsafe(gi, gj, k);
+                            K.setUnsafe(gj, gi, k);
+                        }
+                    }
+                }, executor));
+            }
+        }
+        for (CompletableFuture<Void> tile : tiles) {
+            tile.join();
+        }
+        return K;
+    }
+
+    // e^(-Omega * t) * phi
+    private static ComplexMatrixD shift(ComplexMatrixD phiX, ComplexMatrixD omega, double t) {
+        int r = phiX.numRows();
+        ComplexMatrixD b = Matrices.createComplexD(r, 1);
+        for (int k = 0; k < r; ++k) {
+            Zd w = omega.get(k, k);
+            Zd p = phiX.get(k, 0);
+            double expRe = Math.exp(-w.re() * t);
+            double eRe = expRe * Math.cos(-w.im() * t);
+            double eIm = expRe * Math.sin(-w.im() * t);
+            b.set(k, 0, p.re() * eRe - p.im() * eIm, p.re() * eIm + p.im() * eRe);
+        }
+        return b;
+    }
+
+    private static ComplexMatrixD computeOmega(Zd[] eigs, double dt) {
+        // omega contains the eigenvalues of the fitted linear system
+        ComplexMatrixD omega = Matrices.createComplexD(eigs.length, eigs.length);
+        for (int i = 0; i < eigs.length; ++i) {
+            Zd z = eigs[i].copy();
+            z.ln().scale(1.0 / dt);
+            omega.set(i, i, z.re(), z.im());
+        }
+        return omega;
+    }
+}
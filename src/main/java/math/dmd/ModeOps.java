@@ -0,0 +1,63 @@
+/*
+ * Copyright 2026 Stefan Zobel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package math.dmd;
+
+import net.jamu.matrix.ComplexMatrixD;
+import net.jamu.matrix.Matrices;
+import net.jamu.matrix.MatrixD;
+
+/**
+ * Helpers for products between the complex modes and real-valued data that
+ * avoid copying the (large) real data into a complex matrix.
+ */
+/* package */ final class ModeOps {
+
+    // the imaginary part of a complex matrix
+    static MatrixD imagPart(ComplexMatrixD A) {
+        MatrixD im = Matrices.createD(A.numRows(), A.numColumns());
+        double[] a = A.copy().getArrayUnsafe();
+        double[] b = im.getArrayUnsafe();
+        for (int i = 0; i < b.length; ++i) {
+            b[i] = a[2 * i + 1];
+        }
+        return im;
+    }
+
+    // Phi^H * X = Re(Phi)^T * X - i * Im(Phi)^T * X
+    static ComplexMatrixD conjTransTimes(ComplexMatrixD phi, MatrixD X) {
+        MatrixD re = phi.toRealMatrix().transposedTimes(X);
+        MatrixD im = imagPart(phi).transposedTimes(X);
+        return combine(re, im.scaleInplace(-1.0));
+    }
+
+    // re + i * im
+    static ComplexMatrixD combine(MatrixD re, MatrixD im) {
+        ComplexMatrixD C = Matrices.createComplexD(re.numRows(), re.numColumns());
+        double[] c = C.getArrayUnsafe();
+        for (int col = 0; col < re.numColumns(); ++col) {
+            for (int row = 0; row < re.numRows(); ++row) {
+                int idx = 2 * (col * re.numRows() + row);
+                c[idx] = re.get(row, col);
+                c[idx + 1] = im.get(row, col);
+            }
+        }
+        return C;
+    }
+
+    private ModeOps() {
+        throw new AssertionError();
+    }
+}
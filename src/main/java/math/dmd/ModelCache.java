@@ -0,0 +1,435 @@
+/*
+ * Copyright 2026 Stefan Zobel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package math.dmd;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+import net.jamu.matrix.MatrixD;
+
+/**
+ * A bounded LRU cache of fitted models keyed by a fingerprint of the snapshot
+ * matrix and the fit parameters, e.g.
+ *
+ * <pre>
+ * ModelCache&lt;ExactDMDV2&gt; cache = new ModelCache&lt;&gt;(64);
+ * ExactDMDV2 dmd = cache.get(data, deltaT, rank, tStart,
+ *         () -&gt; new ExactDMDV2(data, deltaT, rank, tStart).compute());
+ * </pre>
+ *
+ * The cache is either bounded by the number of entries or by the total weight
+ * of the entries (e.g., their approximate memory footprint) that a weigher
+ * function assigns. The least recently used entries get evicted first.
+ * Concurrent requests for the same key that isn't cached yet are deduplicated
+ * (single-flight): only the first caller runs the fit, the others wait for
+ * its result. A failed fit isn't cached and its exception is propagated to
+ * all waiting callers.
+ * <p>
+ * The fingerprint is a 128-bit hash over the shape and the bit patterns of
+ * all elements ({@code O(n * m)}, no copy), so the data itself doesn't get
+ * retained by the key. Models must not be mutated after they have been put
+ * into the cache (e.g., don't call {@code fitAmplitudesToAllSnapshots()} on a
+ * cached instance). This class is thread-safe.
+ *
+ * @param <M>
+ *            the type of the cached models
+ */
+public final class ModelCache<M> {
+
+    /**
+     * The key of a cached model: the fingerprint of the data plus the fit
+     * parameters.
+     */
+    public static final class Key {
+        private final int rows;
+        private final int cols;
+        private final long hash1;
+        private final long hash2;
+        private final long deltaT;
+        private final int rank;
+        private final long tStart;
+        private final Object qualifier;
+
+        private Key(int rows, int cols, long hash1, long hash2, double deltaT, int rank, double tStart,
+                Object qualifier) {
+            this.rows = rows;
+            this.cols = cols;
+            this.hash1 = hash1;
+            this.hash2 = hash2;
+            this.deltaT = Double.doubleToLongBits(deltaT);
+            this.rank = rank;
+            this.tStart = Double.doubleToLongBits(tStart);
+            this.qualifier = qualifier;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return hash1 == other.hash1 && hash2 == other.hash2 && rows == other.rows && cols == other.cols
+                    && deltaT == other.deltaT && rank == other.rank && tStart == other.tStart
+                    && Objects.equals(qualifier, other.qualifier);
+        }
+
+        @Override
+        public int hashCode() {
+            long h = hash1 ^ (31L * deltaT) ^ (17L * tStart) ^ rank;
+            return (int) (h ^ (h >>> 32)) ^ Objects.hashCode(qualifier);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Key[%dx%d, %016x%016x, deltaT=%s, rank=%d, tStart=%s, %s]", rows, cols, hash1,
+                    hash2, Double.longBitsToDouble(deltaT), rank, Double.longBitsToDouble(tStart), qualifier);
+        }
+    }
+
+    /**
+     * A snapshot of the cache statistics.
+     */
+    public static final class Stats {
+        private final long hits;
+        private final long misses;
+        private final long coalesced;
+        private final long evictions;
+        private final long loadFailures;
+        private final long totalLoadTimeNanos;
+        private final int size;
+        private final long weight;
+
+        private Stats(long hits, long misses, long coalesced, long evictions, long loadFailures,
+                long totalLoadTimeNanos, int size, long weight) {
+            this.hits = hits;
+            this.misses = misses;
+            this.coalesced = coalesced;
+            this.evictions = evictions;
+            this.loadFailures = loadFailures;
+            this.totalLoadTimeNanos = totalLoadTimeNanos;
+            this.size = size;
+            this.weight = weight;
+        }
+
+        public long getHitCount() {
+            return hits;
+        }
+
+        /**
+         * Returns the number of requests that ran a fit.
+         */
+        public long getMissCount() {
+            return misses;
+        }
+
+        /**
+         * Returns the number of requests that waited for the fit of a
+         * concurrent request for the same key.
+         */
+        public long getCoalescedCount() {
+            return coalesced;
+        }
+
+        public long getEvictionCount() {
+            return evictions;
+        }
+
+        public long getLoadFailureCount() {
+            return loadFailures;
+        }
+
+        /**
+         * Returns the total time spent in fits (successful or not) in
+         * nanoseconds.
+         */
+        public long getTotalLoadTimeNanos() {
+            return totalLoadTimeNanos;
+        }
+
+        public double getHitRate() {
+            long requests = hits + misses + coalesced;
+            return (requests == 0L) ? 1.0 : (double) (hits + coalesced) / requests;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public long getWeight() {
+            return weight;
+        }
+
+        @Override
+        public String toString() {
+            return "Stats[hits=" + hits + ", misses=" + misses + ", coalesced=" + coalesced + ", evictions="
+                    + evictions + ", loadFailures=" + loadFailures + ", totalLoadTimeNanos=" + totalLoadTimeNanos
+                    + ", size=" + size + ", weight=" + weight + "]";
+        }
+    }
+
+    private static final class Entry<M> {
+        final M model;
+        final long weight;
+
+        Entry(M model, long weight) {
+            this.model = model;
+            this.weight = weight;
+        }
+    }
+
+    private final long maxWeight;
+    private final ToLongFunction<? super M> weigher;
+    private final Object lock = new Object();
+    // access-ordered, the eldest entry is the least recently used one
+    private final LinkedHashMap<Key, Entry<M>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // the fits that are currently running
+    private final HashMap<Key, CompletableFuture<M>> inFlight = new HashMap<>();
+    private long weight;
+    private long hits;
+    private long misses;
+    private long coalesced;
+    private long evictions;
+    private long loadFailures;
+    private long totalLoadTimeNanos;
+
+    /**
+     * Creates a cache that holds at most {@code maxEntries} models.
+     */
+    public ModelCache(int maxEntries) {
+        this(maxEntries, model -> 1L);
+    }
+
+    /**
+     * Creates a cache whose entries have a total weight of at most
+     * {@code maxWeight}.
+     *
+     * @param maxWeight
+     *            the maximum total weight
+     * @param weigher
+     *            computes the (non-negative) weight of a model, e.g. its
+     *            approximate size in bytes
+     */
+    public ModelCache(long maxWeight, ToLongFunction<? super M> weigher) {
+        if (maxWeight < 1L) {
+            throw new IllegalArgumentException("maxWeight: " + maxWeight);
+        }
+        this.maxWeight = maxWeight;
+        this.weigher = Objects.requireNonNull(weigher);
+    }
+
+    /**
+     * Creates the key for the given data and fit parameters.
+     *
+     * @param data
+     *            the snapshot matrix
+     * @param deltaT
+     *            the sampling interval
+     * @param rank
+     *            the requested rank ({@code 0} if the rank gets estimated)
+     * @param tStart
+     *            the time of the first snapshot
+     * @param qualifier
+     *            any further parameter that distinguishes fits (e.g., the
+     *            model class or an {@link EigenvalueConstraint}) or
+     *            {@code null}. Must implement {@code equals} and
+     *            {@code hashCode}.
+     * @return the key
+     */
+    public static Key key(MatrixD data, double deltaT, int rank, double tStart, Object qualifier) {
+        int rows = data.numRows();
+        int cols = data.numColumns();
+        // two independent 64-bit lanes over the element bit patterns in
+        // column-major order
+        long h1 = 0x9E3779B97F4A7C15L ^ rows;
+        long h2 = 0xC2B2AE3D27D4EB4FL ^ cols;
+        int r0 = data.startRow();
+        int c0 = data.startCol();
+        for (int col = c0; col < c0 + cols; ++col) {
+            for (int row = r0; row < r0 + rows; ++row) {
+                long bits = Double.doubleToLongBits(data.getUnsafe(row, col));
+                h1 = Long.rotateLeft(h1 ^ (bits * 0x87C37B91114253D5L), 31) * 0x4CF5AD432745937FL;
+                h2 = Long.rotateLeft(h2 + bits, 27) * 0x52DCE729L + h1;
+            }
+        }
+        return new Key(rows, cols, mix(h1 ^ h2), mix(h2 + 0x38495AB5L * h1), deltaT, rank, tStart, qualifier);
+    }
+
+    /**
+     * Returns the cached model for the given data and fit parameters or runs
+     * the fit (at most once for concurrent requests) and caches its result.
+     */
+    public M get(MatrixD data, double deltaT, int rank, double tStart, Supplier<? extends M> fit) {
+        return get(key(data, deltaT, rank, tStart, null), fit);
+    }
+
+    /**
+     * Returns the cached model for the given key or runs the fit (at most
+     * once for concurrent requests) and caches its result.
+     *
+     * @param key
+     *            the key created by
+     *            {@link #key(MatrixD, double, int, double, Object)}
+     * @param fit
+     *            creates the model if it isn't cached (must not return
+     *            {@code null})
+     * @return the cached or newly fitted model
+     */
+    public M get(Key key, Supplier<? extends M> fit) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(fit);
+        CompletableFuture<M> future;
+        boolean owner = false;
+        synchronized (lock) {
+            Entry<M> entry = entries.get(key);
+            if (entry != null) {
+                ++hits;
+                return entry.model;
+            }
+            future = inFlight.get(key);
+            if (future == null) {
+                ++misses;
+                future = new CompletableFuture<>();
+                inFlight.put(key, future);
+                owner = true;
+            } else {
+                ++coalesced;
+            }
+        }
+        if (owner) {
+            return load(key, fit, future);
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the cached model for the given key or {@code null}.
+     */
+    public M getIfPresent(Key key) {
+        synchronized (lock) {
+            Entry<M> entry = entries.get(key);
+            if (entry != null) {
+                ++hits;
+                return entry.model;
+            }
+            return null;
+        }
+    }
+
+    public void invalidate(Key key) {
+        synchronized (lock) {
+            Entry<M> entry = entries.remove(key);
+            if (entry != null) {
+                weight -= entry.weight;
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (lock) {
+            entries.clear();
+            weight = 0L;
+        }
+    }
+
+    public int size() {
+        synchronized (lock) {
+            return entries.size();
+        }
+    }
+
+    public Stats stats() {
+        synchronized (lock) {
+            return new Stats(hits, misses, coalesced, evictions, loadFailures, totalLoadTimeNanos, entries.size(),
+                    weight);
+        }
+    }
+
+    // runs the fit outside of the lock
+    private M load(Key key, Supplier<? extends M> fit, CompletableFuture<M> future) {
+        long start = System.nanoTime();
+        M model;
+        long w;
+        try {
+            model = Objects.requireNonNull(fit.get(), "fit returned null");
+            w = weigher.applyAsLong(model);
+            if (w < 0L) {
+                throw new IllegalStateException("negative weight: " + w);
+            }
+        } catch (RuntimeException | Error e) {
+            synchronized (lock) {
+                inFlight.remove(key);
+                ++loadFailures;
+                totalLoadTimeNanos += System.nanoTime() - start;
+            }
+            future.completeExceptionally(e);
+            throw e;
+        }
+        synchronized (lock) {
+            inFlight.remove(key);
+            totalLoadTimeNanos += System.nanoTime() - start;
+            if (w <= maxWeight) {
+                Entry<M> previous = entries.put(key, new Entry<>(model, w));
+                if (previous != null) {
+                    weight -= previous.weight;
+                }
+                weight += w;
+                evict();
+            }
+        }
+        future.complete(model);
+        return model;
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<Key, Entry<M>>> it = entries.entrySet().iterator();
+        while (weight > maxWeight && it.hasNext()) {
+            weight -= it.next().getValue().weight;
+            it.remove();
+            ++evictions;
+        }
+    }
+
+    // the MurmurHash3 64-bit finalizer
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB93FE53A87CEL;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,329 @@
+/*
+ * Copyright 2026 Stefan Zobel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package math.dmd;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import net.jamu.complex.Zd;
+import net.jamu.matrix.ComplexMatrixD;
+import net.jamu.matrix.EvdComplexD;
+import net.jamu.matrix.Matrices;
+import net.jamu.matrix.MatrixD;
+import net.jamu.matrix.SvdD;
+
+/**
+ * Exact DMD of a single linear model fitted to many (short) trajectories of
+ * real-valued observations that share the same sampling interval.
+ * <p>
+ * The snapshot pairs {@code (X1_j, X2_j)} are taken from each trajectory
+ * {@code j} separately (so there are no false transitions between the end of
+ * one trajectory and the start of the next one) and the trajectories are
+ * never concatenated. Instead, the factors that the exact DMD needs are
+ * accumulated per trajectory in parallel on the given executor:
+ * <ul>
+ * <li>if {@code n <= M} (where {@code M} is the total number of snapshot
+ * pairs) the {@code n x n} matrices {@code sum_j X1_j * X1_j^T} and
+ * {@code sum_j X2_j * X1_j^T} whose SVD / products yield {@code Ur},
+ * {@code Sr}, {@code ATilde} and {@code Phi},</li>
+ * <li>otherwise the {@code M x M} Gram matrix {@code X1^T * X1} from its
+ * blocks {@code X1_j^T * X1_k} (method of snapshots) and then the
+ * {@code n x r} sums {@code sum_j X1_j * V_j} and {@code sum_j X2_j * V_j}.</li>
+ * </ul>
+ * Each trajectory gets its own amplitude vector from its initial condition.
+ */
+public class MultiTrajectoryDMD {
+
+    private final List<MatrixD> trajectories;
+    private final double deltaT;
+    private final Executor executor;
+    private final int numRows;
+    // total number of snapshot pairs
+    private final int numPairs;
+
+    // the rank can either be computed or set via the constructor
+    private int rank = 0;
+    // eigenvalues in the subspace
+    private Zd[] eigenValues;
+    // modes of the fitted linear system in the high-dimensional space
+    private ComplexMatrixD phi;
+    // omega contains the eigenvalues of the fitted linear system
+    private ComplexMatrixD omega;
+    // one constant vector per trajectory (initial condition at time 0)
+    private List<ComplexMatrixD> amplitudes;
+    // Phi^H * Phi for the amplitude fits
+    private ComplexMatrixD gram;
+
+    public MultiTrajectoryDMD(List<MatrixD> trajectories, double deltaT, Executor executor) {
+        if (deltaT <= 0.0) {
+            throw new IllegalArgumentException("deltaT: " + deltaT);
+        }
+        if (Objects.requireNonNull(trajectories).isEmpty()) {
+            throw new IllegalArgumentException("trajectories is empty");
+        }
+        int rows = trajectories.get(0).numRows();
+        int pairs = 0;
+        for (MatrixD trajectory : trajectories) {
+            if (trajectory.numRows() != rows) {
+                throw new IllegalArgumentException(
+                        "trajectories differ in numRows: " + trajectory.numRows() + " != " + rows);
+            }
+            if (trajectory.numColumns() < 2) {
+                throw new IllegalArgumentException("trajectory with less than 2 snapshots");
+            }
+            pairs += trajectory.numColumns() - 1;
+        }
+        this.trajectories = Collections.unmodifiableList(new ArrayList<>(trajectories));
+        this.numRows = rows;
+        this.numPairs = pairs;
+        this.deltaT = deltaT;
+        this.executor = Objects.requireNonNull(executor);
+    }
+
+    public MultiTrajectoryDMD(List<MatrixD> trajectories, double deltaT, int rank, Executor executor) {
+        this(trajectories, deltaT, executor);
+        if (rank < 1) {
+            throw new IllegalArgumentException("rank: " + rank);
+        }
+        this.rank = rank;
+    }
+
+    public MultiTrajectoryDMD compute() {
+        computeDMD();
+        return this;
+    }
+
+    public int getRank() {
+        return rank;
+    }
+
+    public Zd[] getEigenValues() {
+        return eigenValues;
+    }
+
+    public ComplexMatrixD getPhi() {
+        return phi;
+    }
+
+    public ComplexMatrixD getOmega() {
+        return omega;
+    }
+
+    /**
+     * Returns the constant vector of the given trajectory (evaluated via its
+     * initial condition at time 0).
+     */
+    public ComplexMatrixD getConstantVector(int trajectory) {
+        return amplitudes.get(trajectory);
+    }
+
+    public List<MatrixD> getTrajectories() {
+        return trajectories;
+    }
+
+    public double getDeltaT() {
+        return deltaT;
+    }
+
+    /**
+     * Computes the least-squares amplitudes for a new initial condition
+     * {@code x0} at time 0, e.g. for a new run with different parameters.
+     *
+     * @param x0
+     *            the {@code n x 1} initial condition
+     * @return the {@code r x 1} constant vector
+     */
+    public ComplexMatrixD computeConstantVector(MatrixD x0) {
+        if (gram == null) {
+            throw new IllegalStateException("compute() must be called first");
+        }
+        return gram.solve(ModeOps.conjTransTimes(phi, x0), Matrices.createComplexD(rank, 1));
+    }
+
+    /**
+     * Prediction for the given trajectory (time 0 is the time of its first
+     * snapshot).
+     */
+    public MatrixD predict(int trajectory, double timeFrom, int numberOfPredictions) {
+        return predict(amplitudes.get(trajectory), timeFrom, numberOfPredictions);
+    }
+
+    /**
+     * Prediction for an arbitrary constant vector (see
+     * {@link #computeConstantVector(MatrixD)}).
+     */
+    public MatrixD predict(ComplexMatrixD b, double timeFrom, int numberOfPredictions) {
+        if (numberOfPredictions < 1) {
+            throw new IllegalArgumentException("numberOfPredictions < 1: " + numberOfPredictions);
+        }
+        ComplexMatrixD timeDynamics = TimeDynamics.create(omega, rank, b, timeFrom, numberOfPredictions, deltaT);
+        return phi.times(timeDynamics).toRealMatrix();
+    }
+
+    private void computeDMD() {
+        // Y = X2 * Vr * Sr^-1 (n x r) and the r x r operator ATilde
+        MatrixD[] YA = (numRows <= numPairs) ? fromCovariances() : fromSnapshotGram();
+        MatrixD Y = YA[0];
+        MatrixD ATilde = YA[1];
+
+        // step 3: compute the 'rank' eigenvalues / eigenvectors in the subspace
+        EvdComplexD evd = ATilde.toComplexMatrix().evd(true);
+        eigenValues = evd.getEigenvalues();
+        // step 4: Phi = X2 * Vr * Sr^-1 * W
+        phi = Y.times(evd.getEigenvectors());
+        omega = computeOmega(eigenValues, deltaT);
+
+        // one vector b per trajectory via its initial condition at time 0
+        gram = phi.conjugateTransposedTimes();
+        List<ComplexMatrixD> bs = new ArrayList<>(trajectories.size());
+        for (MatrixD trajectory : trajectories) {
+            MatrixD x0 = trajectory.selectConsecutiveColumns(trajectory.startCol(), trajectory.startCol());
+            bs.add(computeConstantVector(x0));
+        }
+        amplitudes = Collections.unmodifiableList(bs);
+    }
+
+    // n <= M: accumulate sum_j X1_j * X1_j^T and sum_j X2_j * X1_j^T
+    private MatrixD[] fromCovariances() {
+        List<CompletableFuture<MatrixD[]>> futures = new ArrayList<>(trajectories.size());
+        for (MatrixD trajectory : trajectories) {
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                MatrixD X1 = trajectory.viewColumns(trajectory.startCol(), trajectory.endCol() - 1);
+                MatrixD X2 = trajectory.viewColumns(trajectory.startCol() + 1, trajectory.endCol());
+                return new MatrixD[] { X1.timesTransposed(), X2.timesTransposed(X1) };
+            }, executor));
+        }
+        MatrixD C11 = Matrices.createD(numRows, numRows);
+        MatrixD C21 = Matrices.createD(numRows, numRows);
+        for (CompletableFuture<MatrixD[]> f : futures) {
+            MatrixD[] C = f.join();
+            C11.addInplace(C[0]);
+            C21.addInplace(C[1]);
+        }
+        // X1 * X1^T = U * S^2 * U^T
+        SvdD svd = C11.svd(true);
+        double[] S = sqrt(svd.getS());
+        if (rank == 0) {
+            rank = HardThreshold.rank(numRows, numPairs, S);
+        }
+        rank = Math.max(1, Math.min(rank, S.length));
+        MatrixD U = svd.getU();
+        MatrixD Ur = U.selectConsecutiveColumns(U.startCol(), rank - 1);
+        // with X1 = U * S * V^T: X2 * Vr * Sr^-1 = X2 * X1^T * Ur * Sr^-2
+        MatrixD Y = C21.times(Ur).times(diag(S, rank, -2.0));
+        return new MatrixD[] { Y, Ur.transposedTimes(Y) };
+    }
+
+    // n > M: the M x M Gram matrix X1^T * X1 (method of snapshots)
+    private MatrixD[] fromSnapshotGram() {
+        int count = trajectories.size();
+        int[] offsets = new int[count + 1];
+        for (int j = 0; j < count; ++j) {
+            offsets[j + 1] = offsets[j] + trajectories.get(j).numColumns() - 1;
+        }
+        // the blocks X1_j^T * X1_k for j <= k
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        MatrixD K = Matrices.createD(numPairs, numPairs);
+        for (int j = 0; j < count; ++j) {
+            for (int k = j; k < count; ++k) {
+                final int j_ = j;
+                final int k_ = k;
+                futures.add(CompletableFuture.supplyAsync(() -> {
+                    MatrixD Xj = firstSnapshot(trajectories.get(j_));
+                    MatrixD Xk = firstSnapshot(trajectories.get(k_));
+                    return Xj.transposedTimes(Xk);
+                }, executor).thenAccept(block -> {
+                    synchronized (K) {
+                        K.setSubmatrixInplace(offsets[j_], offsets[k_], block, 0, 0, block.numRows() - 1,
+                                block.numColumns() - 1);
+                        if (j_ != k_) {
+                            K.setSubmatrixInplace(offsets[k_], offsets[j_], block.transpose(), 0, 0,
+                                    block.numColumns() - 1, block.numRows() - 1);
+                        }
+                    }
+                }));
+            }
+        }
+        for (CompletableFuture<Void> f : futures) {
+            f.join();
+        }
+        // X1^T * X1 = V * S^2 * V^T
+        SvdD svd = K.svd(true);
+        double[] S = sqrt(svd.getS());
+        if (rank == 0) {
+            rank = HardThreshold.rank(numRows, numPairs, S);
+        }
+        rank = Math.max(1, Math.min(rank, S.length));
+        final int r = rank;
+        MatrixD V = svd.getU();
+        final MatrixD SrInv = diag(S, r, -1.0);
+        // Ur = sum_j X1_j * V_j * Sr^-1 and Y = sum_j X2_j * V_j * Sr^-1
+        List<CompletableFuture<MatrixD[]>> parts = new ArrayList<>(count);
+        for (int j = 0; j < count; ++j) {
+            final MatrixD trajectory = trajectories.get(j);
+            final MatrixD Vj = V.selectSubmatrix(offsets[j], 0, offsets[j + 1] - 1, r - 1).times(SrInv);
+            parts.add(CompletableFuture.supplyAsync(() -> {
+                MatrixD X1 = firstSnapshot(trajectory);
+                MatrixD X2 = trajectory.viewColumns(trajectory.startCol() + 1, trajectory.endCol());
+                return new MatrixD[] { X1.times(Vj), X2.times(Vj) };
+            }, executor));
+        }
+        MatrixD Ur = Matrices.createD(numRows, r);
+        MatrixD Y = Matrices.createD(numRows, r);
+        for (CompletableFuture<MatrixD[]> f : parts) {
+            MatrixD[] part = f.join();
+            Ur.addInplace(part[0]);
+            Y.addInplace(part[1]);
+        }
+        return new MatrixD[] { Y, Ur.transposedTimes(Y) };
+    }
+
+    private static MatrixD firstSnapshot(MatrixD trajectory) {
+        return trajectory.viewColumns(trajectory.startCol(), trajectory.endCol() - 1);
+    }
+
+    private static double[] sqrt(double[] s2) {
+        double[] s = new double[s2.length];
+        for (int i = 0; i < s.length; ++i) {
+            s[i] = Math.sqrt(Math.max(s2[i], 0.0));
+        }
+        return s;
+    }
+
+    // diag(S[0]^exponent, ..., S[rank-1]^exponent)
+    private static MatrixD diag(double[] S, int rank, double exponent) {
+        MatrixD D = Matrices.createD(rank, rank);
+        for (int i = 0; i < rank; ++i) {
+            D.set(i, i, Math.pow(S[i], exponent));
+        }
+        return D;
+    }
+
+    private static ComplexMatrixD computeOmega(Zd[] eigs, double dt) {
+        // omega contains the eigenvalues of the fitted linear system
+        ComplexMatrixD omega = Matrices.createComplexD(eigs.length, eigs.length);
+        for (int i = 0; i < eigs.length; ++i) {
+            Zd z = eigs[i].copy();
+            z.ln().scale(1.0 / dt);
+            omega.set(i, i, z.re(), z.im());
+        }
+        return omega;
+    }
+}
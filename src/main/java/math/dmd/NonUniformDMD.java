@@ -0,0 +1,397 @@
+/*
+ * Copyright 2026 Stefan Zobel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package math.dmd;
+
+import java.util.Objects;
+
+import net.jamu.complex.Zd;
+import net.jamu.matrix.ComplexMatrixD;
+import net.jamu.matrix.EvdComplexD;
+import net.jamu.matrix.Matrices;
+import net.jamu.matrix.MatrixD;
+import net.jamu.matrix.SvdD;
+import net.jamu.matrix.SvdEconD;
+
+/**
+ * DMD for real-valued observations that have been sampled at arbitrary
+ * (non-uniform) times, without resampling the data onto a uniform grid.
+ * <p>
+ * The snapshots are projected onto the leading {@code r} left singular
+ * vectors ({@code Z = Ur^T * X}, {@code r x m}) and the continuous-time
+ * eigenvalues {@code alpha} are computed directly by a variable projection fit
+ * (Askham, Kutz. Variable projection methods for an optimized dynamic mode
+ * decomposition, SIAM Journal on Applied Dynamical Systems 17 [2018]) of the
+ * exponential model
+ *
+ * <pre>
+ * Z^T ~ E(alpha) * B,  E(alpha)_jk = e^(alpha_k * (t_j - t_0))
+ * </pre>
+ *
+ * in the reduced space: for fixed {@code alpha} the linear coefficients
+ * {@code B} are the least-squares solution, and {@code alpha} is improved by
+ * Levenberg-Marquardt steps with the Kaufman approximation of the Jacobian of
+ * the projected residual (each iteration is {@code O(m * r^2)}). The initial
+ * guess comes from a trapezoidal finite-difference approximation of the
+ * continuous-time operator that respects the actual sampling times.
+ * <p>
+ * The modes are {@code Phi = Ur * W} where the columns of {@code B^T} are
+ * {@code W * diag(b)} with unit-norm {@code W}, i.e., {@code b} is the
+ * amplitude vector at the first sampling time {@code t_0}. The fit works in
+ * the shifted time {@code t - t_0} so that absolute timestamps far from
+ * {@code 0} (e.g., epoch seconds) don't overflow or underflow the
+ * exponentials. Predictions can be evaluated at arbitrary (absolute) times.
+ */
+public class NonUniformDMD {
+
+    private static final int DEFAULT_MAX_ITERATIONS = 50;
+    private static final double DEFAULT_TOLERANCE = 1.0e-10;
+
+    private final MatrixD data;
+    private final double[] times;
+    // the sampling times relative to times[0]
+    private final double[] shifted;
+
+    private int maxIterations = DEFAULT_MAX_ITERATIONS;
+    private double tolerance = DEFAULT_TOLERANCE;
+
+    // the rank can either be computed or set via the constructor
+    private int rank = 0;
+    // modes of the fitted linear system in the high-dimensional space
+    private ComplexMatrixD phi;
+    // omega contains the continuous-time eigenvalues
+    private ComplexMatrixD omega;
+    // the amplitudes at time times[0]
+    private ComplexMatrixD b;
+    // the Frobenius norm of the residual in the reduced space
+    private double residualNorm;
+    private int iterations;
+
+    /**
+     * @param data
+     *            the {@code n x m} snapshot matrix
+     * @param times
+     *            the strictly increasing sampling times of the {@code m}
+     *            snapshots
+     */
+    public NonUniformDMD(MatrixD data, double[] times) {
+        this.data = Objects.requireNonNull(data);
+        if (times.length != data.numColumns()) {
+            throw new IllegalArgumentException(
+                    "times.length != numColumns: " + times.length + " != " + data.numColumns());
+        }
+        if (times.length < 3) {
+            throw new IllegalArgumentException("need at least 3 snapshots: " + times.length);
+        }
+        for (int j = 1; j < times.length; ++j) {
+            if (!(times[j] > times[j - 1])) {
+                throw new IllegalArgumentException("times not strictly increasing at index " + j);
+            }
+        }
+        this.times = times.clone();
+        this.shifted = new double[times.length];
+        for (int j = 0; j < times.length; ++j) {
+            shifted[j] = times[j] - times[0];
+        }
+    }
+
+    public NonUniformDMD(MatrixD data, double[] times, int rank) {
+        this(data, times);
+        if (rank < 1) {
+            throw new IllegalArgumentException("rank: " + rank);
+        }
+        this.rank = rank;
+    }
+
+    public NonUniformDMD setMaxIterations(int maxIterations) {
+        if (maxIterations < 0) {
+            throw new IllegalArgumentException("maxIterations: " + maxIterations);
+        }
+        this.maxIterations = maxIterations;
+        return this;
+    }
+
+    /**
+     * Sets the relative decrease of the residual norm below which the
+     * variable projection iteration stops.
+     */
+    public NonUniformDMD setTolerance(double tolerance) {
+        if (!(tolerance > 0.0)) {
+            throw new IllegalArgumentException("tolerance: " + tolerance);
+        }
+        this.tolerance = tolerance;
+        return this;
+    }
+
+    public NonUniformDMD compute() {
+        computeDMD();
+        return this;
+    }
+
+    public int getRank() {
+        return rank;
+    }
+
+    public ComplexMatrixD getPhi() {
+        return phi;
+    }
+
+    /**
+     * Returns the diagonal matrix of the continuous-time eigenvalues.
+     */
+    public ComplexMatrixD getOmega() {
+        return omega;
+    }
+
+    /**
+     * Returns the amplitudes at the first sampling time
+     * ({@code getTimes()[0]}).
+     */
+    public ComplexMatrixD getConstantVector() {
+        return b;
+    }
+
+    /**
+     * Returns the Frobenius norm of the residual of the exponential fit in the
+     * reduced space.
+     */
+    public double getResidualNorm() {
+        return residualNorm;
+    }
+
+    /**
+     * Returns the number of accepted variable projection iterations.
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    public MatrixD getData() {
+        return data;
+    }
+
+    public double[] getTimes() {
+        return times.clone();
+    }
+
+    /**
+     * Evaluates the fitted model at the given (arbitrary) times.
+     *
+     * @param at
+     *            the (absolute) times of the predictions
+     * @return the {@code n x at.length} prediction
+     */
+    public MatrixD predict(double[] at) {
+        if (phi == null) {
+            throw new IllegalStateException("compute() must be called first");
+        }
+        if (at.length < 1) {
+            throw new IllegalArgumentException("at.length < 1");
+        }
+        // b_k * e^(omega_k * (t - t_0)) for all times (r x T)
+        MatrixD cRe = Matrices.createD(rank, at.length);
+        MatrixD cIm = Matrices.createD(rank, at.length);
+        for (int j = 0; j < at.length; ++j) {
+            double t = at[j] - times[0];
+            for (int k = 0; k < rank; ++k) {
+                Zd w = omega.get(k, k);
+                Zd b_k = b.get(k, 0);
+                double expRe = Math.exp(w.re() * t);
+                double eRe = expRe * Math.cos(w.im() * t);
+                double eIm = expRe * Math.sin(w.im() * t);
+                cRe.setUnsafe(k, j, b_k.re() * eRe - b_k.im() * eIm);
+                cIm.setUnsafe(k, j, b_k.re() * eIm + b_k.im() * eRe);
+            }
+        }
+        // Re(Phi * C) = Re(Phi) * Re(C) - Im(Phi) * Im(C)
+        MatrixD pred = phi.toRealMatrix().times(cRe);
+        return pred.addInplace(-1.0, ModeOps.imagPart(phi).times(cIm));
+    }
+
+    private void computeDMD() {
+        // step 1: projection onto the leading left singular vectors
+        SvdEconD svd = data.svdEcon();
+        if (rank == 0) {
+            rank = Math.max(SvdD.optimalHardThreshold(data.numRows(), data.numColumns(), svd), 1);
+        }
+        rank = Math.min(rank, svd.getS().length);
+        MatrixD U = svd.getU();
+        MatrixD Ur = U.selectConsecutiveColumns(U.startCol(), rank - 1);
+        MatrixD Z = Ur.transposedTimes(data);
+        ComplexMatrixD Y = Z.transpose().toComplexMatrix();
+
+        // step 2: initial guess for the continuous-time eigenvalues
+        Zd[] alpha = initialGuess(Z, times);
+
+        // step 3: variable projection
+        double[] aRe = new double[rank];
+        double[] aIm = new double[rank];
+        for (int k = 0; k < rank; ++k) {
+            aRe[k] = alpha[k].re();
+            aIm[k] = alpha[k].im();
+        }
+        ComplexMatrixD B = variableProjection(Y, aRe, aIm);
+
+        // step 4: modes and amplitudes from B^T = W * diag(b)
+        ComplexMatrixD W = B.transpose();
+        b = Matrices.createComplexD(rank, 1);
+        for (int k = 0; k < rank; ++k) {
+            double norm = 0.0;
+            for (int i = 0; i < rank; ++i) {
+                Zd w = W.get(i, k);
+                norm += w.re() * w.re() + w.im() * w.im();
+            }
+            norm = Math.sqrt(norm);
+            b.set(k, 0, norm, 0.0);
+            if (norm > 0.0) {
+                for (int i = 0; i < rank; ++i) {
+                    Zd w = W.get(i, k);
+                    W.set(i, k, w.re() / norm, w.im() / norm);
+                }
+            }
+        }
+        phi = ModeOps.combine(Ur.times(W.toRealMatrix()), Ur.times(ModeOps.imagPart(W)));
+        omega = Matrices.createComplexD(rank, rank);
+        for (int k = 0; k < rank; ++k) {
+            omega.set(k, k, aRe[k], aIm[k]);
+        }
+    }
+
+    // Levenberg-Marquardt on alpha (updated in place), returns B
+    private ComplexMatrixD variableProjection(ComplexMatrixD Y, double[] aRe, double[] aIm) {
+        int r = aRe.length;
+        ComplexMatrixD E = exponentials(aRe, aIm, shifted);
+        ComplexMatrixD B = E.solve(Y, Matrices.createComplexD(r, r));
+        ComplexMatrixD R = Y.minus(E.times(B));
+        double res = R.normF();
+        double lambda = 1.0;
+        iterations = 0;
+        boolean converged = false;
+        for (int it = 0; it < maxIterations && res > 0.0 && !converged; ++it) {
+            // the columns t .* E(:, k) and their components orthogonal to E
+            ComplexMatrixD D = derivatives(E, shifted);
+            ComplexMatrixD Wp = D.minus(E.times(E.solve(D, Matrices.createComplexD(r, r))));
+            // J^H * J = (Wp^H * Wp) .* conj(B * B^H)
+            ComplexMatrixD WhW = Wp.conjugateTransposedTimes();
+            ComplexMatrixD BBh = B.timesConjugateTransposed();
+            // -J^H * R = diag(Wp^H * R * B^H)
+            ComplexMatrixD WhRBh = Wp.conjugateTransposedTimes(R).timesConjugateTransposed(B);
+            ComplexMatrixD M = Matrices.createComplexD(r, r);
+            ComplexMatrixD g = Matrices.createComplexD(r, 1);
+            for (int j = 0; j < r; ++j) {
+                for (int k = 0; k < r; ++k) {
+                    Zd w = WhW.get(j, k);
+                    Zd c = BBh.get(j, k);
+                    // w * conj(c)
+                    M.set(j, k, w.re() * c.re() + w.im() * c.im(), w.im() * c.re() - w.re() * c.im());
+                }
+                Zd d = WhRBh.get(j, j);
+                g.set(j, 0, d.re(), d.im());
+            }
+            boolean accepted = false;
+            for (int attempt = 0; attempt < 16 && !accepted; ++attempt) {
+                ComplexMatrixD Ml = M.copy();
+                for (int k = 0; k < r; ++k) {
+                    Zd m = M.get(k, k);
+                    Ml.set(k, k, m.re() * (1.0 + lambda), m.im() * (1.0 + lambda));
+                }
+                ComplexMatrixD delta = Ml.solve(g, Matrices.createComplexD(r, 1));
+                double[] nRe = new double[r];
+                double[] nIm = new double[r];
+                for (int k = 0; k < r; ++k) {
+                    nRe[k] = aRe[k] + delta.get(k, 0).re();
+                    nIm[k] = aIm[k] + delta.get(k, 0).im();
+                }
+                ComplexMatrixD En = exponentials(nRe, nIm, shifted);
+                ComplexMatrixD Bn = En.solve(Y, Matrices.createComplexD(r, r));
+                ComplexMatrixD Rn = Y.minus(En.times(Bn));
+                double resNew = Rn.normF();
+                if (resNew < res && !Double.isNaN(resNew)) {
+                    accepted = true;
+                    double decrease = (res - resNew) / res;
+                    System.arraycopy(nRe, 0, aRe, 0, r);
+                    System.arraycopy(nIm, 0, aIm, 0, r);
+                    E = En;
+                    B = Bn;
+                    R = Rn;
+                    res = resNew;
+                    lambda = Math.max(lambda / 3.0, 1.0e-12);
+                    ++iterations;
+                    converged = decrease < tolerance;
+                } else {
+                    lambda *= 2.0;
+                }
+            }
+            if (!accepted) {
+                break;
+            }
+        }
+        residualNorm = res;
+        return B;
+    }
+
+    // eigenvalues of the continuous-time operator A from
+    // (Z_(j+1) - Z_j) / h_j ~ A * (Z_(j+1) + Z_j) / 2
+    private static Zd[] initialGuess(MatrixD Z, double[] t) {
+        int r = Z.numRows();
+        int pairs = Z.numColumns() - 1;
+        MatrixD dZ = Matrices.createD(r, pairs);
+        MatrixD mid = Matrices.createD(r, pairs);
+        for (int j = 0; j < pairs; ++j) {
+            double h = t[j + 1] - t[j];
+            for (int i = 0; i < r; ++i) {
+                double z0 = Z.getUnsafe(i, j);
+                double z1 = Z.getUnsafe(i, j + 1);
+                dZ.setUnsafe(i, j, (z1 - z0) / h);
+                mid.setUnsafe(i, j, 0.5 * (z1 + z0));
+            }
+        }
+        // A = (dZ * mid^T) * (mid * mid^T)^-1, i.e. A^T = G^-1 * (dZ * mid^T)^T
+        MatrixD G = mid.timesTransposed();
+        MatrixD C = dZ.timesTransposed(mid);
+        MatrixD A = G.solve(C.transpose(), Matrices.createD(r, r)).transpose();
+        EvdComplexD evd = A.toComplexMatrix().evd(false);
+        return evd.getEigenvalues();
+    }
+
+    // E_jk = e^(alpha_k * t_j) (m x r)
+    private static ComplexMatrixD exponentials(double[] aRe, double[] aIm, double[] t) {
+        ComplexMatrixD E = Matrices.createComplexD(t.length, aRe.length);
+        double[] e = E.getArrayUnsafe();
+        int idx = 0;
+        for (int k = 0; k < aRe.length; ++k) {
+            for (int j = 0; j < t.length; ++j) {
+                double expRe = Math.exp(aRe[k] * t[j]);
+                e[idx++] = expRe * Math.cos(aIm[k] * t[j]);
+                e[idx++] = expRe * Math.sin(aIm[k] * t[j]);
+            }
+        }
+        return E;
+    }
+
+    // D(:, k) = t .* E(:, k)
+    private static ComplexMatrixD derivatives(ComplexMatrixD E, double[] t) {
+        ComplexMatrixD D = E.copy();
+        double[] d = D.getArrayUnsafe();
+        int idx = 0;
+        for (int k = 0; k < E.numColumns(); ++k) {
+            for (int j = 0; j < t.length; ++j) {
+                d[idx++] *= t[j];
+                d[idx++] *= t[j];
+            }
+        }
+        return D;
+    }
+}
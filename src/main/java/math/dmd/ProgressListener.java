@@ -0,0 +1,35 @@
+/*
+ * Copyright 2026 Stefan Zobel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package math.dmd;
+
+/**
+ * Receives the progress of an asynchronous DMD fit (e.g.,
+ * {@link ExactDMD#computeAsync(java.util.concurrent.Executor, ProgressListener)}).
+ * Called on the thread that runs the fit.
+ */
+@FunctionalInterface
+public interface ProgressListener {
+
+    /**
+     * Reports progress within or at the end of a stage.
+     *
+     * @param stage
+     *            the current stage
+     * @param fraction
+     *            the completed fraction of the whole fit ({@code 0 < fraction <= 1})
+     */
+    void progress(FitStage stage, double fraction);
+}
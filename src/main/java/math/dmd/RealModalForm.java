@@ -0,0 +1,327 @@
+/*
+ * Copyright 2026 Stefan Zobel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package math.dmd;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import net.jamu.complex.Zd;
+import net.jamu.matrix.ComplexMatrixD;
+import net.jamu.matrix.Matrices;
+import net.jamu.matrix.MatrixD;
+
+/**
+ * Real-valued representation of the DMD modes and their dynamics for
+ * real-valued data.
+ * <p>
+ * For real-valued data the eigenvalues come in complex-conjugate pairs
+ * {@code (lambda, conj(lambda))} with complex-conjugate modes and amplitudes.
+ * The contribution of such a pair to the prediction is
+ * {@code 2 * Re(Phi_k * c_k(t))} with {@code c_k(t) = b_k * e^(omega_k * t)},
+ * i.e., {@code [2 * Re(Phi_k), -2 * Im(Phi_k)] * [Re(c_k); Im(c_k)]}. The
+ * coefficients {@code [Re(c_k); Im(c_k)]} evolve by the real {@code 2 x 2}
+ * rotation-scaling block
+ *
+ * <pre>
+ * e^(a * dt) * [cos(w * dt), -sin(w * dt); sin(w * dt), cos(w * dt)]
+ * </pre>
+ *
+ * where {@code omega_k = a + i * w}. Real eigenvalues with real modes need a
+ * single real column, complex eigenvalues without a partner keep two columns
+ * ({@code Re(Phi_k * c_k)} is exact for them). A prediction is thus one real
+ * matrix product of the {@code n x p} real modes with the {@code p x T}
+ * coefficients, where {@code p <= r} for fully paired spectra, which is about
+ * half of the flops and memory of the complex product.
+ */
+public final class RealModalForm {
+
+    // relative tolerance for the detection of complex-conjugate pairs
+    private static final double PAIR_TOL = 1.0e-8;
+
+    // real column(s) of a mode group
+    private static final int REAL = 1;
+    private static final int PAIR = 2;
+    private static final int UNPAIRED = 3;
+
+    private final int rank;
+    private final double deltaT;
+    // the real modes (n x p)
+    private final MatrixD psi;
+    // the representative complex mode of each group
+    private final int[] groupMode;
+    // REAL, PAIR or UNPAIRED
+    private final int[] groupKind;
+    // the partner for each mode (-1 if it has none)
+    private final int[] partner;
+    private final double[] omegaRe;
+    private final double[] omegaIm;
+
+    private RealModalForm(int rank, double deltaT, MatrixD psi, int[] groupMode, int[] groupKind, int[] partner,
+            double[] omegaRe, double[] omegaIm) {
+        this.rank = rank;
+        this.deltaT = deltaT;
+        this.psi = psi;
+        this.groupMode = groupMode;
+        this.groupKind = groupKind;
+        this.partner = partner;
+        this.omegaRe = omegaRe;
+        this.omegaIm = omegaIm;
+    }
+
+    /**
+     * Detects the complex-conjugate eigenvalue pairs and creates the real
+     * modes.
+     *
+     * @param phi
+     *            the {@code n x r} DMD modes
+     * @param eigs
+     *            the {@code r} eigenvalues in the subspace
+     * @param omega
+     *            the {@code r x r} diagonal matrix of continuous-time
+     *            eigenvalues
+     * @param deltaT
+     *            the sampling interval
+     * @return the real modal form
+     */
+    public static RealModalForm create(ComplexMatrixD phi, Zd[] eigs, ComplexMatrixD omega, double deltaT) {
+        Objects.requireNonNull(phi);
+        Objects.requireNonNull(omega);
+        int rank = eigs.length;
+        int n = phi.numRows();
+        int[] partner = new int[rank];
+        Arrays.fill(partner, -1);
+        for (int k = 0; k < rank; ++k) {
+            Zd z = eigs[k];
+            double abs = z.abs();
+            if (partner[k] >= 0 || Math.abs(z.im()) <= PAIR_TOL * abs) {
+                continue;
+            }
+            double tol = PAIR_TOL * Math.max(1.0, abs);
+            for (int j = k + 1; j < rank; ++j) {
+                if (partner[j] < 0 && Math.abs(eigs[j].re() - z.re()) <= tol
+                        && Math.abs(eigs[j].im() + z.im()) <= tol) {
+                    partner[k] = j;
+                    partner[j] = k;
+                    break;
+                }
+            }
+        }
+        MatrixD phiRe = phi.toRealMatrix();
+        MatrixD phiIm = ModeOps.imagPart(phi);
+        int[] groupMode = new int[rank];
+        int[] groupKind = new int[rank];
+        int groups = 0;
+        int cols = 0;
+        for (int k = 0; k < rank; ++k) {
+            if (partner[k] >= 0) {
+                if (partner[k] > k) {
+                    groupMode[groups] = k;
+                    groupKind[groups++] = PAIR;
+                    cols += 2;
+                }
+            } else if (eigs[k].im() == 0.0 && isZeroColumn(phiIm, k)) {
+                groupMode[groups] = k;
+                groupKind[groups++] = REAL;
+                cols += 1;
+            } else {
+                groupMode[groups] = k;
+                groupKind[groups++] = UNPAIRED;
+                cols += 2;
+            }
+        }
+        MatrixD psi = Matrices.createD(n, cols);
+        int col = 0;
+        for (int g = 0; g < groups; ++g) {
+            int k = groupMode[g];
+            double factor = (groupKind[g] == PAIR) ? 2.0 : 1.0;
+            for (int i = 0; i < n; ++i) {
+                psi.setUnsafe(i, col, factor * phiRe.getUnsafe(i, k));
+            }
+            if (groupKind[g] != REAL) {
+                for (int i = 0; i < n; ++i) {
+                    psi.setUnsafe(i, col + 1, -factor * phiIm.getUnsafe(i, k));
+                }
+                col += 2;
+            } else {
+                col += 1;
+            }
+        }
+        double[] omegaRe = new double[rank];
+        double[] omegaIm = new double[rank];
+        for (int k = 0; k < rank; ++k) {
+            omegaRe[k] = omega.get(k, k).re();
+            omegaIm[k] = omega.get(k, k).im();
+        }
+        return new RealModalForm(rank, deltaT, psi, Arrays.copyOf(groupMode, groups),
+                Arrays.copyOf(groupKind, groups), partner, omegaRe, omegaIm);
+    }
+
+    /**
+     * Spatio-temporal prediction in real arithmetic.
+     *
+     * @param b
+     *            the {@code r x 1} amplitude vector
+     * @param timeFrom
+     *            the time of the first prediction
+     * @param numberOfPredictions
+     *            the number of predicted snapshots
+     * @return the {@code n x numberOfPredictions} prediction
+     */
+    public MatrixD predict(ComplexMatrixD b, double timeFrom, int numberOfPredictions) {
+        return psi.times(coefficients(b, timeFrom, numberOfPredictions));
+    }
+
+    /**
+     * Returns the real {@code p x T} coefficient matrix such that the
+     * prediction is {@code getModes() * coefficients}.
+     */
+    public MatrixD coefficients(ComplexMatrixD b, double timeFrom, int numberOfPredictions) {
+        if (numberOfPredictions < 1) {
+            throw new IllegalArgumentException("numberOfPredictions < 1: " + numberOfPredictions);
+        }
+        int groups = groupMode.length;
+        double[] bRe = new double[groups];
+        double[] bIm = new double[groups];
+        for (int g = 0; g < groups; ++g) {
+            Zd b_k = b.get(groupMode[g], 0);
+            bRe[g] = b_k.re();
+            bIm[g] = b_k.im();
+        }
+        double[] groupOmegaRe = new double[groups];
+        double[] groupOmegaIm = new double[groups];
+        for (int g = 0; g < groups; ++g) {
+            groupOmegaRe[g] = omegaRe[groupMode[g]];
+            groupOmegaIm[g] = omegaIm[groupMode[g]];
+        }
+        int p = psi.numColumns();
+        MatrixD C = Matrices.createD(p, numberOfPredictions);
+        double[] c = C.getArrayUnsafe();
+        // c_k(t) = b_k * e^(omega_k * t) as interleaved (re, im) pairs, which
+        // is already the layout of C if there are no real groups
+        boolean allComplex = (p == 2 * groups);
+        double[] dyn = allComplex ? c : new double[2 * groups * numberOfPredictions];
+        VectorOps.INSTANCE.timeDynamics(groupOmegaRe, groupOmegaIm, bRe, bIm, timeFrom, deltaT,
+                numberOfPredictions, dyn);
+        if (!allComplex) {
+            // drop the (zero) imaginary parts of the real groups
+            int idx = 0;
+            for (int j = 0; j < numberOfPredictions; ++j) {
+                int row = j * p;
+                for (int g = 0; g < groups; ++g) {
+                    c[row++] = dyn[idx];
+                    if (groupKind[g] != REAL) {
+                        c[row++] = dyn[idx + 1];
+                    }
+                    idx += 2;
+                }
+            }
+        }
+        return C;
+    }
+
+    /**
+     * Returns the real {@code p x p} block-diagonal matrix (with {@code 2 x 2}
+     * rotation-scaling blocks and {@code 1 x 1} blocks for the real modes)
+     * that advances the coefficients by one time step {@code deltaT}.
+     */
+    public MatrixD getBlockDiagonal() {
+        int p = psi.numColumns();
+        MatrixD D = Matrices.createD(p, p);
+        int col = 0;
+        for (int g = 0; g < groupMode.length; ++g) {
+            int k = groupMode[g];
+            double scale = Math.exp(omegaRe[k] * deltaT);
+            if (groupKind[g] == REAL) {
+                D.set(col, col, scale);
+                col += 1;
+            } else {
+                double cos = scale * Math.cos(omegaIm[k] * deltaT);
+                double sin = scale * Math.sin(omegaIm[k] * deltaT);
+                D.set(col, col, cos);
+                D.set(col, col + 1, -sin);
+                D.set(col + 1, col, sin);
+                D.set(col + 1, col + 1, cos);
+                col += 2;
+            }
+        }
+        return D;
+    }
+
+    /**
+     * Returns the real {@code n x p} modes.
+     */
+    public MatrixD getModes() {
+        return psi;
+    }
+
+    /**
+     * Returns the index of the complex-conjugate partner of each of the
+     * {@code r} eigenvalues ({@code -1} if an eigenvalue has no partner).
+     */
+    public int[] getConjugatePairs() {
+        return partner.clone();
+    }
+
+    /**
+     * Creates a plan for repeated forecasts of up to {@code horizon} steps
+     * that caches the eigenvalue powers (see {@link ForecastPlan}).
+     *
+     * @param horizon
+     *            the maximum number of predicted snapshots
+     * @return the forecast plan
+     */
+    public ForecastPlan plan(int horizon) {
+        return new ForecastPlan(this, horizon);
+    }
+
+    public int getRank() {
+        return rank;
+    }
+
+    /* package */ double getDeltaT() {
+        return deltaT;
+    }
+
+    // the number of mode groups (one or two real columns each)
+    /* package */ int groupCount() {
+        return groupMode.length;
+    }
+
+    /* package */ int groupMode(int group) {
+        return groupMode[group];
+    }
+
+    /* package */ boolean isRealGroup(int group) {
+        return groupKind[group] == REAL;
+    }
+
+    /* package */ double omegaRe(int k) {
+        return omegaRe[k];
+    }
+
+    /* package */ double omegaIm(int k) {
+        return omegaIm[k];
+    }
+
+    private static boolean isZeroColumn(MatrixD A, int col) {
+        for (int i = 0; i < A.numRows(); ++i) {
+            if (A.getUnsafe(i, col) != 0.0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,391 @@
+/*
+ * Copyright 2026 Stefan Zobel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package math.dmd;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import net.jamu.complex.Zd;
+import net.jamu.matrix.ComplexMatrixD;
+import net.jamu.matrix.EvdComplexD;
+import net.jamu.matrix.Matrices;
+import net.jamu.matrix.MatrixD;
+import net.jamu.matrix.SvdEconD;
+
+/**
+ * Robust DMD for real-valued observations with sparse outliers (e.g.,
+ * corrupted sensor readings).
+ * <p>
+ * The snapshot matrix is first separated into a low-rank part and a sparse
+ * outlier part {@code X = L + S} by robust PCA (principal component pursuit
+ * solved with the inexact augmented Lagrange multiplier method, Lin, Chen, Ma
+ * 2010). The singular value thresholding step of each iteration uses a
+ * randomized truncated SVD of rank {@code maxRank} (plus oversampling)
+ * instead of a full {@code svdEcon()}, so an iteration costs
+ * {@code O(n * m * maxRank)}.
+ * <p>
+ * The DMD is then computed from the final factors {@code L = U * C} (with
+ * {@code C = Sigma * V^T}) in the reduced space: {@code L1 = U * C1},
+ * {@code L2 = U * C2} and {@code ATilde = C2 * C1^+} ({@code O(r^2 * m)}),
+ * the modes are {@code Phi = U * W}. No further SVD of the cleaned data is
+ * needed.
+ */
+public class RobustDMD {
+
+    private static final int DEFAULT_MAX_ITERATIONS = 100;
+    private static final double DEFAULT_TOLERANCE = 1.0e-7;
+    private static final int DEFAULT_OVERSAMPLING = 10;
+    private static final int DEFAULT_POWER_ITERATIONS = 1;
+    private static final double RHO = 1.5;
+
+    private final MatrixD data;
+    private final double deltaT;
+    private final double tStart;
+    // upper bound for the rank of the low-rank part
+    private final int maxRank;
+
+    private double lambda;
+    private double tolerance = DEFAULT_TOLERANCE;
+    private int maxIterations = DEFAULT_MAX_ITERATIONS;
+    private int oversampling = DEFAULT_OVERSAMPLING;
+    private int powerIterations = DEFAULT_POWER_ITERATIONS;
+    private long seed = 0x2545F4914F6CDD1DL;
+
+    private int rank;
+    private int iterations;
+    // the low-rank and the sparse part
+    private MatrixD lowRank;
+    private MatrixD sparse;
+    // eigenvalues in the subspace
+    private Zd[] eigenValues;
+    // modes of the fitted linear system in the high-dimensional space
+    private ComplexMatrixD phi;
+    // omega contains the eigenvalues of the fitted linear system
+    private ComplexMatrixD omega;
+    // constant vector evaluated via the cleaned first snapshot
+    private ComplexMatrixD b;
+    // lazily created real-valued representation used for prediction
+    private RealModalForm realForm;
+
+    public RobustDMD(MatrixD data, double deltaT, int maxRank) {
+        this(data, deltaT, maxRank, 0.0);
+    }
+
+    public RobustDMD(MatrixD data, double deltaT, int maxRank, double tStart) {
+        if (deltaT <= 0.0) {
+            throw new IllegalArgumentException("deltaT: " + deltaT);
+        }
+        this.data = Objects.requireNonNull(data);
+        if (data.numColumns() < 3) {
+            throw new IllegalArgumentException("need at least 3 snapshots: " + data.numColumns());
+        }
+        if (maxRank < 1 || maxRank > Math.min(data.numRows(), data.numColumns() - 1)) {
+            throw new IllegalArgumentException("maxRank: " + maxRank);
+        }
+        this.deltaT = deltaT;
+        this.tStart = tStart;
+        this.maxRank = maxRank;
+        this.lambda = 1.0 / Math.sqrt(Math.max(data.numRows(), data.numColumns()));
+    }
+
+    /**
+     * Sets the weight of the sparse part (the default is
+     * {@code 1 / sqrt(max(n, m))}). Larger values flag fewer outliers.
+     */
+    public RobustDMD setLambda(double lambda) {
+        if (!(lambda > 0.0)) {
+            throw new IllegalArgumentException("lambda: " + lambda);
+        }
+        this.lambda = lambda;
+        return this;
+    }
+
+    /**
+     * Sets the tolerance for {@code ||X - L - S||_F / ||X||_F}.
+     */
+    public RobustDMD setTolerance(double tolerance) {
+        if (!(tolerance > 0.0)) {
+            throw new IllegalArgumentException("tolerance: " + tolerance);
+        }
+        this.tolerance = tolerance;
+        return this;
+    }
+
+    public RobustDMD setMaxIterations(int maxIterations) {
+        if (maxIterations < 1) {
+            throw new IllegalArgumentException("maxIterations: " + maxIterations);
+        }
+        this.maxIterations = maxIterations;
+        return this;
+    }
+
+    /**
+     * Sets the oversampling and the number of power iterations of the
+     * randomized truncated SVD.
+     */
+    public RobustDMD setRandomizedSvd(int oversampling, int powerIterations) {
+        if (oversampling < 0 || powerIterations < 0) {
+            throw new IllegalArgumentException(
+                    "oversampling: " + oversampling + ", powerIterations: " + powerIterations);
+        }
+        this.oversampling = oversampling;
+        this.powerIterations = powerIterations;
+        return this;
+    }
+
+    public RobustDMD setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public RobustDMD compute() {
+        computeDMD();
+        return this;
+    }
+
+    /**
+     * Returns the rank of the low-rank part (at most {@code maxRank}).
+     */
+    public int getRank() {
+        return rank;
+    }
+
+    public int getMaxRank() {
+        return maxRank;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Returns the cleaned (low-rank) snapshots {@code L}.
+     */
+    public MatrixD getLowRank() {
+        return lowRank;
+    }
+
+    /**
+     * Returns the sparse outlier matrix {@code S = X - L} (up to the
+     * tolerance).
+     */
+    public MatrixD getSparse() {
+        return sparse;
+    }
+
+    public Zd[] getEigenValues() {
+        return eigenValues;
+    }
+
+    public ComplexMatrixD getPhi() {
+        return phi;
+    }
+
+    public ComplexMatrixD getOmega() {
+        return omega;
+    }
+
+    public ComplexMatrixD getConstantVector() {
+        return b;
+    }
+
+    public MatrixD getData() {
+        return data;
+    }
+
+    public double getDeltaT() {
+        return deltaT;
+    }
+
+    public double getTStart() {
+        return tStart;
+    }
+
+    public MatrixD predict(double timeFrom, int numberOfPredictions) {
+        if (numberOfPredictions < 1) {
+            throw new IllegalArgumentException("numberOfPredictions < 1: " + numberOfPredictions);
+        }
+        return getRealModalForm().predict(b, timeFrom, numberOfPredictions);
+    }
+
+    /**
+     * Returns the (lazily created) real-valued representation of the modes
+     * and their dynamics that is used for prediction. Must be called after
+     * {@link #compute()}.
+     */
+    public RealModalForm getRealModalForm() {
+        if (phi == null) {
+            throw new IllegalStateException("compute() must be called first");
+        }
+        if (realForm == null) {
+            realForm = RealModalForm.create(phi, eigenValues, omega, deltaT);
+        }
+        return realForm;
+    }
+
+    private void computeDMD() {
+        int n = data.numRows();
+        int m = data.numColumns();
+        MatrixD X = data.copy();
+        double normX = X.normF();
+        // step 1: robust PCA X = L + S (inexact ALM)
+        long stream = seed;
+        Factors top = randomizedSvd(X, 1, stream++);
+        double norm2 = top.s[0];
+        double mu = 1.25 / norm2;
+        double muMax = mu * 1.0e7;
+        // dual variable Y = X / max(||X||_2, ||X||_max / lambda)
+        MatrixD Y = X.copy().scaleInplace(1.0 / Math.max(norm2, X.normMaxAbs() / lambda));
+        MatrixD S = Matrices.createD(n, m);
+        Factors L = null;
+        MatrixD Lmat = null;
+        iterations = 0;
+        for (int it = 0; it < maxIterations; ++it) {
+            ++iterations;
+            // L = D_(1 / mu)(X - S + Y / mu) (truncated singular value
+            // thresholding)
+            MatrixD M = X.minus(S).addInplace(1.0 / mu, Y);
+            L = randomizedSvd(M, maxRank, stream++);
+            L.threshold(1.0 / mu);
+            Lmat = L.toMatrix();
+            // S = shrink_(lambda / mu)(X - L + Y / mu)
+            S = X.minus(Lmat).addInplace(1.0 / mu, Y);
+            shrinkInplace(S, lambda / mu);
+            // Z = X - L - S
+            MatrixD Z = X.minus(Lmat).addInplace(-1.0, S);
+            Y.addInplace(mu, Z);
+            mu = Math.min(RHO * mu, muMax);
+            if (Z.normF() <= tolerance * normX) {
+                break;
+            }
+        }
+        lowRank = Lmat;
+        sparse = S;
+        rank = L.rank;
+
+        // step 2: DMD in the reduced space of L = U * C
+        int r = rank;
+        MatrixD C = L.coefficients();
+        MatrixD C1 = C.selectConsecutiveColumns(0, m - 2);
+        MatrixD C2 = C.selectConsecutiveColumns(1, m - 1);
+        // ATilde = (C2 * C1^T) * (C1 * C1^T)^-1, i.e. ATilde^T = G^-1 *
+        // (C2 * C1^T)^T
+        MatrixD G = C1.timesTransposed();
+        MatrixD ATilde = G.solve(C2.timesTransposed(C1).transpose(), Matrices.createD(r, r)).transpose();
+        EvdComplexD evd = ATilde.toComplexMatrix().evd(true);
+        eigenValues = evd.getEigenvalues();
+        ComplexMatrixD W = evd.getEigenvectors();
+        phi = ModeOps.combine(L.U.times(W.toRealMatrix()), L.U.times(ModeOps.imagPart(W)));
+        realForm = null;
+        omega = computeOmega(eigenValues, deltaT);
+
+        // step 3: W * e^(Omega * tStart) * b = C(:, 0)
+        ComplexMatrixD scaled = W.copy();
+        for (int k = 0; k < r; ++k) {
+            Zd w = omega.get(k, k);
+            double expRe = Math.exp(w.re() * tStart);
+            double eRe = expRe * Math.cos(w.im() * tStart);
+            double eIm = expRe * Math.sin(w.im() * tStart);
+            for (int i = 0; i < r; ++i) {
+                Zd z = W.get(i, k);
+                scaled.set(i, k, z.re() * eRe - z.im() * eIm, z.re() * eIm + z.im() * eRe);
+            }
+        }
+        ComplexMatrixD c0 = C.selectConsecutiveColumns(0, 0).toComplexMatrix();
+        b = scaled.solve(c0, Matrices.createComplexD(r, 1));
+    }
+
+    // the rank-k factors U * diag(s) * Vt
+    private static final class Factors {
+        MatrixD U;
+        double[] s;
+        MatrixD Vt;
+        int rank;
+
+        // soft-thresholds the singular values
+        void threshold(double tau) {
+            int r = 0;
+            for (int k = 0; k < s.length; ++k) {
+                s[k] = Math.max(s[k] - tau, 0.0);
+                if (s[k] > 0.0) {
+                    r = k + 1;
+                }
+            }
+            rank = Math.max(r, 1);
+            if (rank < U.numColumns()) {
+                U = U.selectConsecutiveColumns(0, rank - 1);
+                Vt = Vt.selectSubmatrix(0, 0, rank - 1, Vt.numColumns() - 1);
+            }
+        }
+
+        // diag(s) * Vt
+        MatrixD coefficients() {
+            MatrixD C = Vt.copy();
+            for (int col = 0; col < C.numColumns(); ++col) {
+                for (int k = 0; k < rank; ++k) {
+                    C.setUnsafe(k, col, s[k] * C.getUnsafe(k, col));
+                }
+            }
+            return C;
+        }
+
+        MatrixD toMatrix() {
+            return U.times(coefficients());
+        }
+    }
+
+    // randomized truncated SVD (Halko, Martinsson, Tropp 2011)
+    private Factors randomizedSvd(MatrixD A, int k, long seed) {
+        int m = A.numColumns();
+        int l = Math.min(k + oversampling, Math.min(A.numRows(), m));
+        MatrixD Omega = Matrices.randomNormalD(m, l, seed);
+        // orthonormal bases by (economy) Householder QR after every product
+        MatrixD Q = A.times(Omega).qrd().getQ();
+        for (int i = 0; i < powerIterations; ++i) {
+            MatrixD Qt = A.transposedTimes(Q).qrd().getQ();
+            Q = A.times(Qt).qrd().getQ();
+        }
+        // B = Q^T * A is small (l x m)
+        SvdEconD svd = Q.transposedTimes(A).svdEcon();
+        int rank = Math.min(k, svd.getS().length);
+        Factors f = new Factors();
+        MatrixD Ub = svd.getU();
+        f.U = Q.times(Ub.selectConsecutiveColumns(0, rank - 1));
+        f.s = Arrays.copyOf(svd.getS(), rank);
+        f.Vt = svd.getVt().selectSubmatrix(0, 0, rank - 1, m - 1);
+        f.rank = rank;
+        return f;
+    }
+
+    private static void shrinkInplace(MatrixD A, double tau) {
+        double[] a = A.getArrayUnsafe();
+        for (int i = 0; i < a.length; ++i) {
+            double v = a[i];
+            a[i] = (v > tau) ? v - tau : (v < -tau) ? v + tau : 0.0;
+        }
+    }
+
+    private static ComplexMatrixD computeOmega(Zd[] eigs, double dt) {
+        // omega contains the eigenvalues of the fitted linear system
+        ComplexMatrixD omega = Matrices.createComplexD(eigs.length, eigs.length);
+        for (int i = 0; i < eigs.length; ++i) {
+            Zd z = eigs[i].copy();
+            z.ln().scale(1.0 / dt);
+            omega.set(i, i, z.re(), z.im());
+        }
+        return omega;
+    }
+}
@@ -0,0 +1,321 @@
+/*
+ * Copyright 2026 Stefan Zobel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package math.dmd;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+import net.jamu.complex.Zd;
+import net.jamu.matrix.ComplexMatrixD;
+import net.jamu.matrix.EvdComplexD;
+import net.jamu.matrix.Matrices;
+import net.jamu.matrix.MatrixD;
+import net.jamu.matrix.SvdD;
+import net.jamu.matrix.SvdEconD;
+
+/**
+ * Exact DMD for real-valued observations whose spatial dimension is
+ * partitioned into row blocks (shards).
+ * <p>
+ * Each shard {@code i} holds the rows {@code X_i} of the snapshot matrix and
+ * computes the {@code R} factor of a local QR of its part of {@code X1}. The
+ * {@code R} factors are combined by a tall-skinny QR (TSQR) reduction tree
+ * into the {@code R} factor of the whole {@code X1} whose SVD
+ * {@code R = U_R * S * V^T} has the same singular values and right singular
+ * vectors as {@code X1}. Since {@code U = X1 * V * S^-1} the shards never need
+ * the {@code Q} factors: each shard computes its rows of {@code Ur} and its
+ * {@code r x r} contribution to {@code ATilde = Ur^T * X2 * Vr * Sr^-1},
+ * which are summed up. The rows of {@code Phi} are again computed per shard.
+ * The amplitudes are fitted on the {@code R} factor of a second TSQR
+ * reduction of {@code [X2 * Vr * Sr^-1, x1]} instead of the normal
+ * equations.
+ * <p>
+ * The shard-local work runs on the given executor; the combine step of the
+ * reduction is pluggable via {@link TsqrReducer}.
+ */
+public class ShardedDMD {
+
+    private final List<MatrixD> shards;
+    private final double deltaT;
+    private final double tStart;
+    private final Executor executor;
+    private final TsqrReducer reducer;
+    private final int numRows;
+
+    // the rank can either be computed or set via the constructor
+    private int rank = 0;
+    // eigenvalues in the subspace
+    private Zd[] eigenValues;
+    // the row blocks of Phi (one per shard)
+    private List<ComplexMatrixD> phiBlocks;
+    // omega contains the eigenvalues of the fitted linear system
+    private ComplexMatrixD omega;
+    // constant vector evaluated via the initial condition at time tStart
+    private ComplexMatrixD b;
+
+    public ShardedDMD(List<MatrixD> shards, double deltaT, double tStart, Executor executor) {
+        this(shards, deltaT, tStart, executor, TsqrReducer.local());
+    }
+
+    public ShardedDMD(List<MatrixD> shards, double deltaT, double tStart, Executor executor,
+            TsqrReducer reducer) {
+        if (deltaT <= 0.0) {
+            throw new IllegalArgumentException("deltaT: " + deltaT);
+        }
+        if (Objects.requireNonNull(shards).isEmpty()) {
+            throw new IllegalArgumentException("shards is empty");
+        }
+        int cols = shards.get(0).numColumns();
+        if (cols < 2) {
+            throw new IllegalArgumentException("numColumns < 2: " + cols);
+        }
+        int rows = 0;
+        for (MatrixD shard : shards) {
+            if (shard.numColumns() != cols) {
+                throw new IllegalArgumentException(
+                        "shards differ in numColumns: " + shard.numColumns() + " != " + cols);
+            }
+            rows += shard.numRows();
+        }
+        this.shards = Collections.unmodifiableList(new ArrayList<>(shards));
+        this.numRows = rows;
+        this.deltaT = deltaT;
+        this.tStart = tStart;
+        this.executor = Objects.requireNonNull(executor);
+        this.reducer = Objects.requireNonNull(reducer);
+    }
+
+    public ShardedDMD(List<MatrixD> shards, double deltaT, int rank, double tStart, Executor executor,
+            TsqrReducer reducer) {
+        this(shards, deltaT, tStart, executor, reducer);
+        if (rank < 1) {
+            throw new IllegalArgumentException("rank: " + rank);
+        }
+        this.rank = rank;
+    }
+
+    public ShardedDMD compute() {
+        computeDMD();
+        return this;
+    }
+
+    public int getRank() {
+        return rank;
+    }
+
+    public Zd[] getEigenValues() {
+        return eigenValues;
+    }
+
+    /**
+     * Returns the row blocks of {@code Phi} (in the order of the shards).
+     */
+    public List<ComplexMatrixD> getPhiBlocks() {
+        return phiBlocks;
+    }
+
+    /**
+     * Assembles the full {@code n x r} matrix {@code Phi} from the row
+     * blocks.
+     */
+    public ComplexMatrixD getPhi() {
+        ComplexMatrixD phi = Matrices.createComplexD(numRows, rank);
+        int row = 0;
+        for (ComplexMatrixD block : phiBlocks) {
+            phi.setSubmatrixInplace(row, 0, block, 0, 0, block.numRows() - 1, rank - 1);
+            row += block.numRows();
+        }
+        return phi;
+    }
+
+    public ComplexMatrixD getOmega() {
+        return omega;
+    }
+
+    public ComplexMatrixD getConstantVector() {
+        return b;
+    }
+
+    public List<MatrixD> getShards() {
+        return shards;
+    }
+
+    public double getDeltaT() {
+        return deltaT;
+    }
+
+    public double getTStart() {
+        return tStart;
+    }
+
+    private void computeDMD() {
+        int m1 = shards.get(0).numColumns() - 1;
+
+        // step 1: local QR of each shard's part of X1 and TSQR reduction
+        List<MatrixD> rFactors = forEachShard(
+                shard -> TsqrReducer.rFactor(shard.selectConsecutiveColumns(shard.startCol(), shard.endCol() - 1)));
+        MatrixD R = reduce(rFactors);
+        // the SVD of R has the singular values and right singular vectors of X1
+        SvdEconD svd = R.svdEcon();
+
+        // estimate rank truncation from SVD
+        if (rank == 0) {
+            rank = SvdD.optimalHardThreshold(numRows, m1 + 1, svd);
+            if (rank == 0) {
+                rank = 1;
+            }
+        }
+        final int r = rank;
+        MatrixD Vt = svd.getVt();
+        MatrixD Vr = Vt.selectSubmatrix(0, 0, r - 1, Vt.endCol()).transpose();
+        MatrixD SrInv = Matrices.createD(r, r);
+        double[] S = svd.getS();
+        for (int i = 0; i < r; ++i) {
+            SrInv.set(i, i, 1.0 / S[i]);
+        }
+        // Vr * Sr^-1 is shared by all shards
+        final MatrixD VrSrInv = Vr.times(SrInv);
+
+        // step 2: ATilde = sum_i Ur_i^T * X2_i * Vr * Sr^-1 with
+        // Ur_i = X1_i * Vr * Sr^-1
+        List<MatrixD[]> parts = forEachShard(shard -> {
+            MatrixD X1 = shard.viewColumns(shard.startCol(), shard.endCol() - 1);
+            MatrixD X2 = shard.viewColumns(shard.startCol() + 1, shard.endCol());
+            MatrixD Ur_i = X1.times(VrSrInv);
+            MatrixD X2VrSrInv = X2.times(VrSrInv);
+            return new MatrixD[] { Ur_i.transposedTimes(X2VrSrInv), X2VrSrInv };
+        });
+        MatrixD ATilde = Matrices.createD(r, r);
+        for (MatrixD[] part : parts) {
+            ATilde.addInplace(part[0]);
+        }
+
+        // step 3: compute the 'rank' eigenvalues / eigenvectors in the subspace
+        EvdComplexD evd = ATilde.toComplexMatrix().evd(true);
+        eigenValues = evd.getEigenvalues();
+        final ComplexMatrixD W = evd.getEigenvectors();
+        omega = computeOmega(eigenValues, deltaT);
+
+        // step 4: Phi_i = X2_i * Vr * Sr^-1 * W per shard together with the
+        // shard's R factor of [X2_i * Vr * Sr^-1, x1_i] for the least-squares
+        // fit of the initial condition
+        List<CompletableFuture<Object[]>> futures = new ArrayList<>();
+        for (int i = 0; i < shards.size(); ++i) {
+            final MatrixD shard = shards.get(i);
+            final MatrixD X2VrSrInv = parts.get(i)[1];
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                ComplexMatrixD Phi_i = X2VrSrInv.times(W);
+                MatrixD augmented = Matrices.createD(shard.numRows(), r + 1);
+                augmented.setSubmatrixInplace(0, 0, X2VrSrInv, 0, 0, shard.numRows() - 1, r - 1);
+                augmented.setSubmatrixInplace(0, r, shard, 0, shard.startCol(), shard.numRows() - 1,
+                        shard.startCol());
+                return new Object[] { Phi_i, TsqrReducer.rFactor(augmented) };
+            }, executor));
+        }
+        ArrayList<ComplexMatrixD> blocks = new ArrayList<>(shards.size());
+        List<MatrixD> augmentedFactors = new ArrayList<>(shards.size());
+        for (CompletableFuture<Object[]> f : futures) {
+            Object[] part = f.join();
+            blocks.add((ComplexMatrixD) part[0]);
+            augmentedFactors.add((MatrixD) part[1]);
+        }
+        phiBlocks = Collections.unmodifiableList(blocks);
+
+        // vector b via initial condition at time tStart: with the QR
+        // decomposition X2 * Vr * Sr^-1 = Q * R_Y the TSQR of the augmented
+        // matrix is [[R_Y, Q^T * x1], [0, rho]], so the least-squares problem
+        // min ||Phi * e^(Omega * tStart) * b - x1|| reduces to the r x r
+        // system R_Y * W * e^(Omega * tStart) * b = Q^T * x1 (no normal
+        // equations that would square the condition number)
+        MatrixD Raug = reduce(augmentedFactors);
+        MatrixD RY = Matrices.createD(r, r);
+        MatrixD QTx1 = Matrices.createD(r, 1);
+        int rows = Math.min(Raug.numRows(), r);
+        RY.setSubmatrixInplace(0, 0, Raug, 0, 0, rows - 1, r - 1);
+        QTx1.setSubmatrixInplace(0, 0, Raug, 0, r, rows - 1, r);
+        ComplexMatrixD E = omega.copy().scaleInplace(tStart, 0.0).expm();
+        b = RY.toComplexMatrix().times(W).times(E).solve(QTx1.toComplexMatrix(), Matrices.createComplexD(r, 1));
+    }
+
+    /**
+     * Spatio-temporal prediction, assembled from the per-shard predictions.
+     */
+    public MatrixD predict(double timeFrom, int numberOfPredictions) {
+        if (numberOfPredictions < 1) {
+            throw new IllegalArgumentException("numberOfPredictions < 1: " + numberOfPredictions);
+        }
+        ComplexMatrixD timeDynamics = TimeDynamics.create(omega, rank, b, timeFrom, numberOfPredictions, deltaT);
+        List<CompletableFuture<MatrixD>> futures = new ArrayList<>();
+        for (ComplexMatrixD block : phiBlocks) {
+            futures.add(CompletableFuture.supplyAsync(() -> block.times(timeDynamics).toRealMatrix(), executor));
+        }
+        MatrixD pred = Matrices.createD(numRows, numberOfPredictions);
+        int row = 0;
+        for (CompletableFuture<MatrixD> f : futures) {
+            MatrixD part = f.join();
+            pred.setSubmatrixInplace(row, 0, part, 0, 0, part.numRows() - 1, numberOfPredictions - 1);
+            row += part.numRows();
+        }
+        return pred;
+    }
+
+    private <T> List<T> forEachShard(Function<MatrixD, T> task) {
+        List<CompletableFuture<T>> futures = new ArrayList<>(shards.size());
+        for (MatrixD shard : shards) {
+            futures.add(CompletableFuture.supplyAsync(() -> task.apply(shard), executor));
+        }
+        List<T> results = new ArrayList<>(shards.size());
+        for (CompletableFuture<T> f : futures) {
+            results.add(f.join());
+        }
+        return results;
+    }
+
+    // binary TSQR reduction tree, the combines on each level run concurrently
+    private MatrixD reduce(List<MatrixD> rFactors) {
+        List<CompletableFuture<MatrixD>> level = new ArrayList<>();
+        for (MatrixD R : rFactors) {
+            level.add(CompletableFuture.completedFuture(R));
+        }
+        while (level.size() > 1) {
+            List<CompletableFuture<MatrixD>> next = new ArrayList<>((level.size() + 1) / 2);
+            for (int i = 0; i + 1 < level.size(); i += 2) {
+                next.add(level.get(i).thenCombineAsync(level.get(i + 1), reducer::combine, executor));
+            }
+            if (level.size() % 2 != 0) {
+                next.add(level.get(level.size() - 1));
+            }
+            level = next;
+        }
+        return level.get(0).join();
+    }
+
+    private static ComplexMatrixD computeOmega(Zd[] eigs, double dt) {
+        // omega contains the eigenvalues of the fitted linear system
+        ComplexMatrixD omega = Matrices.createComplexD(eigs.length, eigs.length);
+        for (int i = 0; i < eigs.length; ++i) {
+            Zd z = eigs[i].copy();
+            z.ln().scale(1.0 / dt);
+            omega.set(i, i, z.re(), z.im());
+        }
+        return omega;
+    }
+}
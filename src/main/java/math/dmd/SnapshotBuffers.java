@@ -0,0 +1,156 @@
+/*
+ * Copyright 2026 Stefan Zobel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package math.dmd;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.util.Objects;
+
+import net.jamu.matrix.Matrices;
+import net.jamu.matrix.MatrixD;
+import net.jamu.matrix.MatrixF;
+
+/**
+ * Ingestion of snapshot matrices that live outside of the Java heap (e.g.
+ * direct {@code ByteBuffer}s filled by a native acquisition library).
+ * <p>
+ * The buffer contents must be in column-major layout (one snapshot after the
+ * other), which is also the layout of the jamu matrices. The values are
+ * therefore transferred with a single bulk copy into the backing array of the
+ * matrix (no per-element {@code set()} calls and no intermediate
+ * {@code double[]}). Passing a reusable {@code target} matrix avoids the
+ * allocation altogether on repeated ingestion.
+ * <p>
+ * The byte order of a {@code ByteBuffer} is honored, i.e., the caller has to
+ * set it (native libraries usually need
+ * {@code buffer.order(ByteOrder.nativeOrder())}). The position and limit of
+ * the passed buffers are not changed. Foreign memory segments (Java 22+) can
+ * be passed through their zero-copy {@code MemorySegment.asByteBuffer()} view.
+ */
+public final class SnapshotBuffers {
+
+    /**
+     * Creates a new {@code rows x cols} matrix from the column-major doubles
+     * starting at the position of {@code columnMajor}.
+     */
+    public static MatrixD toMatrixD(ByteBuffer columnMajor, int rows, int cols) {
+        return toMatrixD(asDoubleBuffer(columnMajor), rows, cols);
+    }
+
+    /**
+     * Creates a new {@code rows x cols} matrix from the column-major doubles
+     * starting at the position of {@code columnMajor}.
+     */
+    public static MatrixD toMatrixD(DoubleBuffer columnMajor, int rows, int cols) {
+        checkDimensions(rows, cols);
+        return copyInto(columnMajor, Matrices.createD(rows, cols));
+    }
+
+    /**
+     * Copies the column-major doubles starting at the position of
+     * {@code columnMajor} into {@code target} (which determines the number of
+     * values read) and returns {@code target}.
+     */
+    public static MatrixD copyInto(ByteBuffer columnMajor, MatrixD target) {
+        return copyInto(asDoubleBuffer(columnMajor), target);
+    }
+
+    /**
+     * Copies the column-major doubles starting at the position of
+     * {@code columnMajor} into {@code target} (which determines the number of
+     * values read) and returns {@code target}.
+     */
+    public static MatrixD copyInto(DoubleBuffer columnMajor, MatrixD target) {
+        double[] a = target.getArrayUnsafe();
+        int length = target.numRows() * target.numColumns();
+        checkRemaining(columnMajor.remaining(), length);
+        columnMajor.duplicate().get(a, 0, length);
+        return target;
+    }
+
+    /**
+     * Creates a new {@code rows x cols} float matrix (e.g., for
+     * {@link ExactDMDF}) from the column-major floats starting at the position
+     * of {@code columnMajor}.
+     */
+    public static MatrixF toMatrixF(ByteBuffer columnMajor, int rows, int cols) {
+        return toMatrixF(asFloatBuffer(columnMajor), rows, cols);
+    }
+
+    /**
+     * Creates a new {@code rows x cols} float matrix (e.g., for
+     * {@link ExactDMDF}) from the column-major floats starting at the position
+     * of {@code columnMajor}.
+     */
+    public static MatrixF toMatrixF(FloatBuffer columnMajor, int rows, int cols) {
+        checkDimensions(rows, cols);
+        return copyInto(columnMajor, Matrices.createF(rows, cols));
+    }
+
+    /**
+     * Copies the column-major floats starting at the position of
+     * {@code columnMajor} into {@code target} (which determines the number of
+     * values read) and returns {@code target}.
+     */
+    public static MatrixF copyInto(ByteBuffer columnMajor, MatrixF target) {
+        return copyInto(asFloatBuffer(columnMajor), target);
+    }
+
+    /**
+     * Copies the column-major floats starting at the position of
+     * {@code columnMajor} into {@code target} (which determines the number of
+     * values read) and returns {@code target}.
+     */
+    public static MatrixF copyInto(FloatBuffer columnMajor, MatrixF target) {
+        float[] a = target.getArrayUnsafe();
+        int length = target.numRows() * target.numColumns();
+        checkRemaining(columnMajor.remaining(), length);
+        columnMajor.duplicate().get(a, 0, length);
+        return target;
+    }
+
+    private static DoubleBuffer asDoubleBuffer(ByteBuffer buffer) {
+        // the view inherits the byte order and starts at the position
+        return Objects.requireNonNull(buffer, "buffer").asDoubleBuffer();
+    }
+
+    private static FloatBuffer asFloatBuffer(ByteBuffer buffer) {
+        return Objects.requireNonNull(buffer, "buffer").asFloatBuffer();
+    }
+
+    private static void checkDimensions(int rows, int cols) {
+        if (rows < 1) {
+            throw new IllegalArgumentException("rows: " + rows);
+        }
+        if (cols < 1) {
+            throw new IllegalArgumentException("cols: " + cols);
+        }
+        if ((long) rows * cols > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("rows * cols: " + ((long) rows * cols));
+        }
+    }
+
+    private static void checkRemaining(int remaining, int length) {
+        if (remaining < length) {
+            throw new IllegalArgumentException("remaining < rows * cols: " + remaining + " < " + length);
+        }
+    }
+
+    private SnapshotBuffers() {
+        throw new AssertionError();
+    }
+}
@@ -0,0 +1,370 @@
+/*
+ * Copyright 2026 Stefan Zobel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package math.dmd;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import net.jamu.complex.Zd;
+import net.jamu.complex.ZdImpl;
+import net.jamu.matrix.ComplexMatrixD;
+import net.jamu.matrix.Matrices;
+import net.jamu.matrix.MatrixD;
+
+/**
+ * Full-field estimation and forecasting from a few sensor rows of a fitted
+ * DMD model.
+ * <p>
+ * The sensor rows are selected by column-pivoted QR of {@code Phi^H} (the
+ * pivots are the rows of {@code Phi} that are most linearly independent,
+ * Manohar, Brunton, Kutz, Brunton. Data-driven sparse sensor placement, IEEE
+ * Control Systems Magazine 38 [2018]). For more sensors than modes the
+ * pivoting is repeated on the remaining rows.
+ * <p>
+ * The pseudoinverse {@code Phi_s^+} ({@code r x p}) of the sensor rows
+ * {@code Phi_s} is factored once, so that each new measurement vector
+ * {@code y} yields the modal state {@code z = Phi_s^+ * y} in
+ * {@code O(p * r)} and the full field {@code Re(Phi * z)} in
+ * {@code O(n * r)}. Alternatively, the amplitudes {@code b} can be fitted
+ * against a whole sensor time series (see
+ * {@link #fitAmplitudes(MatrixD, double)}).
+ * <p>
+ * {@link #update(double[])}, {@link #advance()} and {@link #reconstruct()}
+ * must be called from a single thread.
+ */
+public class SparseSensorEstimator {
+
+    private final int n;
+    private final int rank;
+    private final double deltaT;
+    private final int[] sensors;
+    private final ComplexMatrixD phi;
+    private final ComplexMatrixD omega;
+    // the real and imaginary parts of Phi (n x r, column-major)
+    private final double[] phiRe;
+    private final double[] phiIm;
+    // Phi_s^+ (r x p, column-major)
+    private final double[] pinvRe;
+    private final double[] pinvIm;
+    // the discrete-time eigenvalues e^(omega * deltaT)
+    private final double[] lambdaRe;
+    private final double[] lambdaIm;
+    // the current modal state
+    private final double[] stateRe;
+    private final double[] stateIm;
+    // the reusable full-field buffer
+    private final double[] field;
+    private boolean hasState;
+    // lazily created real-valued representation used for prediction
+    private RealModalForm realForm;
+
+    /**
+     * Creates an estimator for {@code p} sensors selected by
+     * {@link #selectSensors(ComplexMatrixD, int)}.
+     */
+    public SparseSensorEstimator(ComplexMatrixD phi, ComplexMatrixD omega, double deltaT, int p) {
+        this(phi, omega, deltaT, selectSensors(phi, p));
+    }
+
+    /**
+     * Creates an estimator for the given sensor rows (at least as many as
+     * there are modes).
+     */
+    public SparseSensorEstimator(ComplexMatrixD phi, ComplexMatrixD omega, double deltaT, int[] sensors) {
+        if (deltaT <= 0.0) {
+            throw new IllegalArgumentException("deltaT: " + deltaT);
+        }
+        this.phi = Objects.requireNonNull(phi);
+        this.omega = Objects.requireNonNull(omega);
+        this.n = phi.numRows();
+        this.rank = phi.numColumns();
+        this.deltaT = deltaT;
+        this.sensors = checkSensors(sensors.clone(), n, rank);
+        int p = this.sensors.length;
+        this.phiRe = phi.toRealMatrix().getArrayUnsafe();
+        this.phiIm = ModeOps.imagPart(phi).getArrayUnsafe();
+        // step 1: prefactor the p x r least-squares problem
+        double[] pinv = sensorRows().pseudoInv().getArrayUnsafe();
+        this.pinvRe = new double[rank * p];
+        this.pinvIm = new double[rank * p];
+        for (int i = 0; i < pinvRe.length; ++i) {
+            pinvRe[i] = pinv[2 * i];
+            pinvIm[i] = pinv[2 * i + 1];
+        }
+        // step 2: the one-step propagator
+        this.lambdaRe = new double[rank];
+        this.lambdaIm = new double[rank];
+        for (int k = 0; k < rank; ++k) {
+            Zd w = omega.get(k, k);
+            double expRe = Math.exp(w.re() * deltaT);
+            lambdaRe[k] = expRe * Math.cos(w.im() * deltaT);
+            lambdaIm[k] = expRe * Math.sin(w.im() * deltaT);
+        }
+        this.stateRe = new double[rank];
+        this.stateIm = new double[rank];
+        this.field = new double[n];
+    }
+
+    /**
+     * Selects {@code p} rows of {@code phi} as sensor locations by
+     * column-pivoted QR of {@code phi^H} ({@code O(p * n * r)}).
+     *
+     * @param phi
+     *            the {@code n x r} DMD modes
+     * @param p
+     *            the number of sensors ({@code r <= p <= n})
+     * @return the selected row indices in the order of selection
+     */
+    public static int[] selectSensors(ComplexMatrixD phi, int p) {
+        int n = phi.numRows();
+        int r = phi.numColumns();
+        if (p < r || p > n) {
+            throw new IllegalArgumentException("p: " + p);
+        }
+        double[] a = phi.getArrayUnsafe();
+        int[] sensors = new int[p];
+        boolean[] selected = new boolean[n];
+        // residuals of the columns of Phi^H (row-wise, interleaved)
+        double[] res = new double[2 * r * n];
+        double[] norms = new double[n];
+        double[] q = new double[2 * r];
+        int count = 0;
+        while (count < p) {
+            // a new round of pivoting on the rows not yet selected
+            for (int i = 0; i < n; ++i) {
+                double sum = 0.0;
+                for (int k = 0; k < r; ++k) {
+                    double re = a[2 * (k * n + i)];
+                    double im = a[2 * (k * n + i) + 1];
+                    res[2 * (i * r + k)] = re;
+                    res[2 * (i * r + k) + 1] = -im;
+                    sum += re * re + im * im;
+                }
+                norms[i] = sum;
+            }
+            int steps = Math.min(r, p - count);
+            for (int step = 0; step < steps; ++step) {
+                int pivot = -1;
+                double max = 0.0;
+                for (int i = 0; i < n; ++i) {
+                    if (!selected[i] && (pivot < 0 || norms[i] > max)) {
+                        pivot = i;
+                        max = norms[i];
+                    }
+                }
+                selected[pivot] = true;
+                sensors[count++] = pivot;
+                if (!(max > 0.0)) {
+                    continue;
+                }
+                double scale = 1.0 / Math.sqrt(max);
+                for (int k = 0; k < 2 * r; ++k) {
+                    q[k] = scale * res[2 * pivot * r + k];
+                }
+                // remove the direction q from the remaining columns
+                for (int i = 0; i < n; ++i) {
+                    if (selected[i]) {
+                        continue;
+                    }
+                    int off = 2 * i * r;
+                    double cRe = 0.0;
+                    double cIm = 0.0;
+                    for (int k = 0; k < r; ++k) {
+                        // q^H * res_i
+                        double qRe = q[2 * k];
+                        double qIm = q[2 * k + 1];
+                        double xRe = res[off + 2 * k];
+                        double xIm = res[off + 2 * k + 1];
+                        cRe += qRe * xRe + qIm * xIm;
+                        cIm += qRe * xIm - qIm * xRe;
+                    }
+                    double sum = 0.0;
+                    for (int k = 0; k < r; ++k) {
+                        double qRe = q[2 * k];
+                        double qIm = q[2 * k + 1];
+                        double xRe = res[off + 2 * k] - (cRe * qRe - cIm * qIm);
+                        double xIm = res[off + 2 * k + 1] - (cRe * qIm + cIm * qRe);
+                        res[off + 2 * k] = xRe;
+                        res[off + 2 * k + 1] = xIm;
+                        sum += xRe * xRe + xIm * xIm;
+                    }
+                    norms[i] = sum;
+                }
+            }
+        }
+        return sensors;
+    }
+
+    /**
+     * Estimates the modal state from the measurements at the sensor rows
+     * ({@code O(p * r)}).
+     *
+     * @param measurements
+     *            the values at the sensor rows (in the order of
+     *            {@link #getSensors()})
+     */
+    public void update(double[] measurements) {
+        int p = sensors.length;
+        if (measurements.length != p) {
+            throw new IllegalArgumentException("measurements.length != p: " + measurements.length + " != " + p);
+        }
+        double[] zRe = stateRe;
+        double[] zIm = stateIm;
+        for (int k = 0; k < rank; ++k) {
+            zRe[k] = 0.0;
+            zIm[k] = 0.0;
+        }
+        for (int s = 0; s < p; ++s) {
+            double y = measurements[s];
+            int offset = s * rank;
+            for (int k = 0; k < rank; ++k) {
+                zRe[k] += pinvRe[offset + k] * y;
+                zIm[k] += pinvIm[offset + k] * y;
+            }
+        }
+        hasState = true;
+    }
+
+    /**
+     * Advances the modal state by one time step without a measurement (e.g.,
+     * to bridge a missing sample).
+     */
+    public void advance() {
+        checkState();
+        for (int k = 0; k < rank; ++k) {
+            double sRe = stateRe[k];
+            double sIm = stateIm[k];
+            stateRe[k] = lambdaRe[k] * sRe - lambdaIm[k] * sIm;
+            stateIm[k] = lambdaRe[k] * sIm + lambdaIm[k] * sRe;
+        }
+    }
+
+    /**
+     * Returns the full field {@code Re(Phi * z)} for the current modal state
+     * ({@code O(n * r)}). The returned buffer is reused.
+     *
+     * @return the reconstructed field (length {@code n})
+     */
+    public double[] reconstruct() {
+        checkState();
+        VectorOps ops = VectorOps.INSTANCE;
+        double[] field = this.field;
+        Arrays.fill(field, 0.0);
+        for (int k = 0; k < rank; ++k) {
+            ops.addRealPartOfProduct(phiRe, phiIm, k * n, n, stateRe[k], stateIm[k], field);
+        }
+        return field;
+    }
+
+    /**
+     * Returns a lazy full-field forecast that starts one time step after the
+     * last measurement.
+     */
+    public ForecastStream forecastStream() {
+        return new ForecastStream(phi, omega, getModalState(), deltaT, deltaT);
+    }
+
+    /**
+     * Fits the amplitudes {@code b} against a time series of sensor
+     * measurements ({@code p x m}, the rows in the order of
+     * {@link #getSensors()}) whose first column has been sampled at time
+     * {@code tStart}.
+     *
+     * @return the {@code r x 1} amplitude vector {@code b}
+     */
+    public ComplexMatrixD fitAmplitudes(MatrixD measurements, double tStart) {
+        int p = sensors.length;
+        if (measurements.numRows() != p) {
+            throw new IllegalArgumentException(
+                    "measurements.numRows() != p: " + measurements.numRows() + " != " + p);
+        }
+        return new OptimalAmplitudes(sensorRows(), omega, measurements, deltaT).fit(tStart);
+    }
+
+    /**
+     * Predicts the full field for the amplitudes {@code b} (e.g., from
+     * {@link #fitAmplitudes(MatrixD, double)}).
+     */
+    public MatrixD predict(ComplexMatrixD b, double timeFrom, int numberOfPredictions) {
+        if (numberOfPredictions < 1) {
+            throw new IllegalArgumentException("numberOfPredictions < 1: " + numberOfPredictions);
+        }
+        if (realForm == null) {
+            Zd[] eigs = new Zd[rank];
+            for (int k = 0; k < rank; ++k) {
+                eigs[k] = new ZdImpl(lambdaRe[k], lambdaIm[k]);
+            }
+            realForm = RealModalForm.create(phi, eigs, omega, deltaT);
+        }
+        return realForm.predict(b, timeFrom, numberOfPredictions);
+    }
+
+    /**
+     * Returns the current modal state as a {@code r x 1} vector.
+     */
+    public ComplexMatrixD getModalState() {
+        checkState();
+        ComplexMatrixD z = Matrices.createComplexD(rank, 1);
+        for (int k = 0; k < rank; ++k) {
+            z.set(k, 0, stateRe[k], stateIm[k]);
+        }
+        return z;
+    }
+
+    public int[] getSensors() {
+        return sensors.clone();
+    }
+
+    public int getRank() {
+        return rank;
+    }
+
+    public double getDeltaT() {
+        return deltaT;
+    }
+
+    // Phi_s (p x r)
+    private ComplexMatrixD sensorRows() {
+        ComplexMatrixD phiS = Matrices.createComplexD(sensors.length, rank);
+        for (int s = 0; s < sensors.length; ++s) {
+            for (int k = 0; k < rank; ++k) {
+                int idx = k * n + sensors[s];
+                phiS.set(s, k, phiRe[idx], phiIm[idx]);
+            }
+        }
+        return phiS;
+    }
+
+    private void checkState() {
+        if (!hasState) {
+            throw new IllegalStateException("update() must be called first");
+        }
+    }
+
+    private static int[] checkSensors(int[] sensors, int n, int rank) {
+        if (sensors.length < rank || sensors.length > n) {
+            throw new IllegalArgumentException("sensors.length: " + sensors.length);
+        }
+        boolean[] seen = new boolean[n];
+        for (int s : sensors) {
+            if (s < 0 || s >= n || seen[s]) {
+                throw new IllegalArgumentException("sensor: " + s);
+            }
+            seen[s] = true;
+        }
+        return sensors;
+    }
+}
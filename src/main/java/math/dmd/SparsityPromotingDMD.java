@@ -0,0 +1,398 @@
+/*
+ * Copyright 2026 Stefan Zobel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package math.dmd;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import net.jamu.matrix.ComplexMatrixD;
+import net.jamu.matrix.Matrices;
+import net.jamu.matrix.MatrixD;
+
+/**
+ * Sparsity-promoting DMD (Jovanovic, Schmid, Nichols. Sparsity-promoting
+ * dynamic mode decomposition, Physics of Fluids 26 [2014]).
+ * <p>
+ * The amplitudes {@code b} are found by solving
+ *
+ * <pre>
+ * min J(b) + gamma * sum_i |b_i|
+ * J(b) = b^H * P * b - q^H * b - b^H * q + ||X||_F^2
+ * </pre>
+ *
+ * with ADMM followed by a polishing step that refits the amplitudes of the
+ * retained modes. {@code P} and {@code q} are the {@code r x r} and
+ * {@code r x 1} quantities of the {@link OptimalAmplitudes} fit, so each ADMM
+ * iteration is {@code O(r^2)} and completely independent of the spatial
+ * dimension {@code n}. The matrix {@code (P + rho/2 * I)^-1} is computed once
+ * and shared by all iterations and all values of {@code gamma} in a sweep.
+ */
+public class SparsityPromotingDMD {
+
+    private static final double DEFAULT_RHO = 1.0;
+    private static final int DEFAULT_MAX_ITERATIONS = 10_000;
+    private static final double DEFAULT_EPS_ABS = 1.0e-6;
+    private static final double DEFAULT_EPS_REL = 1.0e-4;
+
+    private final ComplexMatrixD phi;
+    private final ComplexMatrixD omega;
+    private final double deltaT;
+    private final int rank;
+    private final double dataNormSquared;
+    // P and q of the optimal amplitudes system (interleaved re / im)
+    private final double[] P;
+    private final double[] q;
+    private final ComplexMatrixD Pmat;
+    private final ComplexMatrixD qvec;
+
+    private double rho = DEFAULT_RHO;
+    private int maxIterations = DEFAULT_MAX_ITERATIONS;
+    private double epsAbs = DEFAULT_EPS_ABS;
+    private double epsRel = DEFAULT_EPS_REL;
+    // lazily computed (P + rho/2 * I)^-1 (interleaved re / im)
+    private double[] K;
+
+    public SparsityPromotingDMD(ExactDMD dmd) {
+        this(dmd.getPhi(), dmd.getOmega(), dmd.getDeltaT(), dmd.getOptimalAmplitudes(), 0.0);
+    }
+
+    public SparsityPromotingDMD(ExactDMDV2 dmd) {
+        this(dmd.getPhi(), dmd.getOmega(), dmd.getDeltaT(), dmd.getOptimalAmplitudes(), dmd.getTStart());
+    }
+
+    public SparsityPromotingDMD(ComplexMatrixD phi, ComplexMatrixD omega, double deltaT,
+            OptimalAmplitudes amplitudes, double tStart) {
+        if (deltaT <= 0.0) {
+            throw new IllegalArgumentException("deltaT: " + deltaT);
+        }
+        this.phi = Objects.requireNonNull(phi);
+        this.omega = Objects.requireNonNull(omega);
+        this.deltaT = deltaT;
+        this.rank = Objects.requireNonNull(amplitudes).getRank();
+        this.dataNormSquared = amplitudes.getDataNormSquared();
+        ComplexMatrixD[] Pq = amplitudes.normalEquations(tStart);
+        this.Pmat = Pq[0];
+        this.qvec = Pq[1];
+        this.P = Pmat.getArrayUnsafe();
+        this.q = qvec.getArrayUnsafe();
+    }
+
+    public SparsityPromotingDMD setRho(double rho) {
+        if (rho <= 0.0) {
+            throw new IllegalArgumentException("rho: " + rho);
+        }
+        if (rho != this.rho) {
+            this.rho = rho;
+            this.K = null;
+        }
+        return this;
+    }
+
+    public SparsityPromotingDMD setMaxIterations(int maxIterations) {
+        if (maxIterations < 1) {
+            throw new IllegalArgumentException("maxIterations: " + maxIterations);
+        }
+        this.maxIterations = maxIterations;
+        return this;
+    }
+
+    public SparsityPromotingDMD setTolerances(double epsAbs, double epsRel) {
+        if (epsAbs <= 0.0 || epsRel <= 0.0) {
+            throw new IllegalArgumentException("epsAbs: " + epsAbs + ", epsRel: " + epsRel);
+        }
+        this.epsAbs = epsAbs;
+        this.epsRel = epsRel;
+        return this;
+    }
+
+    /**
+     * Computes the sparse (and polished) amplitudes for a single value of the
+     * regularization parameter {@code gamma}.
+     *
+     * @param gamma
+     *            the sparsity-promoting regularization parameter
+     * @return the sparse DMD for {@code gamma}
+     */
+    public Result compute(double gamma) {
+        if (gamma < 0.0) {
+            throw new IllegalArgumentException("gamma: " + gamma);
+        }
+        return admm(gamma, new double[2 * rank], new double[2 * rank]);
+    }
+
+    /**
+     * Computes the sparse (and polished) amplitudes for a sweep over the
+     * regularization parameter. Each ADMM run is warm-started from the
+     * solution for the previous {@code gamma}, so the values should be sorted
+     * in increasing order.
+     *
+     * @param gammas
+     *            the values of the regularization parameter
+     * @return the sparse DMD results in the order of {@code gammas}
+     */
+    public List<Result> sweep(double[] gammas) {
+        ArrayList<Result> results = new ArrayList<>(gammas.length);
+        double[] beta = new double[2 * rank];
+        double[] lambda = new double[2 * rank];
+        for (double gamma : gammas) {
+            if (gamma < 0.0) {
+                throw new IllegalArgumentException("gamma: " + gamma);
+            }
+            results.add(admm(gamma, beta, lambda));
+        }
+        return results;
+    }
+
+    /**
+     * Creates a logarithmically spaced grid of {@code num} values of the
+     * regularization parameter between {@code gammaMin} and
+     * {@code gammaMax}.
+     */
+    public static double[] logspace(double gammaMin, double gammaMax, int num) {
+        if (gammaMin <= 0.0 || gammaMax < gammaMin || num < 1) {
+            throw new IllegalArgumentException(
+                    "gammaMin: " + gammaMin + ", gammaMax: " + gammaMax + ", num: " + num);
+        }
+        double[] gammas = new double[num];
+        double logMin = Math.log10(gammaMin);
+        double step = (num == 1) ? 0.0 : (Math.log10(gammaMax) - logMin) / (num - 1);
+        for (int i = 0; i < num; ++i) {
+            gammas[i] = Math.pow(10.0, logMin + i * step);
+        }
+        return gammas;
+    }
+
+    // beta and lambda are the warm-start values and get overwritten
+    private Result admm(double gamma, double[] beta, double[] lambda) {
+        if (K == null) {
+            ComplexMatrixD A = Pmat.copy();
+            for (int i = 0; i < rank; ++i) {
+                A.add(i, i, rho / 2.0, 0.0);
+            }
+            K = A.inverse().getArrayUnsafe();
+        }
+        int len = 2 * rank;
+        double[] alpha = new double[len];
+        double[] rhs = new double[len];
+        double[] betaPrev = new double[len];
+        double kappa = gamma / rho;
+        double sqrtR = Math.sqrt(rank);
+        int iter = 0;
+        while (iter++ < maxIterations) {
+            // alpha = (P + rho/2 * I)^-1 * (q + rho/2 * (beta - lambda / rho))
+            for (int i = 0; i < len; ++i) {
+                rhs[i] = q[i] + (rho / 2.0) * (beta[i] - lambda[i] / rho);
+            }
+            matVec(K, rank, rhs, alpha);
+            // beta = soft-thresholding of alpha + lambda / rho
+            System.arraycopy(beta, 0, betaPrev, 0, len);
+            for (int i = 0; i < rank; ++i) {
+                double vRe = alpha[2 * i] + lambda[2 * i] / rho;
+                double vIm = alpha[2 * i + 1] + lambda[2 * i + 1] / rho;
+                double abs = Math.hypot(vRe, vIm);
+                double scale = (abs > kappa) ? (1.0 - kappa / abs) : 0.0;
+                beta[2 * i] = scale * vRe;
+                beta[2 * i + 1] = scale * vIm;
+            }
+            // lambda = lambda + rho * (alpha - beta)
+            double primal = 0.0;
+            double dual = 0.0;
+            for (int i = 0; i < len; ++i) {
+                double diff = alpha[i] - beta[i];
+                lambda[i] += rho * diff;
+                primal += diff * diff;
+                double d = rho * (beta[i] - betaPrev[i]);
+                dual += d * d;
+            }
+            double epsPrimal = sqrtR * epsAbs + epsRel * Math.max(norm(alpha), norm(beta));
+            double epsDual = sqrtR * epsAbs + epsRel * norm(lambda);
+            if (Math.sqrt(primal) < epsPrimal && Math.sqrt(dual) < epsDual) {
+                break;
+            }
+        }
+        return polish(gamma, beta, Math.min(iter, maxIterations));
+    }
+
+    // refit the amplitudes of the retained modes (optimal amplitudes with the
+    // constraint that all other amplitudes are zero)
+    private Result polish(double gamma, double[] beta, int iterations) {
+        int[] support = new int[rank];
+        int nnz = 0;
+        for (int i = 0; i < rank; ++i) {
+            if (beta[2 * i] != 0.0 || beta[2 * i + 1] != 0.0) {
+                support[nnz++] = i;
+            }
+        }
+        ComplexMatrixD b = Matrices.createComplexD(rank, 1);
+        if (nnz > 0) {
+            ComplexMatrixD Pss = Matrices.createComplexD(nnz, nnz);
+            ComplexMatrixD qs = Matrices.createComplexD(nnz, 1);
+            for (int i = 0; i < nnz; ++i) {
+                int row = support[i];
+                qs.set(i, 0, q[2 * row], q[2 * row + 1]);
+                for (int j = 0; j < nnz; ++j) {
+                    int idx = 2 * (support[j] * rank + row);
+                    Pss.set(i, j, P[idx], P[idx + 1]);
+                }
+            }
+            ComplexMatrixD bs = Pss.solve(qs, Matrices.createComplexD(nnz, 1));
+            for (int i = 0; i < nnz; ++i) {
+                b.set(support[i], 0, bs.get(i, 0).re(), bs.get(i, 0).im());
+            }
+        }
+        int[] retained = new int[nnz];
+        System.arraycopy(support, 0, retained, 0, nnz);
+        return new Result(gamma, b, retained, performanceLoss(b.getArrayUnsafe()), iterations);
+    }
+
+    // sqrt(J(b) / ||X||_F^2)
+    private double performanceLoss(double[] b) {
+        double[] Pb = new double[2 * rank];
+        matVec(P, rank, b, Pb);
+        // b^H * P * b is real for Hermitian P
+        double bPb = 0.0;
+        double qb = 0.0;
+        for (int i = 0; i < rank; ++i) {
+            bPb += b[2 * i] * Pb[2 * i] + b[2 * i + 1] * Pb[2 * i + 1];
+            // Re(q^H * b)
+            qb += q[2 * i] * b[2 * i] + q[2 * i + 1] * b[2 * i + 1];
+        }
+        double J = bPb - 2.0 * qb + dataNormSquared;
+        return Math.sqrt(Math.max(J, 0.0) / dataNormSquared);
+    }
+
+    // y = A * x for a square complex column-major matrix A (interleaved)
+    private static void matVec(double[] A, int dim, double[] x, double[] y) {
+        for (int i = 0; i < dim; ++i) {
+            double re = 0.0;
+            double im = 0.0;
+            for (int j = 0; j < dim; ++j) {
+                int idx = 2 * (j * dim + i);
+                double aRe = A[idx];
+                double aIm = A[idx + 1];
+                double xRe = x[2 * j];
+                double xIm = x[2 * j + 1];
+                re += aRe * xRe - aIm * xIm;
+                im += aRe * xIm + aIm * xRe;
+            }
+            y[2 * i] = re;
+            y[2 * i + 1] = im;
+        }
+    }
+
+    private static double norm(double[] x) {
+        double sum = 0.0;
+        for (int i = 0; i < x.length; ++i) {
+            sum += x[i] * x[i];
+        }
+        return Math.sqrt(sum);
+    }
+
+    /**
+     * The sparse DMD for one value of the regularization parameter.
+     */
+    public final class Result {
+
+        private final double gamma;
+        private final ComplexMatrixD b;
+        private final int[] retained;
+        private final double performanceLoss;
+        private final int iterations;
+        // lazily created modes / eigenvalues / amplitudes of the retained modes
+        private ComplexMatrixD phiS;
+        private ComplexMatrixD omegaS;
+        private ComplexMatrixD bS;
+
+        private Result(double gamma, ComplexMatrixD b, int[] retained, double performanceLoss, int iterations) {
+            this.gamma = gamma;
+            this.b = b;
+            this.retained = retained;
+            this.performanceLoss = performanceLoss;
+            this.iterations = iterations;
+        }
+
+        public double getGamma() {
+            return gamma;
+        }
+
+        /**
+         * Returns the polished {@code r x 1} amplitude vector (the amplitudes
+         * of the dropped modes are zero).
+         */
+        public ComplexMatrixD getConstantVector() {
+            return b;
+        }
+
+        /**
+         * Returns the (0-based) indices of the retained modes.
+         */
+        public int[] getRetainedModes() {
+            return retained.clone();
+        }
+
+        public int getNumberOfModes() {
+            return retained.length;
+        }
+
+        /**
+         * Returns the relative residual {@code ||X - Phi * diag(b) * V||_F /
+         * ||X||_F} of the polished amplitudes.
+         */
+        public double getPerformanceLoss() {
+            return performanceLoss;
+        }
+
+        public int getIterations() {
+            return iterations;
+        }
+
+        /**
+         * Spatio-temporal prediction that only uses the retained modes.
+         *
+         * @param timeFrom
+         *            the time of the first prediction
+         * @param numberOfPredictions
+         *            the number of predicted snapshots
+         * @return the {@code n x numberOfPredictions} prediction
+         */
+        public MatrixD predict(double timeFrom, int numberOfPredictions) {
+            if (numberOfPredictions < 1) {
+                throw new IllegalArgumentException("numberOfPredictions < 1: " + numberOfPredictions);
+            }
+            int k = retained.length;
+            if (k == 0) {
+                return Matrices.createD(phi.numRows(), numberOfPredictions);
+            }
+            if (phiS == null) {
+                ComplexMatrixD phi_ = Matrices.createComplexD(phi.numRows(), k);
+                ComplexMatrixD omega_ = Matrices.createComplexD(k, k);
+                ComplexMatrixD b_ = Matrices.createComplexD(k, 1);
+                for (int i = 0; i < k; ++i) {
+                    int mode = retained[i];
+                    phi_.setSubmatrixInplace(0, i, phi, 0, mode, phi.numRows() - 1, mode);
+                    omega_.set(i, i, omega.get(mode, mode).re(), omega.get(mode, mode).im());
+                    b_.set(i, 0, b.get(mode, 0).re(), b.get(mode, 0).im());
+                }
+                phiS = phi_;
+                omegaS = omega_;
+                bS = b_;
+            }
+            ComplexMatrixD timeDynamics = TimeDynamics.create(omegaS, k, bS, timeFrom, numberOfPredictions, deltaT);
+            return phiS.times(timeDynamics).toRealMatrix();
+        }
+    }
+}
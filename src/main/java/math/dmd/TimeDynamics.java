@@ -0,0 +1,53 @@
+/*
+ * Copyright 2026 Stefan Zobel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package math.dmd;
+
+import net.jamu.complex.ZdImpl;
+import net.jamu.matrix.ComplexMatrixD;
+import net.jamu.matrix.Matrices;
+
+/**
+ * The time dynamics matrix {@code b * e^(omega * t)} shared by the DMD
+ * variants that don't carry their own copy.
+ */
+/* package */ final class TimeDynamics {
+
+    static ComplexMatrixD create(ComplexMatrixD omega, int rank, ComplexMatrixD b, double tStart, int tNum,
+            double dt) {
+        // time dynamics matrix (b * e^omega*t)
+        ComplexMatrixD timeDynamics = Matrices.createComplexD(rank, tNum);
+        double[] omegaRe = new double[rank];
+        double[] omegaIm = new double[rank];
+        double[] bRe = new double[rank];
+        double[] bIm = new double[rank];
+        ZdImpl z = new ZdImpl(0.0);
+        for (int k = 0; k < rank; ++k) {
+            omega.get(k, k, z);
+            omegaRe[k] = z.re();
+            omegaIm[k] = z.im();
+            b.get(k, 0, z);
+            bRe[k] = z.re();
+            bIm[k] = z.im();
+        }
+        VectorOps.INSTANCE.timeDynamics(omegaRe, omegaIm, bRe, bIm, tStart, dt, tNum,
+                timeDynamics.getArrayUnsafe());
+        return timeDynamics;
+    }
+
+    private TimeDynamics() {
+        throw new AssertionError();
+    }
+}
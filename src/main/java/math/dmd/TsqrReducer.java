@@ -0,0 +1,93 @@
+/*
+ * Copyright 2026 Stefan Zobel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package math.dmd;
+
+import net.jamu.matrix.Matrices;
+import net.jamu.matrix.MatrixD;
+
+/**
+ * One combine step of a tall-skinny QR (TSQR) reduction tree: given the
+ * {@code R} factors of two row blocks it returns the {@code R} factor of the
+ * stacked blocks. The {@code Q} factors are never needed by
+ * {@link ShardedDMD}.
+ * <p>
+ * Implementations must be thread-safe since independent nodes of the
+ * reduction tree are combined concurrently. A multi-JVM setup can implement
+ * this interface by shipping the two (small) {@code R} factors to another
+ * process, e.g. over a local socket, and returning its answer.
+ */
+public interface TsqrReducer {
+
+    /**
+     * Returns the upper triangular {@code R} factor of the QR decomposition
+     * of {@code [upper; lower]}.
+     *
+     * @param upper
+     *            the {@code R} factor of the first row block
+     * @param lower
+     *            the {@code R} factor of the second row block
+     * @return the {@code R} factor of the stacked row blocks (with
+     *         {@code min(upper.numRows() + lower.numRows(), upper.numColumns())}
+     *         rows)
+     */
+    MatrixD combine(MatrixD upper, MatrixD lower);
+
+    /**
+     * Returns the in-process reducer.
+     *
+     * @return a reducer that computes the QR decomposition in this JVM
+     */
+    static TsqrReducer local() {
+        return (upper, lower) -> {
+            if (upper.numColumns() != lower.numColumns()) {
+                throw new IllegalArgumentException(
+                        "upper.numColumns() != lower.numColumns(): " + upper.numColumns() + " != "
+                                + lower.numColumns());
+            }
+            int cols = upper.numColumns();
+            MatrixD stacked = Matrices.createD(upper.numRows() + lower.numRows(), cols);
+            stacked.setSubmatrixInplace(0, 0, upper, 0, 0, upper.numRows() - 1, cols - 1);
+            stacked.setSubmatrixInplace(upper.numRows(), 0, lower, 0, 0, lower.numRows() - 1, cols - 1);
+            return rFactor(stacked);
+        };
+    }
+
+    /**
+     * Returns the ({@code min(A.numRows(), A.numColumns())} rows) upper
+     * triangular (trapezoidal, if {@code A} has fewer rows than columns)
+     * {@code R} factor of the QR decomposition of {@code A}.
+     *
+     * @param A
+     *            the matrix to decompose
+     * @return the {@code R} factor of {@code A}
+     */
+    static MatrixD rFactor(MatrixD A) {
+        int cols = A.numColumns();
+        int rows = Math.min(A.numRows(), cols);
+        if (A.numRows() < cols) {
+            // the QR needs at least as many rows as columns: zero rows don't
+            // change A^T * A and the rows of R below A.numRows() stay zero
+            MatrixD padded = Matrices.createD(cols, cols);
+            padded.setSubmatrixInplace(0, 0, A, A.startRow(), A.startCol(), A.endRow(), A.endCol());
+            A = padded;
+        }
+        MatrixD R = A.qrd().getR();
+        if (rows == R.numRows()) {
+            return R;
+        }
+        return R.selectSubmatrix(0, 0, rows - 1, R.numColumns() - 1);
+    }
+}
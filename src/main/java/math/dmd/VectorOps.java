@@ -0,0 +1,128 @@
+/*
+ * Copyright 2026 Stefan Zobel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package math.dmd;
+
+/**
+ * The hot inner loops of time-dynamics generation, mode x dynamics
+ * multiplication and residual computation.
+ * <p>
+ * The implementation is selected once at class-load time: on Java 17+
+ * runtimes that have the {@code jdk.incubator.vector} module enabled
+ * ({@code --add-modules jdk.incubator.vector}) the SIMD implementation from
+ * the {@code META-INF/versions/17} part of the multi-release JAR is used,
+ * otherwise (and on Java 8) the scalar loops in this class. The system
+ * property {@code math.dmd.vector=false} forces the scalar loops.
+ */
+/* package */ class VectorOps {
+
+    static final VectorOps INSTANCE = select();
+
+    /**
+     * Computes the interleaved (re, im), column-major {@code r x tNum} time
+     * dynamics matrix {@code out(k, j) = b_k * e^(omega_k * (tStart + j * dt))}.
+     */
+    void timeDynamics(double[] omegaRe, double[] omegaIm, double[] bRe, double[] bIm, double tStart, double dt,
+            int tNum, double[] out) {
+        int r = omegaRe.length;
+        for (int j = 0; j < tNum; ++j) {
+            double t = tStart + j * dt;
+            int idx = 2 * j * r;
+            for (int k = 0; k < r; ++k) {
+                double expRe = Math.exp(omegaRe[k] * t);
+                double eRe = expRe * Math.cos(omegaIm[k] * t);
+                double eIm = expRe * Math.sin(omegaIm[k] * t);
+                out[idx++] = bRe[k] * eRe - bIm[k] * eIm;
+                out[idx++] = bIm[k] * eRe + bRe[k] * eIm;
+            }
+        }
+    }
+
+    /**
+     * {@code out[i] += Re((phiRe[off + i] + i * phiIm[off + i]) * (sRe + i * sIm))}
+     * for {@code i < n}, i.e. the real part of a mode times its modal state.
+     */
+    void addRealPartOfProduct(double[] phiRe, double[] phiIm, int off, int n, double sRe, double sIm,
+            double[] out) {
+        for (int i = 0; i < n; ++i) {
+            out[i] += phiRe[off + i] * sRe - phiIm[off + i] * sIm;
+        }
+    }
+
+    /**
+     * The inner product of {@code a[aOff, aOff + n)} and {@code b[bOff, bOff + n)}.
+     */
+    double dot(double[] a, int aOff, double[] b, int bOff, int n) {
+        double sum = 0.0;
+        for (int i = 0; i < n; ++i) {
+            sum += a[aOff + i] * b[bOff + i];
+        }
+        return sum;
+    }
+
+    /**
+     * {@code out = A^T * x} for a column-major {@code n x p} matrix {@code A}.
+     * Four columns are processed per pass over {@code x} so that the sums
+     * don't wait on each other.
+     */
+    void transposedTimes(double[] a, int n, int p, double[] x, double[] out) {
+        int k = 0;
+        for (; k + 3 < p; k += 4) {
+            int o0 = k * n;
+            int o1 = o0 + n;
+            int o2 = o1 + n;
+            int o3 = o2 + n;
+            double s0 = 0.0;
+            double s1 = 0.0;
+            double s2 = 0.0;
+            double s3 = 0.0;
+            for (int i = 0; i < n; ++i) {
+                double xi = x[i];
+                s0 += a[o0 + i] * xi;
+                s1 += a[o1 + i] * xi;
+                s2 += a[o2 + i] * xi;
+                s3 += a[o3 + i] * xi;
+            }
+            out[k] = s0;
+            out[k + 1] = s1;
+            out[k + 2] = s2;
+            out[k + 3] = s3;
+        }
+        for (; k < p; ++k) {
+            out[k] = dot(a, k * n, x, 0, n);
+        }
+    }
+
+    /**
+     * Returns a short name of the implementation.
+     */
+    String name() {
+        return "scalar";
+    }
+
+    private static VectorOps select() {
+        if (!"false".equalsIgnoreCase(System.getProperty("math.dmd.vector"))) {
+            try {
+                // only present in META-INF/versions/17 of the JAR; fails on
+                // Java 8 or if jdk.incubator.vector hasn't been added
+                Class<?> clazz = Class.forName("math.dmd.SimdVectorOps");
+                return (VectorOps) clazz.getDeclaredConstructor().newInstance();
+            } catch (Throwable ignore) {
+                // fall through to the scalar loops
+            }
+        }
+        return new VectorOps();
+    }
+}
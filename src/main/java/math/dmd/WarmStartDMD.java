@@ -0,0 +1,520 @@
+/*
+ * Copyright 2026 Stefan Zobel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package math.dmd;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import net.jamu.complex.Zd;
+import net.jamu.matrix.ComplexMatrixD;
+import net.jamu.matrix.EvdComplexD;
+import net.jamu.matrix.Matrices;
+import net.jamu.matrix.MatrixD;
+import net.jamu.matrix.SvdD;
+import net.jamu.matrix.SvdEconD;
+
+/**
+ * Exact DMD for periodic refits on slowly changing data.
+ * <p>
+ * Without a previous model (or if the previous model doesn't fit the shape
+ * of the new data) the SVD of the first snapshot matrix {@code X1} is the
+ * usual full {@code svdEcon()}. With a previous model set via
+ * {@link #setWarmStart(WarmStartDMD)} its left singular vectors {@code Ur}
+ * are the starting block of a subspace iteration
+ * {@code Q = orth(X1 * X1^T * Q)} with a Rayleigh-Ritz step
+ * {@code svd(Q^T * X1)} per iteration. When the data changed only slightly
+ * the Ritz values converge in very few iterations of {@code O(n * m * r)}
+ * each. If they haven't converged after {@code maxIterations} iterations the
+ * fit falls back to the full {@code svdEcon()} (see {@link #isConverged()}).
+ * Only a previous {@code WarmStartDMD} can seed a fit, since the other DMD
+ * variants don't keep their {@code Ur} and mode ids.
+ * <p>
+ * The modes of a warm-started fit are matched to the modes of the previous
+ * model (greedily by the normalized overlap {@code |phi_new^H * phi_old|};
+ * the eigenvalue distance only decides between equal overlaps). Matched modes
+ * inherit the mode id
+ * of their predecessor and are put in the order of the previous model,
+ * unmatched modes get fresh ids and are appended. Downstream consumers can
+ * therefore track a mode across refits by its id (see {@link #getModeIds()}).
+ */
+public class WarmStartDMD {
+
+    private static final int DEFAULT_MAX_ITERATIONS = 20;
+    private static final double DEFAULT_TOLERANCE = 1.0e-10;
+    private static final double DEFAULT_MATCH_THRESHOLD = 0.9;
+    private static final int OVERSAMPLING = 5;
+    // overlaps that agree in this many decimal places count as equal
+    private static final double OVERLAP_QUANTUM = 1.0e12;
+
+    private final MatrixD data;
+    private final double deltaT;
+
+    // the rank can either be computed or set via the constructor
+    private int rank = 0;
+    // the previous model (dropped after compute())
+    private WarmStartDMD previous;
+    private int maxIterations = DEFAULT_MAX_ITERATIONS;
+    private double tolerance = DEFAULT_TOLERANCE;
+    private double matchThreshold = DEFAULT_MATCH_THRESHOLD;
+    private long seed = 0x5DEECE66DL;
+
+    private boolean warmStarted;
+    private boolean converged;
+    private int iterations;
+    // the truncated SVD of X1
+    private MatrixD Ur;
+    private double[] S;
+    private MatrixD Vr;
+    // eigenvalues in the subspace
+    private Zd[] eigenValues;
+    // modes of the fitted linear system in the high-dimensional space
+    private ComplexMatrixD phi;
+    // omega contains the eigenvalues of the fitted linear system
+    private ComplexMatrixD omega;
+    // constant vector evaluated via the initial condition at time 0
+    private ComplexMatrixD b;
+    // the stable ids of the modes and the index of their predecessor
+    private long[] modeIds;
+    private int[] previousIndex;
+    private long nextModeId;
+    // lazily created real-valued representation used for prediction
+    private RealModalForm realForm;
+
+    public WarmStartDMD(MatrixD data, double deltaT) {
+        if (deltaT <= 0.0) {
+            throw new IllegalArgumentException("deltaT: " + deltaT);
+        }
+        this.data = Objects.requireNonNull(data);
+        if (data.numColumns() < 2) {
+            throw new IllegalArgumentException("need at least 2 snapshots: " + data.numColumns());
+        }
+        this.deltaT = deltaT;
+    }
+
+    public WarmStartDMD(MatrixD data, double deltaT, int rank) {
+        this(data, deltaT);
+        if (rank < 1) {
+            throw new IllegalArgumentException("rank: " + rank);
+        }
+        this.rank = rank;
+    }
+
+    /**
+     * Sets the previously fitted model whose subspace and modes seed this fit
+     * (or {@code null} for a cold start). If no rank has been set the rank of
+     * the previous model is used. Must be called before {@link #compute()}.
+     * A fit of another DMD variant (e.g. {@link ExactDMD}) can't be used as a
+     * seed; its first refit has to be a cold {@code WarmStartDMD} fit.
+     *
+     * @param previous
+     *            a computed model or {@code null}
+     * @return this DMD
+     */
+    public WarmStartDMD setWarmStart(WarmStartDMD previous) {
+        if (previous != null && previous.phi == null) {
+            throw new IllegalArgumentException("previous model hasn't been computed");
+        }
+        this.previous = previous;
+        return this;
+    }
+
+    public WarmStartDMD setMaxIterations(int maxIterations) {
+        if (maxIterations < 1) {
+            throw new IllegalArgumentException("maxIterations: " + maxIterations);
+        }
+        this.maxIterations = maxIterations;
+        return this;
+    }
+
+    /**
+     * Sets the tolerance for the change of the Ritz values (relative to the
+     * largest singular value) between two subspace iterations.
+     */
+    public WarmStartDMD setTolerance(double tolerance) {
+        if (!(tolerance > 0.0)) {
+            throw new IllegalArgumentException("tolerance: " + tolerance);
+        }
+        this.tolerance = tolerance;
+        return this;
+    }
+
+    /**
+     * Sets the minimum normalized overlap {@code |phi_new^H * phi_old|} for
+     * two modes to be considered the same mode (default {@code 0.9}).
+     */
+    public WarmStartDMD setMatchThreshold(double matchThreshold) {
+        if (!(matchThreshold > 0.0 && matchThreshold <= 1.0)) {
+            throw new IllegalArgumentException("matchThreshold: " + matchThreshold);
+        }
+        this.matchThreshold = matchThreshold;
+        return this;
+    }
+
+    public WarmStartDMD setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public WarmStartDMD compute() {
+        computeDMD(FitProgress.NONE);
+        return this;
+    }
+
+    /**
+     * Runs {@link #compute()} on the given executor. Cancelling the returned
+     * future abandons the fit at the next stage boundary or subspace
+     * iteration; the state of this DMD is undefined after a cancelled or
+     * failed fit until the next successful {@link #compute()}.
+     *
+     * @param executor
+     *            the executor that runs the fit
+     * @param listener
+     *            receives the stage progress (may be {@code null})
+     * @return the future of this DMD after the fit
+     */
+    public CompletableFuture<WarmStartDMD> computeAsync(Executor executor, ProgressListener listener) {
+        return FitProgress.run(executor, listener, progress -> {
+            computeDMD(progress);
+            return this;
+        });
+    }
+
+    /**
+     * Returns {@code true} if the last {@link #compute()} was seeded by a
+     * previous model.
+     */
+    public boolean isWarmStarted() {
+        return warmStarted;
+    }
+
+    /**
+     * Returns {@code true} if the subspace iteration of the last warm-started
+     * fit converged within {@code maxIterations} iterations. If it didn't the
+     * truncated SVD was computed by a full {@code svdEcon()} instead. Always
+     * {@code false} for a cold start.
+     */
+    public boolean isConverged() {
+        return converged;
+    }
+
+    /**
+     * Returns the number of subspace iterations of the last warm-started fit
+     * ({@code 0} for a cold start).
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Returns the ids of the modes (in the order of the columns of
+     * {@code Phi}). A mode that was matched to a mode of the previous model
+     * keeps the id of that mode.
+     */
+    public long[] getModeIds() {
+        return modeIds;
+    }
+
+    /**
+     * Returns for each mode the index of the matched mode in the previous
+     * model or {@code -1} for a new mode.
+     */
+    public int[] getPreviousModeIndices() {
+        return previousIndex;
+    }
+
+    public int getRank() {
+        return rank;
+    }
+
+    public MatrixD getUr() {
+        return Ur;
+    }
+
+    public double[] getSingularValues() {
+        return S;
+    }
+
+    public MatrixD getVr() {
+        return Vr;
+    }
+
+    public Zd[] getEigenValues() {
+        return eigenValues;
+    }
+
+    public ComplexMatrixD getPhi() {
+        return phi;
+    }
+
+    public ComplexMatrixD getOmega() {
+        return omega;
+    }
+
+    public ComplexMatrixD getConstantVector() {
+        return b;
+    }
+
+    public MatrixD getData() {
+        return data;
+    }
+
+    public double getDeltaT() {
+        return deltaT;
+    }
+
+    public MatrixD predict(double timeFrom, int numberOfPredictions) {
+        if (numberOfPredictions < 1) {
+            throw new IllegalArgumentException("numberOfPredictions < 1: " + numberOfPredictions);
+        }
+        return getRealModalForm().predict(b, timeFrom, numberOfPredictions);
+    }
+
+    /**
+     * Returns the (lazily created) real-valued representation of the modes
+     * and their dynamics that is used for prediction. Must be called after
+     * {@link #compute()}.
+     */
+    public RealModalForm getRealModalForm() {
+        if (phi == null) {
+            throw new IllegalStateException("compute() must be called first");
+        }
+        if (realForm == null) {
+            realForm = RealModalForm.create(phi, eigenValues, omega, deltaT);
+        }
+        return realForm;
+    }
+
+    private void computeDMD(FitProgress progress) {
+        progress.checkCancelled();
+        int n = data.numRows();
+        int m = data.numColumns();
+        MatrixD X1 = data.selectConsecutiveColumns(0, m - 2);
+        MatrixD X2 = data.selectConsecutiveColumns(1, m - 1);
+        WarmStartDMD prev = previous;
+        previous = null;
+        if (rank == 0 && prev != null) {
+            rank = prev.rank;
+        }
+        warmStarted = prev != null && prev.Ur.numRows() == n && prev.rank <= Math.min(n, m - 1);
+        iterations = 0;
+
+        // step 1: truncated SVD of X1 (seeded by the previous Ur, or cold if
+        // there is no seed or the subspace iteration didn't converge)
+        converged = warmStarted && subspaceIteration(X1, prev.Ur, progress);
+        if (!converged) {
+            SvdEconD svd = X1.svdEcon();
+            if (rank == 0) {
+                rank = Math.max(SvdD.optimalHardThreshold(X1.numRows(), X1.numColumns(), svd), 1);
+            }
+            truncate(svd.getU(), svd.getS(), svd.getVt(), Math.min(rank, svd.getS().length));
+        }
+        progress.completed(FitStage.SVD);
+        int r = rank;
+
+        // step 2: ATilde = Ur^T * X2 * Vr * S^-1
+        MatrixD X2VrSinv = X2.times(Vr);
+        for (int k = 0; k < r; ++k) {
+            double scale = 1.0 / S[k];
+            for (int i = 0; i < n; ++i) {
+                X2VrSinv.setUnsafe(i, k, scale * X2VrSinv.getUnsafe(i, k));
+            }
+        }
+        MatrixD ATilde = Ur.transposedTimes(X2VrSinv);
+
+        // step 3: eigenvalues / eigenvectors in the subspace
+        EvdComplexD evd = ATilde.toComplexMatrix().evd(true);
+        Zd[] eigs = evd.getEigenvalues();
+        ComplexMatrixD W = evd.getEigenvectors();
+
+        // step 4: Phi = X2 * Vr * S^-1 * W
+        ComplexMatrixD modes = ModeOps.combine(X2VrSinv.times(W.toRealMatrix()),
+                X2VrSinv.times(ModeOps.imagPart(W)));
+
+        // step 5: match to the previous modes and reorder
+        int[] order = new int[r];
+        int[] prevIdx = new int[r];
+        if (warmStarted) {
+            matchModes(modes, eigs, prev.phi, prev.eigenValues, order, prevIdx);
+        } else {
+            for (int k = 0; k < r; ++k) {
+                order[k] = k;
+                prevIdx[k] = -1;
+            }
+        }
+        eigenValues = new Zd[r];
+        phi = Matrices.createComplexD(n, r);
+        double[] src = modes.getArrayUnsafe();
+        double[] dst = phi.getArrayUnsafe();
+        for (int k = 0; k < r; ++k) {
+            eigenValues[k] = eigs[order[k]];
+            System.arraycopy(src, 2 * n * order[k], dst, 2 * n * k, 2 * n);
+        }
+        previousIndex = prevIdx;
+        modeIds = new long[r];
+        nextModeId = warmStarted ? prev.nextModeId : 0L;
+        for (int k = 0; k < r; ++k) {
+            modeIds[k] = (prevIdx[k] >= 0) ? prev.modeIds[prevIdx[k]] : nextModeId++;
+        }
+        realForm = null;
+        progress.completed(FitStage.MODES);
+
+        // omega contains the eigenvalues of the fitted linear system
+        omega = computeOmega(eigenValues, deltaT);
+
+        // vector b via initial condition at time 0
+        ComplexMatrixD x1 = data.selectConsecutiveColumns(0, 0).toComplexMatrix();
+        b = phi.solve(x1, Matrices.createComplexD(r, 1));
+        progress.completed(FitStage.AMPLITUDES);
+    }
+
+    // block subspace iteration for X1 seeded with the previous Ur (returns
+    // false without touching the SVD factors if it doesn't converge)
+    private boolean subspaceIteration(MatrixD X1, MatrixD previousUr, FitProgress progress) {
+        int n = X1.numRows();
+        int cols = X1.numColumns();
+        int r = rank;
+        int l = Math.min(r + OVERSAMPLING, Math.min(n, cols));
+        MatrixD Q = Matrices.createD(n, l);
+        int seeded = Math.min(previousUr.numColumns(), l);
+        previousUr.submatrix(0, 0, n - 1, seeded - 1, Q, 0, 0);
+        if (seeded < l) {
+            // fill up the block with random directions
+            MatrixD R = Matrices.randomNormalD(n, l - seeded, seed);
+            R.submatrix(0, 0, n - 1, l - seeded - 1, Q, 0, seeded);
+        }
+        Q = Q.qrd().getQ();
+        double[] sOld = null;
+        SvdEconD ritz = null;
+        boolean done = false;
+        for (int it = 0; it < maxIterations && !done; ++it) {
+            ++iterations;
+            // Q = orth(X1 * X1^T * Q)
+            Q = X1.times(X1.transposedTimes(Q)).qrd().getQ();
+            // Rayleigh-Ritz: svd(Q^T * X1)
+            ritz = Q.transposedTimes(X1).svdEcon();
+            double[] s = ritz.getS();
+            done = sOld != null && converged(sOld, s, Math.min(r, s.length));
+            sOld = s.clone();
+            progress.within(FitStage.SVD, (double) iterations / maxIterations);
+        }
+        if (!done) {
+            return false;
+        }
+        double[] s = ritz.getS();
+        rank = Math.max(1, Math.min(r, s.length));
+        truncate(Q.times(ritz.getU()), s, ritz.getVt(), rank);
+        return true;
+    }
+
+    private boolean converged(double[] sOld, double[] s, int r) {
+        if (sOld.length < r) {
+            return false;
+        }
+        for (int k = 0; k < r; ++k) {
+            if (Math.abs(s[k] - sOld[k]) > tolerance * s[0]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void truncate(MatrixD U, double[] s, MatrixD Vt, int r) {
+        rank = r;
+        Ur = U.selectConsecutiveColumns(0, r - 1);
+        S = Arrays.copyOf(s, r);
+        Vr = Vt.selectSubmatrix(0, 0, r - 1, Vt.numColumns() - 1).transpose();
+    }
+
+    // greedy matching of the new modes to the previous modes; 'order' gets
+    // the column of the new mode for each output position, 'prevIdx' the
+    // matched previous mode for each output position (or -1)
+    private void matchModes(ComplexMatrixD modes, Zd[] eigs, ComplexMatrixD prevPhi, Zd[] prevEigs, int[] order,
+            int[] prevIdx) {
+        int r = eigs.length;
+        int p = prevEigs.length;
+        ComplexMatrixD overlap = modes.conjugateTransposedTimes(prevPhi);
+        double[] norms = columnNorms(modes);
+        double[] prevNorms = columnNorms(prevPhi);
+        List<double[]> candidates = new ArrayList<>();
+        for (int i = 0; i < r; ++i) {
+            for (int j = 0; j < p; ++j) {
+                double cos = overlap.get(i, j).abs() / (norms[i] * prevNorms[j]);
+                if (cos >= matchThreshold) {
+                    double dRe = eigs[i].re() - prevEigs[j].re();
+                    double dIm = eigs[i].im() - prevEigs[j].im();
+                    candidates.add(new double[] { Math.rint(cos * OVERLAP_QUANTUM),
+                            Math.sqrt(dRe * dRe + dIm * dIm), i, j });
+                }
+            }
+        }
+        // largest overlap first, the eigenvalue distance only breaks ties
+        candidates.sort((x, y) -> (x[0] != y[0]) ? Double.compare(y[0], x[0]) : Double.compare(x[1], y[1]));
+        int[] matchOfPrev = new int[p];
+        Arrays.fill(matchOfPrev, -1);
+        boolean[] taken = new boolean[r];
+        for (double[] c : candidates) {
+            int i = (int) c[2];
+            int j = (int) c[3];
+            if (!taken[i] && matchOfPrev[j] < 0) {
+                taken[i] = true;
+                matchOfPrev[j] = i;
+            }
+        }
+        // matched modes in the order of the previous model, new ones last
+        int pos = 0;
+        for (int j = 0; j < p && pos < r; ++j) {
+            if (matchOfPrev[j] >= 0) {
+                order[pos] = matchOfPrev[j];
+                prevIdx[pos++] = j;
+            }
+        }
+        for (int i = 0; i < r; ++i) {
+            if (!taken[i]) {
+                order[pos] = i;
+                prevIdx[pos++] = -1;
+            }
+        }
+    }
+
+    private static double[] columnNorms(ComplexMatrixD A) {
+        int n = A.numRows();
+        double[] a = A.getArrayUnsafe();
+        double[] norms = new double[A.numColumns()];
+        for (int k = 0; k < norms.length; ++k) {
+            double sum = 0.0;
+            for (int i = 2 * n * k; i < 2 * n * (k + 1); ++i) {
+                sum += a[i] * a[i];
+            }
+            norms[k] = Math.max(Math.sqrt(sum), Double.MIN_NORMAL);
+        }
+        return norms;
+    }
+
+    private static ComplexMatrixD computeOmega(Zd[] eigs, double dt) {
+        // omega contains the eigenvalues of the fitted linear system
+        ComplexMatrixD omega = Matrices.createComplexD(eigs.length, eigs.length);
+        for (int i = 0; i < eigs.length; ++i) {
+            Zd z = eigs[i].copy();
+            z.ln().scale(1.0 / dt);
+            omega.set(i, i, z.re(), z.im());
+        }
+        return omega;
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2026 Stefan Zobel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package math.dmd;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link VectorOps} with {@code jdk.incubator.vector} kernels (Java 17+).
+ * Selected reflectively by {@link VectorOps#INSTANCE}.
+ */
+/* package */ final class SimdVectorOps extends VectorOps {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    // per-thread scratch for one row of the time dynamics
+    private static final ThreadLocal<double[][]> SCRATCH = ThreadLocal.withInitial(() -> new double[3][0]);
+
+    SimdVectorOps() {
+        // touch the vector API once so that a missing module fails here
+        DoubleVector.zero(SPECIES);
+    }
+
+    @Override
+    void timeDynamics(double[] omegaRe, double[] omegaIm, double[] bRe, double[] bIm, double tStart, double dt,
+            int tNum, double[] out) {
+        int r = omegaRe.length;
+        double[][] scratch = SCRATCH.get();
+        if (scratch[0].length < tNum) {
+            scratch[0] = new double[tNum];
+            scratch[1] = new double[tNum];
+            scratch[2] = new double[tNum];
+        }
+        double[] times = scratch[0];
+        double[] re = scratch[1];
+        double[] im = scratch[2];
+        for (int j = 0; j < tNum; ++j) {
+            times[j] = tStart + j * dt;
+        }
+        int bound = SPECIES.loopBound(tNum);
+        for (int k = 0; k < r; ++k) {
+            double a = omegaRe[k];
+            double w = omegaIm[k];
+            double br = bRe[k];
+            double bi = bIm[k];
+            int j = 0;
+            // all time steps of mode k in SIMD lanes
+            for (; j < bound; j += SPECIES.length()) {
+                DoubleVector t = DoubleVector.fromArray(SPECIES, times, j);
+                DoubleVector mag = t.mul(a).lanewise(VectorOperators.EXP);
+                DoubleVector wt = t.mul(w);
+                DoubleVector eRe = wt.lanewise(VectorOperators.COS).mul(mag);
+                DoubleVector eIm = wt.lanewise(VectorOperators.SIN).mul(mag);
+                eRe.mul(br).sub(eIm.mul(bi)).intoArray(re, j);
+                eRe.mul(bi).add(eIm.mul(br)).intoArray(im, j);
+            }
+            for (; j < tNum; ++j) {
+                double t = times[j];
+                double expRe = Math.exp(a * t);
+                double eRe = expRe * Math.cos(w * t);
+                double eIm = expRe * Math.sin(w * t);
+                re[j] = br * eRe - bi * eIm;
+                im[j] = bi * eRe + br * eIm;
+            }
+            // interleave into column-major (k, j)
+            for (j = 0; j < tNum; ++j) {
+                int idx = 2 * (j * r + k);
+                out[idx] = re[j];
+                out[idx + 1] = im[j];
+            }
+        }
+    }
+
+    @Override
+    void addRealPartOfProduct(double[] phiRe, double[] phiIm, int off, int n, double sRe, double sIm,
+            double[] out) {
+        DoubleVector vsRe = DoubleVector.broadcast(SPECIES, sRe);
+        DoubleVector vsIm = DoubleVector.broadcast(SPECIES, -sIm);
+        int bound = SPECIES.loopBound(n);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector acc = DoubleVector.fromArray(SPECIES, out, i);
+            DoubleVector pr = DoubleVector.fromArray(SPECIES, phiRe, off + i);
+            DoubleVector pi = DoubleVector.fromArray(SPECIES, phiIm, off + i);
+            acc = pr.fma(vsRe, acc);
+            acc = pi.fma(vsIm, acc);
+            acc.intoArray(out, i);
+        }
+        for (; i < n; ++i) {
+            out[i] += phiRe[off + i] * sRe - phiIm[off + i] * sIm;
+        }
+    }
+
+    @Override
+    double dot(double[] a, int aOff, double[] b, int bOff, int n) {
+        int bound = SPECIES.loopBound(n);
+        DoubleVector acc = DoubleVector.zero(SPECIES);
+        int i = 0;
+        for (; i < bound; i += SPECIES.length()) {
+            DoubleVector va = DoubleVector.fromArray(SPECIES, a, aOff + i);
+            DoubleVector vb = DoubleVector.fromArray(SPECIES, b, bOff + i);
+            acc = va.fma(vb, acc);
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < n; ++i) {
+            sum += a[aOff + i] * b[bOff + i];
+        }
+        return sum;
+    }
+
+    @Override
+    void transposedTimes(double[] a, int n, int p, double[] x, double[] out) {
+        int bound = SPECIES.loopBound(n);
+        int k = 0;
+        for (; k + 3 < p; k += 4) {
+            int o0 = k * n;
+            int o1 = o0 + n;
+            int o2 = o1 + n;
+            int o3 = o2 + n;
+            DoubleVector acc0 = DoubleVector.zero(SPECIES);
+            DoubleVector acc1 = DoubleVector.zero(SPECIES);
+            DoubleVector acc2 = DoubleVector.zero(SPECIES);
+            DoubleVector acc3 = DoubleVector.zero(SPECIES);
+            int i = 0;
+            for (; i < bound; i += SPECIES.length()) {
+                DoubleVector vx = DoubleVector.fromArray(SPECIES, x, i);
+                acc0 = DoubleVector.fromArray(SPECIES, a, o0 + i).fma(vx, acc0);
+                acc1 = DoubleVector.fromArray(SPECIES, a, o1 + i).fma(vx, acc1);
+                acc2 = DoubleVector.fromArray(SPECIES, a, o2 + i).fma(vx, acc2);
+                acc3 = DoubleVector.fromArray(SPECIES, a, o3 + i).fma(vx, acc3);
+            }
+            double s0 = acc0.reduceLanes(VectorOperators.ADD);
+            double s1 = acc1.reduceLanes(VectorOperators.ADD);
+            double s2 = acc2.reduceLanes(VectorOperators.ADD);
+            double s3 = acc3.reduceLanes(VectorOperators.ADD);
+            for (; i < n; ++i) {
+                double xi = x[i];
+                s0 += a[o0 + i] * xi;
+                s1 += a[o1 + i] * xi;
+                s2 += a[o2 + i] * xi;
+                s3 += a[o3 + i] * xi;
+            }
+            out[k] = s0;
+            out[k + 1] = s1;
+            out[k + 2] = s2;
+            out[k + 3] = s3;
+        }
+        for (; k < p; ++k) {
+            out[k] = dot(a, k * n, x, 0, n);
+        }
+    }
+
+    @Override
+    String name() {
+        return "simd-" + SPECIES.vectorBitSize();
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2026 Stefan Zobel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.math.dmd;
+
+import java.util.SplittableRandom;
+
+import math.dmd.AnomalyScorer;
+import math.dmd.ExactDMDV2;
+import math.dmd.RealModalForm;
+import net.jamu.matrix.Matrices;
+import net.jamu.matrix.MatrixD;
+
+/**
+ * Scoring throughput of the {@code AnomalyScorer} for {@code n = 1000} and
+ * rank {@code 20} (10 oscillating patterns with a little noise).
+ */
+public class AnomalyScorerBenchmark {
+
+    static final int N = 1000;
+    static final int PAIRS = 10;
+    static final int TRAIN = 400;
+    static final int STEPS = 200_000;
+    static final int ROUNDS = 5;
+    static final double DT = 0.01;
+
+    public static void main(String[] args) {
+        SplittableRandom rnd = new SplittableRandom(42L);
+        double[][] u = new double[PAIRS][N];
+        double[][] v = new double[PAIRS][N];
+        double[] freq = new double[PAIRS];
+        for (int k = 0; k < PAIRS; ++k) {
+            for (int i = 0; i < N; ++i) {
+                u[k][i] = rnd.nextDouble(-1.0, 1.0);
+                v[k][i] = rnd.nextDouble(-1.0, 1.0);
+            }
+            freq[k] = 0.5 + 2.0 * k;
+        }
+        MatrixD train = Matrices.createD(N, TRAIN);
+        for (int j = 0; j < TRAIN; ++j) {
+            snapshot(u, v, freq, j, rnd, train.getArrayUnsafe(), j * N);
+        }
+        RealModalForm form = new ExactDMDV2(train, DT, 2 * PAIRS).compute().getRealModalForm();
+        System.out.println("n = " + N + ", rank = " + form.getRank());
+
+        // pregenerated stream (continuing the training data)
+        int len = 4096;
+        double[][] stream = new double[len][N];
+        for (int j = 0; j < len; ++j) {
+            snapshot(u, v, freq, TRAIN + j, rnd, stream[j], 0);
+        }
+        AnomalyScorer scorer = new AnomalyScorer(form);
+        double checksum = 0.0;
+        for (int round = 0; round < ROUNDS; ++round) {
+            long start = System.nanoTime();
+            for (int j = 0; j < STEPS; ++j) {
+                double score = scorer.score(stream[j % len]);
+                if (score == score) {
+                    checksum += score;
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("round %d: %.0f snapshots / s (%.2f us / snapshot)%n", round,
+                    STEPS * 1.0e9 / elapsed, elapsed / (1000.0 * STEPS));
+        }
+        System.out.println("anomalies: " + scorer.getAnomalyCount() + ", checksum: " + checksum);
+    }
+
+    private static void snapshot(double[][] u, double[][] v, double[] freq, int step, SplittableRandom rnd,
+            double[] x, int offset) {
+        double t = step * DT;
+        for (int i = 0; i < N; ++i) {
+            x[offset + i] = 1.0e-3 * rnd.nextGaussian();
+        }
+        for (int k = 0; k < PAIRS; ++k) {
+            double c = Math.cos(freq[k] * t);
+            double s = Math.sin(freq[k] * t);
+            for (int i = 0; i < N; ++i) {
+                x[offset + i] += c * u[k][i] + s * v[k][i];
+            }
+        }
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright 2026 Stefan Zobel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.math.dmd;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import math.dmd.BatchedDMD;
+import math.dmd.ExactDMD;
+import net.jamu.complex.Zd;
+import net.jamu.matrix.Matrices;
+import net.jamu.matrix.MatrixD;
+
+/**
+ * Reconstructs every channel of a {@code BatchedDMD} fit for all dimensions
+ * {@code d = 2 .. MAX_DIMENSION}. Each channel is generated by a random
+ * {@code A = Q * D * Q^-1} where {@code D} has a complex conjugate
+ * eigenvalue pair in its first two rows and columns (the remaining
+ * eigenvalues are random pairs or real values) and the errors are compared
+ * with the exact eigenvalues of {@code A}. Every 10th channel (for
+ * {@code d > 2}) starts in the invariant plane of the conjugate pair, so its
+ * data doesn't fill all {@code d} dimensions and its effective rank must be
+ * {@code 2}. In general, the effective rank must match the number of singular
+ * values of the data above {@code 1e-6 * sigma_max} (for {@code d = 8} a few
+ * channels that fill all dimensions are numerically rank-deficient, too). The
+ * eigenvalue errors are only evaluated for channels that keep all directions
+ * of their generator.
+ * <p>
+ * Finally, the throughput of {@code BatchedDMD} is compared with one
+ * {@code ExactDMD} per channel for 3-dimensional channels.
+ */
+public class BatchedDMDExample {
+
+    static final int CHANNELS = 1000;
+    static final int SNAPSHOTS = 40;
+    static final double DT = 0.1;
+    static final int TIMED_CHANNELS = 20_000;
+    static final int TIMED_SNAPSHOTS = 64;
+    static final int ROUNDS = 10;
+
+    public static void main(String[] args) {
+        for (int d = 2; d <= BatchedDMD.MAX_DIMENSION; ++d) {
+            SplittableRandom rnd = new SplittableRandom(d);
+            BatchedDMD batch = new BatchedDMD(CHANNELS, d, SNAPSHOTS, DT);
+            double[][] data = new double[CHANNELS][];
+            double[][] eigs = new double[CHANNELS][];
+            for (int c = 0; c < CHANNELS; ++c) {
+                boolean planar = d > 2 && c % 10 == 0;
+                eigs[c] = new double[planar ? 4 : 2 * d];
+                data[c] = channel(d, SNAPSHOTS, rnd, eigs[c], planar);
+                batch.setChannel(c, data[c]);
+            }
+            batch.compute();
+
+            int bad = 0;
+            int wrongRank = 0;
+            int deficient = 0;
+            double maxRecError = 0.0;
+            double maxEigError = 0.0;
+            for (int c = 0; c < CHANNELS; ++c) {
+                MatrixD pred = batch.predict(c, 0.0, SNAPSHOTS);
+                double num = 0.0;
+                double den = 0.0;
+                for (int j = 0; j < SNAPSHOTS; ++j) {
+                    for (int i = 0; i < d; ++i) {
+                        double x = data[c][j * d + i];
+                        double e = pred.get(i, j) - x;
+                        num += e * e;
+                        den += x * x;
+                    }
+                }
+                double relError = Math.sqrt(num / den);
+                if (!(relError <= 1.0e-6)) {
+                    ++bad;
+                }
+                int rank = batch.getRank(c);
+                if (rank != numericalRank(d, data[c])) {
+                    ++wrongRank;
+                }
+                maxRecError = Math.max(maxRecError, relError);
+                if (rank == eigs[c].length / 2) {
+                    maxEigError = Math.max(maxEigError, eigenvalueError(batch.getEigenValues(c), eigs[c]));
+                }
+                if (rank < d) {
+                    ++deficient;
+                }
+            }
+            System.out.printf("d = %d: bad channels %d / %d, rank-deficient %d, wrong effective rank %d,"
+                    + " max. rel. reconstruction error %.2e, max. eigenvalue error %.2e%n", d, bad, CHANNELS,
+                    deficient, wrongRank, maxRecError, maxEigError);
+        }
+        System.out.println();
+        throughput();
+    }
+
+    // fits per second of BatchedDMD and of one ExactDMD per channel (d = 3)
+    private static void throughput() {
+        int d = 3;
+        SplittableRandom rnd = new SplittableRandom(42L);
+        BatchedDMD batch = new BatchedDMD(TIMED_CHANNELS, d, TIMED_SNAPSHOTS, DT);
+        List<MatrixD> matrices = new ArrayList<>();
+        for (int c = 0; c < TIMED_CHANNELS; ++c) {
+            double[] x = channel(d, TIMED_SNAPSHOTS, rnd, new double[2 * d], false);
+            batch.setChannel(c, x);
+            MatrixD X = Matrices.createD(d, TIMED_SNAPSHOTS);
+            System.arraycopy(x, 0, X.getArrayUnsafe(), 0, x.length);
+            matrices.add(X);
+        }
+        double batched = 0.0;
+        double perObject = 0.0;
+        double checksum = 0.0;
+        for (int round = 0; round < ROUNDS; ++round) {
+            long start = System.nanoTime();
+            batch.compute();
+            long elapsed = System.nanoTime() - start;
+            batched = Math.max(batched, TIMED_CHANNELS * 1.0e9 / elapsed);
+            checksum += batch.getEigenValues(round).length;
+
+            start = System.nanoTime();
+            for (MatrixD X : matrices) {
+                ExactDMD dmd = new ExactDMD(X, DT, d).compute();
+                checksum += dmd.getRank();
+            }
+            elapsed = System.nanoTime() - start;
+            perObject = Math.max(perObject, TIMED_CHANNELS * 1.0e9 / elapsed);
+        }
+        System.out.printf("%d channels, d = %d, m = %d (best of %d rounds)%n", TIMED_CHANNELS, d,
+                TIMED_SNAPSHOTS, ROUNDS);
+        System.out.printf("BatchedDMD          : %.0f fits / s%n", batched);
+        System.out.printf("ExactDMD per channel: %.0f fits / s%n", perObject);
+        System.out.printf("speedup             : %.1f (checksum %.0f)%n", batched / perObject, checksum);
+    }
+
+    // the column-major d x m snapshots x_(j+1) = A * x_j, the eigenvalues of
+    // A are returned in eigs as (re, im) pairs (only the leading pair if the
+    // trajectory starts in its invariant plane)
+    private static double[] channel(int d, int m, SplittableRandom rnd, double[] eigs, boolean planar) {
+        MatrixD D = Matrices.createD(d, d);
+        int i = 0;
+        while (i < d) {
+            if (i + 1 < d && (i == 0 || rnd.nextBoolean())) {
+                double rho = rnd.nextDouble(0.9, 1.0);
+                double w = rnd.nextDouble(0.2, 2.5);
+                D.set(i, i, rho * Math.cos(w));
+                D.set(i + 1, i + 1, rho * Math.cos(w));
+                D.set(i, i + 1, rho * Math.sin(w));
+                D.set(i + 1, i, -rho * Math.sin(w));
+                if (2 * i + 3 < eigs.length) {
+                    eigs[2 * i] = rho * Math.cos(w);
+                    eigs[2 * i + 1] = rho * Math.sin(w);
+                    eigs[2 * i + 2] = rho * Math.cos(w);
+                    eigs[2 * i + 3] = -rho * Math.sin(w);
+                }
+                i += 2;
+            } else {
+                double mu = rnd.nextDouble(0.8, 1.0) * (rnd.nextBoolean() ? 1.0 : -1.0);
+                D.set(i, i, mu);
+                if (2 * i < eigs.length) {
+                    eigs[2 * i] = mu;
+                }
+                ++i;
+            }
+        }
+        MatrixD Q = Matrices.createD(d, d);
+        for (int row = 0; row < d; ++row) {
+            for (int col = 0; col < d; ++col) {
+                Q.set(row, col, (row == col ? 2.0 : 0.0) + rnd.nextDouble(-0.5, 0.5));
+            }
+        }
+        MatrixD A = Q.times(D).times(Q.inverse());
+        double[] x = new double[d * m];
+        if (planar) {
+            // x_0 in the span of the first two columns of Q
+            double e0 = rnd.nextDouble(-1.0, 1.0);
+            double e1 = rnd.nextDouble(-1.0, 1.0);
+            for (int row = 0; row < d; ++row) {
+                x[row] = e0 * Q.get(row, 0) + e1 * Q.get(row, 1);
+            }
+        } else {
+            for (int row = 0; row < d; ++row) {
+                x[row] = rnd.nextDouble(-1.0, 1.0);
+            }
+        }
+        for (int j = 1; j < m; ++j) {
+            for (int row = 0; row < d; ++row) {
+                double sum = 0.0;
+                for (int col = 0; col < d; ++col) {
+                    sum += A.get(row, col) * x[(j - 1) * d + col];
+                }
+                x[j * d + row] = sum;
+            }
+        }
+        return x;
+    }
+
+    // the number of singular values of the d x m data above 1e-6 * sigma_max
+    private static int numericalRank(int d, double[] x) {
+        MatrixD X = Matrices.createD(d, x.length / d);
+        System.arraycopy(x, 0, X.getArrayUnsafe(), 0, x.length);
+        double[] sv = X.singularValues();
+        int rank = 0;
+        for (double s : sv) {
+            if (s > 1.0e-6 * sv[0]) {
+                ++rank;
+            }
+        }
+        return rank;
+    }
+
+    private static double eigenvalueError(Zd[] computed, double[] expected) {
+        double max = 0.0;
+        for (int k = 0; k < expected.length; k += 2) {
+            double min = Double.POSITIVE_INFINITY;
+            for (Zd z : computed) {
+                min = Math.min(min, Math.hypot(z.re() - expected[k], z.im() - expected[k + 1]));
+            }
+            max = Math.max(max, min);
+        }
+        return max;
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2026 Stefan Zobel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.math.dmd;
+
+import math.coord.LinSpace;
+import math.dmd.ExactDMDF;
+import math.dmd.ExactDMDV2;
+import math.fun.DIndexIterator;
+import net.jamu.complex.Zd;
+import net.jamu.complex.ZdImpl;
+import net.jamu.matrix.ComplexMatrixD;
+import net.jamu.matrix.Matrices;
+import net.jamu.matrix.MatrixD;
+import net.jamu.matrix.MatrixF;
+
+/**
+ * Compares the mixed-precision {@code ExactDMDF} with the double precision
+ * {@code ExactDMDV2} on the data of {@link RealValuedDataExample}.
+ */
+public class FloatVsDoubleExample {
+
+    static final double x_start = -10.0;
+    static final double x_end = 10.0;
+    static final int x_num = 400;
+
+    static final double t_start = 0.0;
+    static final double t_end = 4.0 * Math.PI;
+    static final int t_num = 600;
+
+    // space dimension
+    static final LinSpace xi = LinSpace.linspace(x_start, x_end, x_num);
+    // time dimension
+    static final LinSpace ti = LinSpace.linspace(t_start, t_end, t_num);
+
+    public static void main(String[] args) {
+        // build data 'measurements' matrix
+        MatrixD data = setupMeasurementsMatrix(ti);
+        MatrixF dataF = Matrices.convert(data);
+
+        // step size
+        double deltaT = (t_end - t_start) / (t_num - 1);
+        System.out.println("deltaT: " + deltaT);
+
+        ExactDMDV2 dmd = new ExactDMDV2(data, deltaT).compute();
+        ExactDMDF dmdF = new ExactDMDF(dataF, deltaT).compute();
+        System.out.println("Estimated rank (double): " + dmd.getRank());
+        System.out.println("Estimated rank (float) : " + dmdF.getRank());
+        System.out.println("Eigenvalues (double): " + dmd.getOmega());
+        System.out.println("Eigenvalues (float) : " + dmdF.getOmega());
+        System.out.println("max. eigenvalue error (double): " + eigenvalueError(dmd.getOmega()));
+        System.out.println("max. eigenvalue error (float) : " + eigenvalueError(dmdF.getOmega()));
+
+        // reconstruct the interval that was used to compute the DMD
+        MatrixD pred = dmd.predict(t_start, t_num);
+        MatrixD predF = Matrices.convert(dmdF.predict(t_start, t_num));
+        compare(data, pred, predF);
+
+        // predict the future starting from 4.0 * PI for 100 predictions
+        int t_num = 100;
+        double t_start = t_end;
+        double t_end = t_start + deltaT * (t_num - 1);
+        MatrixD newData = setupMeasurementsMatrix(LinSpace.linspace(t_start, t_end, t_num));
+        MatrixD fut = dmd.predict(t_start, t_num);
+        MatrixD futF = Matrices.convert(dmdF.predict(t_start, t_num));
+        System.out.println();
+        compare(newData, fut, futF);
+    }
+
+    // distance of the continuous-time eigenvalues to the exact ones
+    // (+-2.2i and +-0.15i)
+    private static double eigenvalueError(ComplexMatrixD omega) {
+        double[] exact = { 2.2, -2.2, 0.15, -0.15 };
+        double maxError = 0.0;
+        for (int i = 0; i < omega.numRows(); ++i) {
+            Zd z = omega.get(i, i);
+            double re = z.re();
+            double im = z.im();
+            double error = Double.MAX_VALUE;
+            for (double ex : exact) {
+                error = Math.min(error, Math.hypot(re, im - ex));
+            }
+            maxError = Math.max(maxError, error);
+        }
+        return maxError;
+    }
+
+    private static void compare(MatrixD expected, MatrixD pred, MatrixD predF) {
+        // relative errors in the Frobenius norm
+        double normData = expected.normF();
+        System.out.println("rel. error (double)         : " + expected.minus(pred).normF() / normData);
+        System.out.println("rel. error (float)          : " + expected.minus(predF).normF() / normData);
+        System.out.println("rel. distance float - double: " + pred.minus(predF).normF() / pred.normF());
+    }
+
+    static MatrixD setupMeasurementsMatrix(LinSpace time) {
+        // build data 'measurements' matrix
+        MatrixD X_ = Matrices.createD(xi.size(), time.size());
+
+        for (DIndexIterator tIt = time.iterator(); tIt.hasNext(); /**/) {
+            int colIdx = tIt.nextIndex() - 1;
+            double t = tIt.next();
+            for (DIndexIterator xIt = xi.iterator(); xIt.hasNext(); /**/) {
+                int rowIdx = xIt.nextIndex() - 1;
+                Zd z = f(xIt.next(), t);
+                // copy only the real part
+                X_.set(rowIdx, colIdx, z.re());
+            }
+        }
+
+        return X_;
+    }
+
+    // merged spatio-temporal signal
+    private static Zd f(double x, double t) {
+        return f1a(x, t).add(f2a(x, t)).add(f3a(x, t)).add(f4a(x, t));
+    }
+
+    // first spatio-temporal pattern
+    private static Zd f1a(double x, double t) {
+        Zd zt = new ZdImpl(0.1, 2.2 * t).exp();
+        Zd zx = new ZdImpl(sech(x + 3.0), Math.tanh(x));
+        return zt.mul(zx);
+    }
+
+    // second spatio-temporal pattern
+    private static Zd f2a(double x, double t) {
+        Zd zt = new ZdImpl(0.1, -2.2 * t).exp();
+        Zd zx = new ZdImpl(sech(x - 3.0), -Math.tanh(x));
+        return zt.mul(zx);
+    }
+
+    // third spatio-temporal pattern
+    private static Zd f3a(double x, double t) {
+        Zd zt = new ZdImpl(-3.3, 0.15 * t).exp();
+        Zd zx = new ZdImpl(Math.sin(x + -0.5), Math.cos(x));
+        return zt.mul(zx);
+    }
+
+    // fourth spatio-temporal pattern
+    private static Zd f4a(double x, double t) {
+        Zd zt = new ZdImpl(-3.3, -0.15 * t).exp();
+        Zd zx = new ZdImpl(Math.sin(x + 0.5), -Math.cos(x));
+        return zt.mul(zx);
+    }
+
+    private static double sech(double y) {
+        return 1.0 / Math.cosh(y);
+    }
+}
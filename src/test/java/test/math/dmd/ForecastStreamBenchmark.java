@@ -0,0 +1,60 @@
+/*
+ * Copyright 2026 Stefan Zobel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.math.dmd;
+
+import java.util.SplittableRandom;
+
+import math.dmd.ForecastStream;
+import net.jamu.matrix.ComplexMatrixD;
+import net.jamu.matrix.Matrices;
+
+/**
+ * Throughput of the mode x dynamics kernel. Compare a run with
+ * {@code --add-modules jdk.incubator.vector} on Java 17+ (against the
+ * multi-release JAR) with a run using {@code -Dmath.dmd.vector=false}.
+ */
+public class ForecastStreamBenchmark {
+
+    static final int N = 4096;
+    static final int RANK = 32;
+    static final int STEPS = 20_000;
+    static final int ROUNDS = 5;
+
+    public static void main(String[] args) {
+        SplittableRandom rnd = new SplittableRandom(42L);
+        ComplexMatrixD phi = Matrices.createComplexD(N, RANK);
+        ComplexMatrixD omega = Matrices.createComplexD(RANK, RANK);
+        ComplexMatrixD b = Matrices.createComplexD(RANK, 1);
+        for (int k = 0; k < RANK; ++k) {
+            for (int i = 0; i < N; ++i) {
+                phi.set(i, k, rnd.nextDouble(-1.0, 1.0), rnd.nextDouble(-1.0, 1.0));
+            }
+            omega.set(k, k, -0.001 * rnd.nextDouble(), rnd.nextDouble(-3.0, 3.0));
+            b.set(k, 0, rnd.nextDouble(), rnd.nextDouble());
+        }
+        double checksum = 0.0;
+        for (int round = 0; round < ROUNDS; ++round) {
+            ForecastStream stream = new ForecastStream(phi, omega, b, 0.01, 0.0);
+            long start = System.nanoTime();
+            for (int j = 0; j < STEPS; ++j) {
+                checksum += stream.next()[j % N];
+            }
+            long elapsed = System.nanoTime() - start;
+            System.out.printf("round %d: %.1f ns / column%n", round, (double) elapsed / STEPS);
+        }
+        System.out.println("checksum: " + checksum);
+    }
+}
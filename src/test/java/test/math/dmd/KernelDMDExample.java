@@ -0,0 +1,124 @@
+/*
+ * Copyright 2026 Stefan Zobel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.math.dmd;
+
+import java.util.concurrent.ForkJoinPool;
+
+import math.dmd.Kernel;
+import math.dmd.KernelDMD;
+import net.jamu.complex.Zd;
+import net.jamu.matrix.ComplexMatrixD;
+import net.jamu.matrix.Matrices;
+import net.jamu.matrix.MatrixD;
+
+/**
+ * {@code KernelDMD} on the nonlinear map
+ *
+ * <pre>
+ * x' = a * x
+ * y' = b * y + c * x^2
+ * </pre>
+ *
+ * whose Koopman eigenfunctions {@code 1}, {@code x}, {@code x^2} and
+ * {@code y - c / (a^2 - b) * x^2} (eigenvalues {@code 1}, {@code a},
+ * {@code a^2} and {@code b}) span an invariant subspace of the quadratic
+ * polynomials. The polynomial kernel of degree 2 must find these four
+ * eigenvalues exactly, the RBF kernel only approximates them. For both
+ * kernels the example checks {@code phi(F(x)) = lambda * phi(x)} with
+ * {@code eigenfunctions(x)} at states that are not part of the data and
+ * predicts the trajectory of such a state from
+ * {@code computeConstantVector(x0, t0)}.
+ */
+public class KernelDMDExample {
+
+    static final double A = 0.9;
+    static final double B = 0.5;
+    static final double C = 1.0;
+    static final int SNAPSHOTS = 60;
+    static final int STEPS = 10;
+
+    public static void main(String[] args) {
+        MatrixD data = Matrices.createD(2, SNAPSHOTS);
+        double[] state = { 1.0, -0.5 };
+        for (int j = 0; j < SNAPSHOTS; ++j) {
+            data.set(0, j, state[0]);
+            data.set(1, j, state[1]);
+            state = map(state);
+        }
+        double[][] unseen = { { 0.6, 0.3 }, { -0.4, 0.1 }, { 0.8, 0.5 } };
+
+        run("polynomial kernel (c = 1, degree 2)", data, Kernel.polynomial(1.0, 2), unseen);
+        run("RBF kernel (sigma = 2)", data, Kernel.rbf(2.0), unseen);
+    }
+
+    private static void run(String name, MatrixD data, Kernel kernel, double[][] unseen) {
+        KernelDMD dmd = new KernelDMD(data, 1.0, kernel, 0.0, ForkJoinPool.commonPool()).compute();
+        Zd[] eigs = dmd.getEigenValues();
+        System.out.println(name + ", rank " + dmd.getRank());
+        double[] exact = { 1.0, A, A * A, B };
+        for (double lambda : exact) {
+            int k = nearest(eigs, lambda);
+            double error = Math.hypot(eigs[k].re() - lambda, eigs[k].im());
+            // the eigenfunction of that eigenvalue at unseen states
+            double consistency = 0.0;
+            for (double[] x : unseen) {
+                Zd phiX = dmd.eigenfunctions(column(x)).get(k, 0);
+                Zd phiFX = dmd.eigenfunctions(column(map(x))).get(k, 0);
+                double dRe = phiFX.re() - (eigs[k].re() * phiX.re() - eigs[k].im() * phiX.im());
+                double dIm = phiFX.im() - (eigs[k].re() * phiX.im() + eigs[k].im() * phiX.re());
+                consistency = Math.max(consistency, Math.hypot(dRe, dIm) / Math.hypot(phiX.re(), phiX.im()));
+            }
+            System.out.printf("  lambda = %.2f: eigenvalue error %.2e, max. |phi(F(x)) - lambda * phi(x)|"
+                    + " / |phi(x)| %.2e%n", lambda, error, consistency);
+        }
+        double maxError = 0.0;
+        for (double[] x0 : unseen) {
+            ComplexMatrixD b = dmd.computeConstantVector(column(x0), 0.0);
+            MatrixD pred = dmd.predict(b, 0.0, STEPS);
+            double[] x = x0;
+            for (int j = 0; j < STEPS; ++j) {
+                maxError = Math.max(maxError, Math.hypot(pred.get(0, j) - x[0], pred.get(1, j) - x[1]));
+                x = map(x);
+            }
+        }
+        MatrixD fit = dmd.predict(0.0, SNAPSHOTS);
+        System.out.printf("  rel. reconstruction error of the data: %.2e%n",
+                data.minus(fit).normF() / data.normF());
+        System.out.printf("  max. error of %d-step predictions from unseen states: %.2e%n%n", STEPS, maxError);
+    }
+
+    private static double[] map(double[] x) {
+        return new double[] { A * x[0], B * x[1] + C * x[0] * x[0] };
+    }
+
+    private static MatrixD column(double[] x) {
+        MatrixD col = Matrices.createD(2, 1);
+        col.set(0, 0, x[0]);
+        col.set(1, 0, x[1]);
+        return col;
+    }
+
+    private static int nearest(Zd[] eigs, double lambda) {
+        int best = 0;
+        for (int k = 1; k < eigs.length; ++k) {
+            if (Math.hypot(eigs[k].re() - lambda, eigs[k].im()) < Math.hypot(eigs[best].re() - lambda,
+                    eigs[best].im())) {
+                best = k;
+            }
+        }
+        return best;
+    }
+}
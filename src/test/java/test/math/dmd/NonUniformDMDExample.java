@@ -0,0 +1,129 @@
+/*
+ * Copyright 2026 Stefan Zobel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.math.dmd;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import math.dmd.NonUniformDMD;
+import net.jamu.complex.Zd;
+import net.jamu.matrix.ComplexMatrixD;
+import net.jamu.matrix.Matrices;
+import net.jamu.matrix.MatrixD;
+
+/**
+ * Fits {@code NonUniformDMD} to two damped oscillations sampled on a jittered
+ * time grid with missing samples and compares the eigenvalues and
+ * {@code predict(double[])} with the known signal. The same data is fitted
+ * with timestamps that start at {@code 0}, at {@code 1000} and at epoch
+ * seconds (where the resolution of the timestamps themselves, about
+ * {@code 2e-7}, limits the accuracy).
+ */
+public class NonUniformDMDExample {
+
+    static final int N = 30;
+    static final int SAMPLES = 240;
+    static final double DT = 0.05;
+    // the continuous-time eigenvalues are sigma_k +/- i * w_k
+    static final double[] SIGMA = { -0.05, -0.2 };
+    static final double[] W = { 2.0, 0.7 };
+
+    public static void main(String[] args) {
+        SplittableRandom rnd = new SplittableRandom(42L);
+        double[][] u = new double[SIGMA.length][N];
+        double[][] v = new double[SIGMA.length][N];
+        for (int k = 0; k < SIGMA.length; ++k) {
+            for (int i = 0; i < N; ++i) {
+                u[k][i] = rnd.nextDouble(-1.0, 1.0);
+                v[k][i] = rnd.nextDouble(-1.0, 1.0);
+            }
+        }
+        // jittered sampling times relative to the start, ~10% of the
+        // samples are missing
+        double[] rel = new double[SAMPLES];
+        int m = 0;
+        for (int j = 0; j < SAMPLES; ++j) {
+            if (rnd.nextDouble() < 0.1) {
+                continue;
+            }
+            rel[m++] = (j + rnd.nextDouble(-0.4, 0.4)) * DT;
+        }
+        rel = Arrays.copyOf(rel, m);
+        // uniform evaluation grid that extends 20% beyond the data
+        double span = rel[m - 1];
+        double[] relEval = new double[200];
+        for (int j = 0; j < relEval.length; ++j) {
+            relEval[j] = 1.2 * span * j / (relEval.length - 1);
+        }
+        System.out.println("n = " + N + ", m = " + m + " (of " + SAMPLES + "), span = " + span);
+
+        for (double origin : new double[] { 0.0, 1000.0, 1.7e9 }) {
+            double[] times = shift(rel, origin);
+            double[] at = shift(relEval, origin);
+            MatrixD data = signal(u, v, rel);
+            NonUniformDMD dmd = new NonUniformDMD(data, times, 2 * SIGMA.length).compute();
+
+            MatrixD expected = signal(u, v, relEval);
+            MatrixD pred = dmd.predict(at);
+            double relError = expected.minus(pred).normF() / expected.normF();
+            System.out.println();
+            System.out.println("time origin: " + origin);
+            System.out.println("iterations : " + dmd.getIterations() + ", residual: " + dmd.getResidualNorm());
+            System.out.println("max. eigenvalue error       : " + eigenvalueError(dmd.getOmega()));
+            System.out.println("rel. prediction error (F)   : " + relError);
+        }
+    }
+
+    private static double[] shift(double[] t, double origin) {
+        double[] s = new double[t.length];
+        for (int j = 0; j < t.length; ++j) {
+            s[j] = origin + t[j];
+        }
+        return s;
+    }
+
+    // x(t) = sum_k e^(sigma_k * t) * (u_k * cos(w_k * t) + v_k * sin(w_k * t))
+    private static MatrixD signal(double[][] u, double[][] v, double[] t) {
+        MatrixD x = Matrices.createD(N, t.length);
+        for (int j = 0; j < t.length; ++j) {
+            for (int k = 0; k < SIGMA.length; ++k) {
+                double e = Math.exp(SIGMA[k] * t[j]);
+                double c = e * Math.cos(W[k] * t[j]);
+                double s = e * Math.sin(W[k] * t[j]);
+                for (int i = 0; i < N; ++i) {
+                    x.set(i, j, x.get(i, j) + c * u[k][i] + s * v[k][i]);
+                }
+            }
+        }
+        return x;
+    }
+
+    // distance of the exact eigenvalues to the nearest computed one
+    private static double eigenvalueError(ComplexMatrixD omega) {
+        double max = 0.0;
+        for (int k = 0; k < SIGMA.length; ++k) {
+            for (double sign : new double[] { 1.0, -1.0 }) {
+                double min = Double.POSITIVE_INFINITY;
+                for (int i = 0; i < omega.numRows(); ++i) {
+                    Zd z = omega.get(i, i);
+                    min = Math.min(min, Math.hypot(z.re() - SIGMA[k], z.im() - sign * W[k]));
+                }
+                max = Math.max(max, min);
+            }
+        }
+        return max;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2026 Stefan Zobel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.math.dmd;
+
+import java.util.concurrent.ForkJoinPool;
+
+import math.dmd.ExactDMDV2;
+import math.dmd.ReconstructionError;
+import net.jamu.matrix.MatrixD;
+
+/**
+ * Compares the closed-form reconstruction errors of
+ * {@code getReconstructionError()} and {@code ReconstructionError} with the
+ * errors of the materialized prediction on the data of
+ * {@link RealValuedDataExample}, once for the exact rank 4 (where the error
+ * is below the {@code sqrt(eps) * ||X||} floor of the closed form) and once
+ * for a truncated rank 2 fit.
+ */
+public class ReconstructionErrorExample {
+
+    public static void main(String[] args) {
+        MatrixD data = FloatVsDoubleExample.setupMeasurementsMatrix(FloatVsDoubleExample.ti);
+        double deltaT = (FloatVsDoubleExample.t_end - FloatVsDoubleExample.t_start)
+                / (FloatVsDoubleExample.t_num - 1);
+
+        for (int rank : new int[] { 4, 2 }) {
+            ExactDMDV2 dmd = new ExactDMDV2(data, deltaT, rank).compute();
+            MatrixD diff = data.minus(dmd.predict(FloatVsDoubleExample.t_start, data.numColumns()));
+            ReconstructionError errors = dmd.computeReconstructionErrors(ForkJoinPool.commonPool());
+
+            System.out.println("rank " + rank);
+            System.out.println("||X - pred||_F (explicit)       : " + diff.normF());
+            System.out.println("getReconstructionError()        : " + dmd.getReconstructionError());
+            System.out.println("ReconstructionError.getTotal()  : " + errors.getTotal());
+            System.out.println("floor sqrt(eps) * ||X||_F       : " + Math.sqrt(Math.ulp(1.0)) * data.normF());
+            System.out.println("max. column error deviation     : " + maxDeviation(columnNorms(diff), errors.getColumnErrors()));
+            System.out.println("max. row error deviation        : " + maxDeviation(rowNorms(diff), errors.getRowErrors()));
+            System.out.println("RelativeError (avg. elementwise): "
+                    + RelativeError.avgRelErrorOverall(RelativeError.compute(data,
+                            dmd.predict(FloatVsDoubleExample.t_start, data.numColumns()))));
+            System.out.println();
+        }
+    }
+
+    private static double[] columnNorms(MatrixD A) {
+        double[] norms = new double[A.numColumns()];
+        for (int j = 0; j < A.numColumns(); ++j) {
+            double sum = 0.0;
+            for (int i = 0; i < A.numRows(); ++i) {
+                sum += A.get(i, j) * A.get(i, j);
+            }
+            norms[j] = Math.sqrt(sum);
+        }
+        return norms;
+    }
+
+    private static double[] rowNorms(MatrixD A) {
+        double[] norms = new double[A.numRows()];
+        for (int i = 0; i < A.numRows(); ++i) {
+            double sum = 0.0;
+            for (int j = 0; j < A.numColumns(); ++j) {
+                sum += A.get(i, j) * A.get(i, j);
+            }
+            norms[i] = Math.sqrt(sum);
+        }
+        return norms;
+    }
+
+    private static double maxDeviation(double[] expected, double[] actual) {
+        double max = 0.0;
+        for (int i = 0; i < expected.length; ++i) {
+            max = Math.max(max, Math.abs(expected[i] - actual[i]));
+        }
+        return max;
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2026 Stefan Zobel
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package test.math.dmd;
+
+import java.util.SplittableRandom;
+
+import math.dmd.ExactDMDV2;
+import math.dmd.RobustDMD;
+import net.jamu.complex.Zd;
+import net.jamu.matrix.ComplexMatrixD;
+import net.jamu.matrix.Matrices;
+import net.jamu.matrix.MatrixD;
+
+/**
+ * Two damped oscillations ({@code n = 100}, rank 4) with 2% of the entries
+ * replaced by large spikes. Compares {@code RobustDMD} with
+ * {@code ExactDMDV2} on the corrupted data: the eigenvalues, the
+ * reconstruction of the clean signal and how well {@code getSparse()}
+ * matches the injected outliers.
+ */
+public class RobustDMDExample {
+
+    static final int N = 100;
+    static final int M = 200;
+    static final int RANK = 4;
+    static final double DT = 0.05;
+    static final double OUTLIER_FRACTION = 0.02;
+    // the continuous-time eigenvalues are sigma_k +/- i * w_k
+    static final double[] SIGMA = { -0.02, -0.1 };
+    static final double[] W = { 3.0, 1.1 };
+
+    public static void main(String[] args) {
+        SplittableRandom rnd = new SplittableRandom(7L);
+        MatrixD clean = signal(rnd);
+        double max = clean.normMaxAbs();
+
+        // sparse corruption: spikes of 2 to 5 times the signal amplitude
+        MatrixD spikes = Matrices.createD(N, M);
+        int count = 0;
+        for (int j = 0; j < M; ++j) {
+            for (int i = 0; i < N; ++i) {
+                if (rnd.nextDouble() < OUTLIER_FRACTION) {
+                    spikes.set(i, j, (rnd.nextBoolean() ? 1.0 : -1.0) * rnd.nextDouble(2.0, 5.0) * max);
+                    ++count;
+                }
+            }
+        }
+        MatrixD data = clean.plus(spikes);
+        System.out.println("n = " + N + ", m = " + M + ", outliers: " + count);
+
+        ExactDMDV2 reference = new ExactDMDV2(clean, DT, RANK).compute();
+        ExactDMDV2 exact = new ExactDMDV2(data, DT, RANK).compute();
+        RobustDMD robust = new RobustDMD(data, DT, RANK).compute();
+
+        System.out.println();
+        System.out.println("                                    eigenvalue error   rel. error vs clean signal");
+        print("ExactDMDV2 on the clean data", reference.getOmega(), reference.predict(0.0, M), clean);
+        print("ExactDMDV2 on the corrupted data", exact.getOmega(), exact.predict(0.0, M), clean);
+        print("RobustDMD on the corrupted data", robust.getOmega(), robust.predict(0.0, M), clean);
+
+        // the sparse part vs the injected outliers
+        MatrixD S = robust.getSparse();
+        int detected = 0;
+        int falsePositives = 0;
+        for (int j = 0; j < M; ++j) {
+            for (int i = 0; i < N; ++i) {
+                boolean flagged = Math.abs(S.get(i, j)) > 0.5 * max;
+                if (spikes.get(i, j) != 0.0) {
+                    detected += flagged ? 1 : 0;
+                } else {
+                    falsePositives += flagged ? 1 : 0;
+                }
+            }
+        }
+        System.out.println();
+        System.out.println("RobustDMD: rank " + robust.getRank() + ", " + robust.getIterations() + " iterations");
+        System.out.println("outliers found in getSparse()       : " + detected + " / " + count);
+        System.out.println("false positives (|S| > 0.5 * max)   : " + falsePositives);
+        System.out.println("||S - spikes||_F / ||spikes||_F     : " + S.minus(spikes).normF() / spikes.normF());
+        System.out.println("||L - clean||_F / ||clean||_F       : "
+                + robust.getLowRank().minus(clean).normF() / clean.normF());
+    }
+
+    private static void print(String name, ComplexMatrixD omega, MatrixD pred, MatrixD clean) {
+        System.out.printf("%-35s %.2e           %.2e%n", name, eigenvalueError(omega),
+                clean.minus(pred).normF() / clean.normF());
+    }
+
+    // x(t) = sum_k e^(sigma_k * t) * (u_k * cos(w_k * t) + v_k * sin(w_k * t))
+    private static MatrixD signal(SplittableRandom rnd) {
+        double[][] u = new double[SIGMA.length][N];
+        double[][] v = new double[SIGMA.length][N];
+        for (int k = 0; k < SIGMA.length; ++k) {
+            for (int i = 0; i < N; ++i) {
+                u[k][i] = rnd.nextDouble(-1.0, 1.0);
+                v[k][i] = rnd.nextDouble(-1.0, 1.0);
+            }
+        }
+        MatrixD x = Matrices.createD(N, M);
+        for (int j = 0; j < M; ++j) {
+            double t = j * DT;
+            for (int k = 0; k < SIGMA.length; ++k) {
+                double e = Math.exp(SIGMA[k] * t);
+                double c = e * Math.cos(W[k] * t);
+                double s = e * Math.sin(W[k] * t);
+                for (int i = 0; i < N; ++i) {
+                    x.set(i, j, x.get(i, j) + c * u[k][i] + s * v[k][i]);
+                }
+            }
+        }
+        return x;
+    }
+
+    // distance of the exact eigenvalues to the nearest computed one
+    private static double eigenvalueError(ComplexMatrixD omega) {
+        double max = 0.0;
+        for (int k = 0; k < SIGMA.length; ++k) {
+            for (double sign : new double[] { 1.0, -1.0 }) {
+                double min = Double.POSITIVE_INFINITY;
+                for (int i = 0; i < omega.numRows(); ++i) {
+                    Zd z = omega.get(i, i);
+                    min = Math.min(min, Math.hypot(z.re() - SIGMA[k], z.im() - sign * W[k]));
+                }
+                max = Math.max(max, min);
+            }
+        }
+        return max;
+    }
+}